@@ -0,0 +1,85 @@
+package com.filmsociety.moviedatabaseapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.moviedatabaseapi.MovieDatabaseApiApplication;
+import com.filmsociety.moviedatabaseapi.entity.Actor;
+import com.filmsociety.moviedatabaseapi.entity.Genre;
+import com.filmsociety.moviedatabaseapi.repository.ActorRepository;
+import com.filmsociety.moviedatabaseapi.repository.GenreRepository;
+import com.filmsociety.moviedatabaseapi.service.MovieService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// The application (no web server) running on a generated SQLite catalogue in a temporary file.
+// Size it with -Dbenchmark.movies (default 100000); the catalogue comes from CatalogGenerator's defaults.
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    static final int MOVIES = Integer.getInteger("benchmark.movies", 100_000);
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+
+    MovieService movieService;
+    ObjectMapper objectMapper;
+    String[] vocabulary; // Words taken from generated titles, for searches and new titles
+    List<Genre> genres; // Detached genres to reference from new movies
+    List<Actor> actors; // Detached actors to reference from new movies
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        directory = Files.createTempDirectory("kmdb-jmh");
+        context = new SpringApplicationBuilder(MovieDatabaseApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:sqlite:" + directory.resolve("catalogue.db"),
+                        "--seed.movies=" + MOVIES,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.filmsociety.moviedatabaseapi=WARN");
+        movieService = context.getBean(MovieService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        genres = context.getBean(GenreRepository.class).findAll();
+        actors = context.getBean(ActorRepository.class).findAll();
+        vocabulary = context.getBean(JdbcTemplate.class)
+                .queryForList("SELECT title FROM movie WHERE id % 97 = 0 LIMIT 2000", String.class).stream()
+                .flatMap(title -> Arrays.stream(title.toLowerCase().split(" ")))
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    // A title of 1-4 words drawn with a skew towards the start of the vocabulary
+    String randomTitle(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int w = 0; w < words; w++) {
+            double skew = random.nextDouble();
+            title.append(w == 0 ? "" : " ").append(vocabulary[(int) (skew * skew * vocabulary.length)]);
+        }
+        return title.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.filmsociety.moviedatabaseapi.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the JMH benchmarks from the Maven test phase and writes the results to target/jmh-result.json,
+// which can be kept as a baseline and compared between runs.
+// Run with: mvn test -Pbenchmark -Dtest=JmhBenchmarkRunner -Dbenchmark.movies=100000
+// Narrow it down with -Djmh.include=getAllMovies (a regular expression over benchmark names).
+@Tag("benchmark")
+class JmhBenchmarkRunner {
+
+    @Test
+    void runBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(MovieServiceBenchmarks.class.getSimpleName() + "." + System.getProperty("jmh.include", ".*"))
+                .jvmArgsAppend("-Dbenchmark.movies=" + CatalogState.MOVIES)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.filmsociety.moviedatabaseapi.benchmark;
+
+import com.filmsociety.moviedatabaseapi.entity.Actor;
+import com.filmsociety.moviedatabaseapi.entity.Genre;
+import com.filmsociety.moviedatabaseapi.entity.Movie;
+import com.filmsociety.moviedatabaseapi.projection.MovieSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Latency of the MovieService hot paths and of rendering Movie graphs as JSON.
+// Run through JmhBenchmarkRunner; every benchmark shares one generated catalogue per fork.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieServiceBenchmarks {
+
+    private static final int PAGE_SIZE = 20;
+
+    // Per-thread random source, so benchmarks do not hit the same rows every time
+    @State(Scope.Thread)
+    public static class Randomness {
+        Random random = new Random(1);
+    }
+
+    // Page number for getAllMovies; deep pages show the cost of OFFSET
+    @State(Scope.Benchmark)
+    public static class PageDepth {
+        @Param({"0", "100", "1000"})
+        int page;
+    }
+
+    // One page of fully initialized movies, loaded once and serialized repeatedly
+    @State(Scope.Benchmark)
+    public static class MovieGraphs {
+        List<Movie> movies;
+
+        @Setup(Level.Trial)
+        public void load(CatalogState catalog) {
+            movies = catalog.movieService.getMoviesAfter("", 100, false).getContent();
+        }
+    }
+
+    @Benchmark
+    public Movie createMovie(CatalogState catalog, Randomness randomness) {
+        Random random = randomness.random;
+        Movie movie = new Movie(catalog.randomTitle(random), 1920 + random.nextInt(105), 80 + random.nextInt(100));
+        Set<Genre> genres = new HashSet<>();
+        genres.add(catalog.genres.get(random.nextInt(catalog.genres.size())));
+        movie.setGenres(genres);
+        Set<Actor> actors = new HashSet<>();
+        for (int a = 0; a < 5; a++) {
+            actors.add(catalog.actors.get(random.nextInt(catalog.actors.size())));
+        }
+        movie.setActors(actors);
+        return catalog.movieService.createMovie(movie);
+    }
+
+    @Benchmark
+    public List<MovieSummary> getAllMovies(CatalogState catalog, PageDepth depth) {
+        return catalog.movieService.getAllMovies(depth.page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Movie> searchMoviesByTitle(CatalogState catalog, Randomness randomness) {
+        String word = catalog.vocabulary[randomness.random.nextInt(catalog.vocabulary.length)];
+        return catalog.movieService.searchMoviesByTitle(word, 100);
+    }
+
+    @Benchmark
+    public List<Movie> getMoviesByActor(CatalogState catalog, Randomness randomness) {
+        Actor actor = catalog.actors.get(randomness.random.nextInt(catalog.actors.size()));
+        return catalog.movieService.getMoviesByActor(actor.getId(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] serializeMovieGraphs(CatalogState catalog, MovieGraphs graphs) throws Exception {
+        return catalog.objectMapper.writeValueAsBytes(graphs.movies);
+    }
+}
@@ -0,0 +1,34 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Enables the @Cacheable/@CacheEvict annotations used by the services.
+// Cache names and the Caffeine size/TTL spec are set in application.properties;
+// hit and miss counts are published as cache.gets metrics under /actuator/metrics.
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    public static final String GENRES = "genres"; // Genre by ID
+    public static final String GENRE_LISTS = "genreLists"; // All genres and genre pages
+    public static final String ACTORS = "actors"; // Actor by ID
+    public static final String STATS = "stats"; // Statistics by catalogue revision
+
+    // Caffeine caches whose evictions and puts inside a transaction wait for its commit, so a read that runs
+    // between an eviction and the commit cannot put the old row back for the rest of the TTL
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        caffeine.setCacheNames(properties.getCacheNames());
+        caffeine.setCacheSpecification(properties.getCaffeine().getSpec());
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -0,0 +1,43 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Metrics beyond what Spring Boot records on its own, all scraped from /actuator/prometheus.
+// Boot already times every endpoint (http.server.requests) and repository method (spring.data.repository.invocations)
+// and publishes cache hits and misses (cache.gets), connection pool waits (hikaricp.connections.acquire) and,
+// with hibernate-micrometer, the Hibernate statistics (hibernate.*). This adds the @Timed service timers
+// (service.invocations) and the per-request SQL statement count (http.server.sql.statements).
+// Latency histograms are switched on per metric in application.properties.
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final SqlStatementMetrics sqlStatementMetrics;
+
+    public MetricsConfig(MeterRegistry registry) {
+        this.sqlStatementMetrics = new SqlStatementMetrics(registry);
+    }
+
+    // Records the @Timed methods of the services
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // One inspector for all sessions; it only counts and never rewrites the SQL
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementMetrics);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlStatementMetrics);
+    }
+}
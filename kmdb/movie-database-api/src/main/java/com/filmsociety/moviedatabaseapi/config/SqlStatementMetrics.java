@@ -0,0 +1,66 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Counts the SQL statements Hibernate prepares while a request is handled and records the count per endpoint
+// as the distribution summary http.server.sql.statements, tagged like http.server.requests. A climbing count
+// on one URI is the signature of an N+1 query. Plain JdbcTemplate queries are not seen by Hibernate and not
+// counted; neither is work a request hands to another thread, such as a streamed export.
+class SqlStatementMetrics implements StatementInspector, AsyncHandlerInterceptor {
+
+    static final String METRIC = "http.server.sql.statements";
+
+    private static final ThreadLocal<int[]> statements = new ThreadLocal<>(); // Counter of the request on this thread
+
+    private final MeterRegistry registry;
+
+    SqlStatementMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Called by Hibernate once per statement it prepares; the SQL is passed through unchanged
+    @Override
+    public String inspect(String sql) {
+        int[] count = statements.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statements.set(new int[1]);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        statements.remove(); // The response is finished on another thread
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        int[] count = statements.get();
+        statements.remove();
+        if (count == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRIC)
+                .description("SQL statements prepared by Hibernate per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .register(registry)
+                .record(count[0]);
+    }
+}
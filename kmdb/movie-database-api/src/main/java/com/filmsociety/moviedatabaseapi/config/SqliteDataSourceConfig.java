@@ -0,0 +1,43 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Production datasource layout for SQLite (profile "prod"): a single-connection writer pool
+// and a read-only reader pool on the same WAL-mode database file.
+// The primary DataSource hands out lazy connections and only picks a pool when the first
+// statement runs: read-only transactions get a reader, everything else (writes, migrations) the writer.
+@Configuration
+@Profile("prod")
+public class SqliteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("kmdb.datasource.writer")
+    public HikariDataSource writerDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("kmdb.datasource.reader")
+    public HikariDataSource readerDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writerDataSource") DataSource writerDataSource,
+                                 @Qualifier("readerDataSource") DataSource readerDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writerDataSource);
+        dataSource.setReadOnlyDataSource(readerDataSource); // Used once a transaction marks the connection read-only
+        return dataSource;
+    }
+}
@@ -0,0 +1,47 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+
+// Checks the virtual-thread request mode (profile "virtual") against the connection pools.
+// SQLite JDBC calls run in native code under synchronized methods, so a virtual thread stays pinned to
+// its carrier thread for the whole call. Only threads holding a pooled connection can be in such a call,
+// so the pools bound the number of pinned carriers. When they could pin every carrier, JSON rendering and
+// request parsing of the other requests would stall behind the database, so this warns at startup.
+@Configuration
+@Profile("virtual")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    private final List<HikariDataSource> pools;
+
+    public VirtualThreadConfig(List<HikariDataSource> pools) {
+        this.pools = pools;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkCarrierHeadroom() {
+        if (Runtime.version().feature() < 21) {
+            logger.warn("The virtual profile needs Java 21 or later; requests are served on platform threads");
+            return;
+        }
+        int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors()); // The scheduler's default is one carrier per core
+        int connections = pools.stream().mapToInt(HikariDataSource::getMaximumPoolSize).sum();
+        if (connections >= carriers) {
+            logger.warn("{} pooled JDBC connections can pin all {} virtual-thread carriers; start the JVM with "
+                    + "-Djdk.virtualThreadScheduler.parallelism={} or shrink the pools", connections, carriers,
+                    connections + Math.max(carriers, 2));
+        } else {
+            logger.info("Serving requests on virtual threads; JDBC can pin at most {} of {} carriers", connections, carriers);
+        }
+    }
+}
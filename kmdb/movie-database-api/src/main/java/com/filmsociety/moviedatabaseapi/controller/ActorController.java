@@ -1,21 +1,30 @@
 package com.filmsociety.moviedatabaseapi.controller;
 
 import com.filmsociety.moviedatabaseapi.entity.Actor;
+import com.filmsociety.moviedatabaseapi.exception.DuplicateNameException;
 import com.filmsociety.moviedatabaseapi.exception.ImmutableFieldException;
 import com.filmsociety.moviedatabaseapi.exception.NotFoundException;
+import com.filmsociety.moviedatabaseapi.pagination.KeysetPage;
 import com.filmsociety.moviedatabaseapi.exception.ErrorResponse;
 import com.filmsociety.moviedatabaseapi.exception.RelationshipExistsException;
+import com.filmsociety.moviedatabaseapi.projection.BatchResult;
+import com.filmsociety.moviedatabaseapi.readmodel.CatalogReadModel;
+import com.filmsociety.moviedatabaseapi.readmodel.CatalogSnapshot;
 import com.filmsociety.moviedatabaseapi.service.ActorService;
+import com.filmsociety.moviedatabaseapi.service.ChangeCounterService;
+import com.filmsociety.moviedatabaseapi.service.CoStarService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.data.domain.Page;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,16 +34,41 @@ public class ActorController {
     @Autowired
     private ActorService actorService; // Service to handle business logic for actors
 
+    @Autowired
+    private ChangeCounterService changeCounterService; // Change counters behind the list ETags
+
+    @Autowired
+    private CoStarService coStarService; // Co-star graph queries
+
+    @Autowired
+    private CatalogReadModel catalogReadModel; // In-memory catalogue that answers the GETs when enabled
+
     @GetMapping
     public ResponseEntity<?> getAllActors(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            WebRequest request) {
 
         // Validate pagination parameters
-        if (page < 0 || size <= 0) {
-            return ResponseEntity.badRequest().body(
-                    Map.of("message", "Invalid pagination parameters. Page must be >= 0 and size must be > 0.")
-            );
+        if (page < 0 || size <= 0 || (after != null && size > KeysetPage.MAX_SIZE)) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Invalid pagination parameters. Page must be >= 0 and size must be > 0, "
+                            + "and at most " + KeysetPage.MAX_SIZE + " with 'after'."));
+        }
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current(); // Null while reads go to the database
+
+        // Keyset mode: seek past the cursor instead of using OFFSET
+        if (after != null) {
+            return ResponseEntity.ok(catalog != null
+                    ? catalog.getActorsAfter(after, size)
+                    : actorService.getActorsAfter(after, size));
+        }
+        if (catalog != null) {
+            return ResponseEntity.ok(catalog.getPaginatedActors(page, size));
         }
 
         // Fetch paginated list of actors from the service
@@ -46,8 +80,16 @@ public class ActorController {
 
     // Retrieve actors filtered by name with error handling
     @GetMapping(params = "name")
-    public ResponseEntity<List<Actor>> getActorsByName(@RequestParam String name) {
-        List<Actor> actors = actorService.getActorsByName(name);
+    public ResponseEntity<?> getActorsByName(@RequestParam String name,
+                                             @RequestParam(defaultValue = "100") int limit,
+                                             WebRequest request) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid limit parameter. Limit must be > 0."));
+        }
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        List<Actor> actors = actorService.getActorsByName(name, limit);
         // Handle case where no actors are found
         if (actors.isEmpty()) {
             throw new NotFoundException("No actors found with name: " + name);
@@ -55,26 +97,97 @@ public class ActorController {
         return ResponseEntity.ok(actors); // Return the list of actors found
     }
 
+    // Retrieve many actors by ID, e.g. ?ids=3,1,2, in request order plus the IDs that were not found
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getActorsByIds(@RequestParam List<Long> ids, WebRequest request) {
+        if (invalidIds(ids)) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("message", "Invalid ids parameter. Give between 1 and " + BatchResult.MAX_IDS + " IDs."));
+        }
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current();
+        return ResponseEntity.ok(catalog != null ? catalog.getActorsByIds(ids) : actorService.getActorsByIds(ids));
+    }
+
+    // Same as above with the IDs in the body ({"ids": [...]}), for ID lists too long for a URL
+    @PostMapping("/batch")
+    public ResponseEntity<?> getActorsByIdsInBody(@RequestBody Map<String, List<Long>> body) {
+        List<Long> ids = body.get("ids");
+        if (invalidIds(ids)) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("message", "Invalid ids. Give between 1 and " + BatchResult.MAX_IDS + " IDs."));
+        }
+        CatalogSnapshot catalog = catalogReadModel.current();
+        return ResponseEntity.ok(catalog != null ? catalog.getActorsByIds(ids) : actorService.getActorsByIds(ids));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Actor> getActorById(@PathVariable Long id) {
+    public ResponseEntity<?> getActorById(@PathVariable Long id, WebRequest request) {
+        CatalogSnapshot catalog = catalogReadModel.current();
+        if (catalog != null) {
+            Optional<Long> version = catalog.getActorVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.status(404).body(null); // Return 404 if not found
+            }
+            if (request.checkNotModified(ETags.entity("actor", id, version.get()))) {
+                return null; // 304 Not Modified, nothing serialized
+            }
+            return ResponseEntity.ok(catalog.getActorById(id).get());
+        }
         try {
-            Actor actor = actorService.getActorById(id); // Fetch actor by ID
+            Actor actor = actorService.getActorById(id); // Fetch actor by ID (cached, so repeated reads skip the database)
+            if (request.checkNotModified(ETags.entity("actor", id, actor.getVersion()))) {
+                return null; // 304 Not Modified, nothing serialized
+            }
             return ResponseEntity.ok(actor); // Return the found actor
         } catch (NotFoundException e) {
             return ResponseEntity.status(404).body(null); // Return 404 if not found
         }
     }
 
+    // Actors who appeared in movies with this one, most shared movies first
+    @GetMapping("/{id}/costars")
+    public ResponseEntity<?> getCoStars(@PathVariable Long id, @RequestParam(defaultValue = "100") int limit) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid limit parameter. Limit must be > 0."));
+        }
+        try {
+            return ResponseEntity.ok(coStarService.getCoStars(id, limit)); // Return the co-stars
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage())); // Return 404 if not found
+        }
+    }
+
+    // Shortest chain of co-stars linking two actors
+    @GetMapping("/{id}/path/{otherId}")
+    public ResponseEntity<?> getPath(@PathVariable Long id, @PathVariable Long otherId,
+                                     @RequestParam(defaultValue = "6") int maxDegrees) {
+        if (maxDegrees <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid maxDegrees parameter. It must be > 0."));
+        }
+        try {
+            return ResponseEntity.ok(coStarService.getPath(id, otherId, maxDegrees)); // Return the path
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage())); // Unknown actor or no path
+        }
+    }
+
     @PostMapping
-    public ResponseEntity<Actor> createActor(@jakarta.validation.Valid @RequestBody Actor actor) {
-        Actor createdActor = actorService.createActor(actor); // Create a new actor
-        return ResponseEntity.status(201).body(createdActor); // Return the created actor with status 201
+    public ResponseEntity<?> createActor(@jakarta.validation.Valid @RequestBody Actor actor) {
+        try {
+            Actor createdActor = actorService.createActor(actor); // Create a new actor
+            return ResponseEntity.status(201).body(createdActor); // Return the created actor with status 201
+        } catch (DuplicateNameException e) {
+            return ResponseEntity.status(409).body(Map.of("message", e.getMessage())); // Return 409 if the name is taken
+        }
     }
 
     @PatchMapping("/{id}")
     public ResponseEntity<?> updateActor(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
         try {
-            Actor actor = actorService.getActorById(id); // Fetch actor by ID
+            Actor actor = actorService.getActorForUpdate(id); // Fetch a modifiable copy of the actor by ID
 
             // Check if the request is trying to modify the id field
             if (updates.containsKey("id")) {
@@ -90,7 +203,7 @@ public class ActorController {
             }
 
             // Save updated actor
-            Actor updatedActor = actorService.createActor(actor);
+            Actor updatedActor = actorService.updateActor(actor);
             return ResponseEntity.ok(updatedActor); // Return the updated actor
 
         } catch (ImmutableFieldException e) {
@@ -102,6 +215,9 @@ public class ActorController {
         } catch (DateTimeParseException e) {
             // Handle birthdate format error
             return ResponseEntity.status(400).body(Map.of("message", "Invalid birthdate format: " + e.getMessage()));
+        } catch (DuplicateNameException e) {
+            // Return 409 Conflict when another actor already has the name
+            return ResponseEntity.status(409).body(Map.of("message", e.getMessage()));
         }
     }
 
@@ -136,4 +252,14 @@ public class ActorController {
         ErrorResponse errorResponse = new ErrorResponse("Invalid birthdate format: " + ex.getMessage());
         return ResponseEntity.badRequest().body(errorResponse); // Return 400 Bad Request with error message
     }
+
+    // A batch must name between 1 and BatchResult.MAX_IDS IDs, none of them empty
+    private static boolean invalidIds(List<Long> ids) {
+        return ids == null || ids.isEmpty() || ids.size() > BatchResult.MAX_IDS || ids.contains(null);
+    }
+
+    // Answer 304 when the client's copy of an actor list is still current; also sets the ETag of a 200 response
+    private boolean listNotModified(WebRequest request) {
+        return request.checkNotModified(ETags.list("actors", changeCounterService.current(ChangeCounterService.ACTORS)));
+    }
 }
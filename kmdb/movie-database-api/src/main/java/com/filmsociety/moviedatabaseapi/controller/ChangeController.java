@@ -0,0 +1,60 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.service.ChangeLogService;
+import com.filmsociety.moviedatabaseapi.service.ChangeStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+// The change log, for consumers that keep their own copy of the catalogue: poll /api/changes with the last
+// sequence number they applied, or keep /api/changes/stream open and receive each change as it commits.
+@RestController
+@RequestMapping("/api/changes") // Base URL for the change feed
+public class ChangeController {
+
+    @Autowired
+    private ChangeLogService changeLogService; // Reads the log
+
+    @Autowired
+    private ChangeStreamService changeStreamService; // Server-sent event streams of the log
+
+    // Changes after since, oldest first; pass lastSeq back as since to continue
+    @GetMapping
+    public ResponseEntity<?> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (since < 0 || limit <= 0 || limit > ChangeLogService.MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Invalid parameters. Since must be >= 0 and limit between 1 and " + ChangeLogService.MAX_LIMIT + "."));
+        }
+        return ResponseEntity.ok(changeLogService.getChangesSince(since, limit));
+    }
+
+    // Every change after since as a "change" event whose id is its sequence number. A reconnecting EventSource
+    // sends the last id it received as Last-Event-ID, which takes the place of since. Errors have no body,
+    // since event stream clients cannot read one; a full server answers 503 with Retry-After.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = lastEventId != null ? lastEventId : since;
+        if (from < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return changeStreamService.subscribe(from)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5") // Seconds
+                        .build());
+    }
+}
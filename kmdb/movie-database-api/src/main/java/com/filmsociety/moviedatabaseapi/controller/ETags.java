@@ -0,0 +1,19 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+// Strong ETags for conditional GETs. They are built from version counters rather than from the response
+// body, so an unchanged resource is answered with 304 Not Modified before anything is loaded or serialized.
+final class ETags {
+
+    private ETags() {
+    }
+
+    // One entity, e.g. "movie-12-v3"
+    static String entity(String type, Long id, long version) {
+        return "\"" + type + "-" + id + "-v" + version + "\"";
+    }
+
+    // Any list page of a resource, e.g. "movies-r1042"; the URL tells the pages apart
+    static String list(String resource, long revision) {
+        return "\"" + resource + "-r" + revision + "\"";
+    }
+}
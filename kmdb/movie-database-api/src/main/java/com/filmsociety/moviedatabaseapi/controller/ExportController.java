@@ -0,0 +1,57 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+
+@RestController
+@RequestMapping("/api/export") // Base URL for full catalogue exports
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private ExportService exportService; // Service that streams the catalogue from JDBC cursors
+
+    @GetMapping("/movies") // Stream every movie with its genres and actors
+    public ResponseEntity<StreamingResponseBody> exportMovies() {
+        return ndjson(exportService::exportMovies);
+    }
+
+    @GetMapping("/actors") // Stream every actor
+    public ResponseEntity<StreamingResponseBody> exportActors() {
+        return ndjson(exportService::exportActors);
+    }
+
+    @GetMapping("/genres") // Stream every genre
+    public ResponseEntity<StreamingResponseBody> exportGenres() {
+        return ndjson(exportService::exportGenres);
+    }
+
+    // Wrap an export into a streamed NDJSON response body
+    private ResponseEntity<StreamingResponseBody> ndjson(Export export) {
+        StreamingResponseBody body = out -> {
+            try {
+                export.writeTo(out);
+            } catch (SQLException e) {
+                throw new IOException("Export failed", e); // The status is already sent, so the stream just ends
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // One of the ExportService export methods
+    @FunctionalInterface
+    private interface Export {
+        long writeTo(OutputStream out) throws IOException, SQLException;
+    }
+}
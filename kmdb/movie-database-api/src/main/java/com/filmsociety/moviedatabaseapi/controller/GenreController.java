@@ -3,15 +3,22 @@ package com.filmsociety.moviedatabaseapi.controller;
 import com.filmsociety.moviedatabaseapi.entity.Genre;
 import com.filmsociety.moviedatabaseapi.exception.ImmutableFieldException;
 import com.filmsociety.moviedatabaseapi.exception.NotFoundException;
+import com.filmsociety.moviedatabaseapi.pagination.KeysetPage;
 import com.filmsociety.moviedatabaseapi.exception.RelationshipExistsException;
+import com.filmsociety.moviedatabaseapi.projection.BatchResult;
+import com.filmsociety.moviedatabaseapi.readmodel.CatalogReadModel;
+import com.filmsociety.moviedatabaseapi.readmodel.CatalogSnapshot;
+import com.filmsociety.moviedatabaseapi.service.ChangeCounterService;
 import com.filmsociety.moviedatabaseapi.service.GenreService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/genres") // Base URL for genre-related endpoints
@@ -20,29 +27,95 @@ public class GenreController {
     @Autowired
     private GenreService genreService; // Service to handle business logic for genres
 
+    @Autowired
+    private ChangeCounterService changeCounterService; // Change counters behind the list ETags
+
+    @Autowired
+    private PrecompressedResponses precompressedResponses; // Ready-gzipped genre pages
+
+    @Autowired
+    private CatalogReadModel catalogReadModel; // In-memory catalogue that answers the GETs when enabled
+
     @GetMapping
     public ResponseEntity<?> getAllGenres(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            WebRequest request) {
 
         // Validate pagination parameters
-        if (page < 0 || size <= 0) {
-            return ResponseEntity.badRequest().body(
-                    Map.of("message", "Invalid pagination parameters. Page must be >= 0 and size must be > 0.")
-            );
+        if (page < 0 || size <= 0 || (after != null && size > KeysetPage.MAX_SIZE)) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Invalid pagination parameters. Page must be >= 0 and size must be > 0, "
+                            + "and at most " + KeysetPage.MAX_SIZE + " with 'after'."));
         }
+        long revision = changeCounterService.current(ChangeCounterService.GENRES);
+        if (request.checkNotModified(ETags.list("genres", revision))) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current(); // Null while reads go to the database
 
-        // Fetch paginated list of genres from the service
-        Page<Genre> genrePage = genreService.getPaginatedGenres(page, size);
-        List<Genre> genres = genrePage.getContent();
+        // Keyset mode: seek past the cursor instead of using OFFSET
+        if (after != null) {
+            return ResponseEntity.ok(catalog != null
+                    ? catalog.getGenresAfter(after, size)
+                    : genreService.getGenresAfter(after, size));
+        }
 
-        return ResponseEntity.ok(genres); // Return the list of genres
+        // Fetch paginated list of genres from the service; the encoded page is reused until a genre changes
+        return precompressedResponses.respond("genres?page=" + page + "&size=" + size, revision, request, () -> {
+            if (catalog != null) {
+                return catalog.getPaginatedGenres(page, size);
+            }
+            Page<Genre> genrePage = genreService.getPaginatedGenres(page, size);
+            return genrePage.getContent();
+        });
+    }
+
+    // Retrieve many genres by ID, e.g. ?ids=3,1,2, in request order plus the IDs that were not found
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getGenresByIds(@RequestParam List<Long> ids, WebRequest request) {
+        if (invalidIds(ids)) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("message", "Invalid ids parameter. Give between 1 and " + BatchResult.MAX_IDS + " IDs."));
+        }
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current();
+        return ResponseEntity.ok(catalog != null ? catalog.getGenresByIds(ids) : genreService.getGenresByIds(ids));
+    }
+
+    // Same as above with the IDs in the body ({"ids": [...]}), for ID lists too long for a URL
+    @PostMapping("/batch")
+    public ResponseEntity<?> getGenresByIdsInBody(@RequestBody Map<String, List<Long>> body) {
+        List<Long> ids = body.get("ids");
+        if (invalidIds(ids)) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("message", "Invalid ids. Give between 1 and " + BatchResult.MAX_IDS + " IDs."));
+        }
+        CatalogSnapshot catalog = catalogReadModel.current();
+        return ResponseEntity.ok(catalog != null ? catalog.getGenresByIds(ids) : genreService.getGenresByIds(ids));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Genre> getGenreById(@PathVariable Long id) {
+    public ResponseEntity<?> getGenreById(@PathVariable Long id, WebRequest request) {
+        CatalogSnapshot catalog = catalogReadModel.current();
+        if (catalog != null) {
+            Optional<Long> version = catalog.getGenreVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.status(404).body(null); // Return 404 if not found
+            }
+            if (request.checkNotModified(ETags.entity("genre", id, version.get()))) {
+                return null; // 304 Not Modified, nothing serialized
+            }
+            return ResponseEntity.ok(catalog.getGenreById(id).get());
+        }
         try {
-            Genre genre = genreService.getGenreById(id); // Fetch genre by ID
+            Genre genre = genreService.getGenreById(id); // Fetch genre by ID (cached, so repeated reads skip the database)
+            if (request.checkNotModified(ETags.entity("genre", id, genre.getVersion()))) {
+                return null; // 304 Not Modified, nothing serialized
+            }
             return ResponseEntity.ok(genre); // Return the found genre
         } catch (NotFoundException e) {
             return ResponseEntity.status(404).body(null); // Return 404 if not found
@@ -63,7 +136,7 @@ public class GenreController {
                 throw new ImmutableFieldException("Cannot modify immutable field: id");
             }
 
-            Genre genre = genreService.getGenreById(id); // Fetch genre by ID
+            Genre genre = genreService.getGenreForUpdate(id); // Fetch a modifiable copy of the genre by ID
 
             // Apply updates from the request body
             if (updates.containsKey("name")) {
@@ -95,4 +168,14 @@ public class GenreController {
             return ResponseEntity.status(409).body(e.getMessage()); // Return 409 if relationships exist
         }
     }
+
+    // A batch must name between 1 and BatchResult.MAX_IDS IDs, none of them empty
+    private static boolean invalidIds(List<Long> ids) {
+        return ids == null || ids.isEmpty() || ids.size() > BatchResult.MAX_IDS || ids.contains(null);
+    }
+
+    // Answer 304 when the client's copy of a genre list is still current; also sets the ETag of a 200 response
+    private boolean listNotModified(WebRequest request) {
+        return request.checkNotModified(ETags.list("genres", changeCounterService.current(ChangeCounterService.GENRES)));
+    }
 }
@@ -0,0 +1,28 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.importer.ImportReport;
+import com.filmsociety.moviedatabaseapi.service.MovieImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/import") // Base URL for bulk import endpoints
+public class ImportController {
+
+    @Autowired
+    private MovieImportService movieImportService; // Service that streams uploads into the database
+
+    // Bulk import of movies from an NDJSON body (one movie object per line).
+    // The body is streamed, so uploads of any size are read in constant memory.
+    @PostMapping("/movies")
+    public ResponseEntity<ImportReport> importMovies(InputStream body) throws IOException {
+        ImportReport report = movieImportService.importMovies(body); // Import and collect per-row errors
+        return ResponseEntity.ok(report); // Return counts, rows/sec and rejected rows
+    }
+}
@@ -2,19 +2,32 @@ package com.filmsociety.moviedatabaseapi.controller;
 
 // Import necessary classes and packages
 import com.filmsociety.moviedatabaseapi.entity.Movie;
-import com.filmsociety.moviedatabaseapi.entity.Actor;
+import com.filmsociety.moviedatabaseapi.exception.DuplicateNameException;
 import com.filmsociety.moviedatabaseapi.exception.NotFoundException;
 import com.filmsociety.moviedatabaseapi.exception.ErrorResponse;
+import com.filmsociety.moviedatabaseapi.pagination.FacetedPage;
+import com.filmsociety.moviedatabaseapi.pagination.KeysetPage;
+import com.filmsociety.moviedatabaseapi.projection.BatchResult;
+import com.filmsociety.moviedatabaseapi.projection.MovieFacets;
+import com.filmsociety.moviedatabaseapi.projection.MovieSummary;
+import com.filmsociety.moviedatabaseapi.readmodel.CatalogReadModel;
+import com.filmsociety.moviedatabaseapi.readmodel.CatalogSnapshot;
+import com.filmsociety.moviedatabaseapi.search.MovieFilter;
+import com.filmsociety.moviedatabaseapi.service.ChangeCounterService;
+import com.filmsociety.moviedatabaseapi.service.FacetService;
 import com.filmsociety.moviedatabaseapi.service.MovieService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @RestController // Indicates that this class is a REST controller
 @RequestMapping("/api/movies") // Maps requests to /api/movies to this controller
@@ -23,63 +36,197 @@ public class MovieController {
     @Autowired // Automatically injects the MovieService bean
     private MovieService movieService;
 
+    @Autowired
+    private ChangeCounterService changeCounterService; // Change counters behind the list ETags
+
+    @Autowired
+    private FacetService facetService; // Facet counts for the filter and the title search
+
+    @Autowired
+    private PrecompressedResponses precompressedResponses; // Ready-gzipped first pages of the movie list
+
+    @Autowired
+    private CatalogReadModel catalogReadModel; // In-memory catalogue that answers the GETs when enabled
+
+    @Value("${compression.cached-movie-pages:5}")
+    private int cachedMoviePages; // Unfiltered pages below this number are served precompressed
+
     @GetMapping // Handles GET requests to retrieve all movies
     public ResponseEntity<?> getAllMovies(
             @RequestParam(defaultValue = "0") int page, // Pagination: default page is 0
             @RequestParam(defaultValue = "10") int size, // Pagination: default size is 10
             @RequestParam(required = false) Long genre, // Optional genre filter
-            @RequestParam(required = false) Long actor) { // Optional actor filter
+            @RequestParam(required = false) Long actor, // Optional actor filter
+            @RequestParam(required = false) String after, // Optional keyset cursor, empty for the first page
+            @RequestParam(defaultValue = "id") String sort, // Keyset order: id or releaseYear
+            WebRequest request) {
         // Validate pagination parameters
-        if (page < 0 || size <= 0) { // Check if page and size are valid
+        if (page < 0 || size <= 0 || (after != null && size > KeysetPage.MAX_SIZE)) { // size + 1 must stay an int
+            return ResponseEntity.badRequest().body(new ErrorResponse("Invalid pagination parameters. "
+                    + "Page must be >= 0 and size must be > 0, and at most " + KeysetPage.MAX_SIZE + " with 'after'."));
+        }
+        if (after != null && (actor != null || genre != null)) { // Keyset pages are not filtered
             return ResponseEntity.badRequest()
-                    .body(new ErrorResponse("Invalid pagination parameters. Page must be >= 0 and size must be > 0."));
+                    .body(new ErrorResponse("The 'after' cursor cannot be combined with 'genre' or 'actor'."));
+        }
+        long revision = changeCounterService.current(ChangeCounterService.MOVIES);
+        if (request.checkNotModified(ETags.list("movies", revision))) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current(); // Null while reads go to the database
+
+        if (after != null) { // Keyset mode, seeks instead of using OFFSET
+            if (!sort.equals("id") && !sort.equals("releaseYear")) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("Invalid sort parameter. Sort must be 'id' or 'releaseYear'."));
+            }
+            boolean byReleaseYear = sort.equals("releaseYear");
+            return ResponseEntity.ok(catalog != null
+                    ? catalog.getMoviesAfter(after, size, byReleaseYear)
+                    : movieService.getMoviesAfter(after, size, byReleaseYear));
         }
 
-        List<Movie> movies; // Declare a list to hold the retrieved movies
+        List<?> movies; // Declare a list to hold the retrieved movies (entities or summaries)
 
         if (actor != null) { // If actor ID is provided
             // Fetch movies by actor ID if provided
-            movies = movieService.getMoviesByActorWithoutPagination(actor);
+            movies = catalog != null
+                    ? catalog.getMoviesByActorWithoutPagination(actor)
+                    : movieService.getMoviesByActorWithoutPagination(actor);
             if (movies.isEmpty()) { // Check if no movies found
                 throw new NotFoundException("No movies found for actor ID: " + actor);
             }
         } else if (genre != null) { // If genre ID is provided
             // Fetch movies by genre if specified
-            movies = movieService.getMoviesByGenre(genre);
+            movies = catalog != null ? catalog.getMoviesByGenre(genre) : movieService.getMoviesByGenre(genre);
             if (movies.isEmpty()) { // Check if no movies found
                 throw new NotFoundException("No movies found for genre ID: " + genre);
             }
+        } else if (page < cachedMoviePages) { // First pages are requested most, so their encoded bodies are kept
+            return precompressedResponses.respond("movies?page=" + page + "&size=" + size, revision, request,
+                    () -> catalog != null ? catalog.getAllMovies(page, size) : movieService.getAllMovies(page, size));
         } else { // If no filters are provided
             // Fetch all movies if no actor or genre is specified
-            movies = movieService.getAllMovies(page, size);
+            movies = catalog != null ? catalog.getAllMovies(page, size) : movieService.getAllMovies(page, size);
         }
 
         return ResponseEntity.ok(movies); // Return the list of movies
     }
 
+    @GetMapping(params = "ids") // Handles GET requests for many movies by ID, e.g. ?ids=3,1,2
+    public ResponseEntity<?> getMoviesByIds(@RequestParam List<Long> ids, WebRequest request) {
+        if (invalidIds(ids)) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid ids parameter. Give between 1 and " + BatchResult.MAX_IDS + " IDs."));
+        }
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current();
+        return ResponseEntity.ok(catalog != null ? catalog.getMoviesByIds(ids)
+                : movieService.getMoviesByIds(ids)); // Movies in request order, plus the missing IDs
+    }
+
+    @PostMapping("/batch") // Handles POST requests for many movies by ID, for ID lists too long for a URL
+    public ResponseEntity<?> getMoviesByIdsInBody(@RequestBody Map<String, List<Long>> body) {
+        List<Long> ids = body.get("ids"); // Extract the movie IDs from the request body
+        if (invalidIds(ids)) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid ids. Give between 1 and " + BatchResult.MAX_IDS + " IDs."));
+        }
+        CatalogSnapshot catalog = catalogReadModel.current();
+        return ResponseEntity.ok(catalog != null ? catalog.getMoviesByIds(ids)
+                : movieService.getMoviesByIds(ids)); // Movies in request order, plus the missing IDs
+    }
+
+    @GetMapping("/filter") // Handles GET requests combining filters, e.g. ?genre=1,3&actor=7&yearFrom=1990&yearTo=2000
+    public ResponseEntity<?> filterMovies(
+            @RequestParam(required = false) List<Long> genre, // Movies must have all of these genres
+            @RequestParam(required = false) List<Long> actor, // ... and all of these actors
+            @RequestParam(required = false) Integer yearFrom, // Release year bounds, inclusive
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) Integer minDuration, // Duration bounds in minutes, inclusive
+            @RequestParam(required = false) Integer maxDuration,
+            @RequestParam(required = false) String after, // Keyset cursor from the previous page
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean facets, // Add counts per genre, decade and actor
+            WebRequest request) {
+        MovieFilter filter = new MovieFilter(genre, actor, yearFrom, yearTo, minDuration, maxDuration);
+        String problem = size <= 0 || size > KeysetPage.MAX_SIZE
+                ? "Size must be between 1 and " + KeysetPage.MAX_SIZE + "." : filter.problem();
+        if (problem != null) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Invalid filter. " + problem));
+        }
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current(); // Rows come from memory when enabled
+        KeysetPage<MovieSummary> movies = catalog != null
+                ? catalog.getMoviesPage(movieService.filterMovieIds(filter, after, size), size)
+                : movieService.filterMovies(filter, after, size);
+        if (!facets) {
+            return ResponseEntity.ok(movies);
+        }
+        MovieFacets counts = facetService.getFilterFacets(filter);
+        return ResponseEntity.ok(FacetedPage.of(movies, counts)); // The page plus counts over all matches
+    }
+
     @GetMapping("/search") // Handles GET requests to search movies by title
-    public ResponseEntity<List<Movie>> searchMoviesByTitle(@RequestParam String title) {
-        List<Movie> movies = movieService.searchMoviesByTitle(title); // Search for movies with the specified title
-        return ResponseEntity.ok(movies); // Return the list of found movies
+    public ResponseEntity<?> searchMoviesByTitle(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "100") int limit, // Maximum number of ranked results
+            @RequestParam(defaultValue = "false") boolean facets, // Add counts per genre, decade and actor
+            WebRequest request) {
+        if (limit <= 0) { // Check if limit is valid
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid limit parameter. Limit must be > 0."));
+        }
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        List<Movie> movies = movieService.searchMoviesByTitle(title, limit); // Search for movies with the specified title
+        if (!facets) {
+            return ResponseEntity.ok(movies); // Return the list of found movies
+        }
+        MovieFacets counts = facetService.getSearchFacets(title); // Counts every match, not only the ranked results
+        return ResponseEntity.ok(new FacetedPage<>(movies, null, counts));
     }
 
     @GetMapping("/{id}") // Handles GET requests to retrieve a movie by ID
-    public ResponseEntity<Movie> getMovieById(@PathVariable Long id) {
-        Optional<Movie> movie = movieService.getMovieById(id); // Fetch movie by ID
-        return movie.map(ResponseEntity::ok) // If found, return it with status 200
-                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND) // If not found, return status 404
-                        .body(null));
+    public ResponseEntity<?> getMovieById(@PathVariable Long id, WebRequest request) {
+        CatalogSnapshot catalog = catalogReadModel.current(); // Version and movie come from the same snapshot
+        Optional<Long> version = catalog != null
+                ? catalog.getMovieVersion(id)
+                : movieService.getMovieVersion(id); // Version only, the movie is not loaded yet
+        if (version.isPresent() && request.checkNotModified(ETags.entity("movie", id, version.get()))) {
+            return null; // 304 Not Modified, nothing loaded or serialized
+        }
+        Optional<?> movie = catalog != null ? catalog.getMovieById(id) : movieService.getMovieById(id); // Fetch movie by ID
+        if (movie.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null); // If not found, return status 404
+        }
+        return ResponseEntity.ok(movie.get()); // If found, return it with status 200
     }
 
     @PostMapping // Handles POST requests to create a new movie
     public ResponseEntity<?> createMovie(@Valid @RequestBody Movie movie) { // Validate incoming movie data
-        Movie createdMovie = movieService.createMovie(movie); // Create the movie
-        return new ResponseEntity<>(createdMovie, HttpStatus.CREATED); // Return created movie with status 201
+        try {
+            Movie createdMovie = movieService.createMovie(movie); // Create the movie
+            return new ResponseEntity<>(createdMovie, HttpStatus.CREATED); // Return created movie with status 201
+        } catch (DuplicateNameException e) { // A new actor in the cast has a name that is taken
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     @GetMapping("/genre/{genreId}") // Handles GET requests to retrieve movies by genre ID
-    public ResponseEntity<List<Movie>> getMoviesByGenre(@PathVariable Long genreId) {
-        List<Movie> movies = movieService.getMoviesByGenre(genreId); // Fetch movies by genre ID
+    public ResponseEntity<List<MovieSummary>> getMoviesByGenre(@PathVariable Long genreId, WebRequest request) {
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current();
+        List<MovieSummary> movies = catalog != null
+                ? catalog.getMoviesByGenre(genreId)
+                : movieService.getMoviesByGenre(genreId); // Fetch movies by genre ID
         if (movies.isEmpty()) { // Check if no movies found
             throw new NotFoundException("No movies found for genre ID: " + genreId);
         }
@@ -87,8 +234,14 @@ public class MovieController {
     }
 
     @GetMapping("/year/{releaseYear}") // Handles GET requests to retrieve movies by release year
-    public ResponseEntity<List<Movie>> getMoviesByReleaseYear(@PathVariable int releaseYear) {
-        List<Movie> movies = movieService.getMoviesByReleaseYear(releaseYear); // Fetch movies by release year
+    public ResponseEntity<List<MovieSummary>> getMoviesByReleaseYear(@PathVariable int releaseYear, WebRequest request) {
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+        CatalogSnapshot catalog = catalogReadModel.current();
+        List<MovieSummary> movies = catalog != null
+                ? catalog.getMoviesByReleaseYear(releaseYear)
+                : movieService.getMoviesByReleaseYear(releaseYear); // Fetch movies by release year
         if (movies.isEmpty()) { // Check if no movies found
             throw new NotFoundException("No movies found for release year: " + releaseYear);
         }
@@ -99,14 +252,21 @@ public class MovieController {
     public ResponseEntity<?> getMoviesByActor(
             @PathVariable Long actorId,
             @RequestParam(defaultValue = "0") int page, // Pagination: default page is 0
-            @RequestParam(defaultValue = "10") int size) { // Pagination: default size is 10
+            @RequestParam(defaultValue = "10") int size, // Pagination: default size is 10
+            WebRequest request) {
         // Validate pagination parameters
         if (page < 0 || size <= 0) { // Check if page and size are valid
             return ResponseEntity.badRequest()
                     .body(new ErrorResponse("Invalid pagination parameters. Page must be >= 0 and size must be > 0."));
         }
-    
-        List<Movie> movies = movieService.getMoviesByActor(actorId, page, size); // Fetch movies by actor ID with pagination
+        if (listNotModified(request)) {
+            return null; // 304 Not Modified
+        }
+
+        CatalogSnapshot catalog = catalogReadModel.current();
+        List<?> movies = catalog != null
+                ? catalog.getMoviesByActor(actorId, page, size)
+                : movieService.getMoviesByActor(actorId, page, size); // Fetch movies by actor ID with pagination
         if (movies.isEmpty()) { // Check if no movies found
             throw new NotFoundException("No movies found with actor ID: " + actorId);
         }
@@ -114,8 +274,17 @@ public class MovieController {
     }
 
     @GetMapping("/{movieId}/actors") // Handles GET requests to retrieve actors in a specific movie
-    public ResponseEntity<List<Actor>> getActorsInMovie(@PathVariable Long movieId) {
-        List<Actor> actors = movieService.getActorsInMovie(movieId); // Fetch actors for the specified movie
+    public ResponseEntity<List<?>> getActorsInMovie(@PathVariable Long movieId, WebRequest request) {
+        CatalogSnapshot catalog = catalogReadModel.current();
+        Optional<Long> version = catalog != null
+                ? catalog.getMovieVersion(movieId)
+                : movieService.getMovieVersion(movieId); // The cast is part of the movie's version
+        if (version.isPresent() && request.checkNotModified(ETags.entity("movie-actors", movieId, version.get()))) {
+            return null; // 304 Not Modified
+        }
+        List<?> actors = catalog != null
+                ? catalog.getActorsInMovie(movieId)
+                : movieService.getActorsInMovie(movieId); // Fetch actors for the specified movie
         if (actors.isEmpty()) { // Check if no actors found
             throw new NotFoundException("No actors found for movie ID: " + movieId);
         }
@@ -135,7 +304,8 @@ public class MovieController {
         }
     }
 
-    // PATCH endpoint to update a movie's actors (adding and removing)
+    // PATCH endpoint to update a movie's actors: {"actors": [...]} replaces the cast,
+    // {"add": [...], "remove": [...]} changes only the given actors
     @PatchMapping("/{id}") // Handles PATCH requests to update a movie's actors by ID
     public ResponseEntity<?> updateMovieActors(@PathVariable Long id, @RequestBody Map<String, List<Long>> actorIdsMap) {
         // Validate if the request body contains an 'id' field
@@ -145,18 +315,36 @@ public class MovieController {
         }
 
         List<Long> actorIds = actorIdsMap.get("actors"); // Extract actor IDs from the request body
+        List<Long> add = actorIdsMap.get("add"); // Actors to add to the cast
+        List<Long> remove = actorIdsMap.get("remove"); // Actors to remove from the cast
 
-        // Check if the actors list is empty or not provided
-        if (actorIds == null) { // If actor IDs are not provided
+        // Check that exactly one form is used and that no ID is empty
+        if ((actorIds == null) == (add == null && remove == null)) {
             return ResponseEntity.badRequest()
-                    .body(new ErrorResponse("Actor IDs must be provided.")); // Return error
+                    .body(new ErrorResponse("Provide either 'actors' or 'add'/'remove' actor IDs.")); // Return error
+        }
+        if (Stream.of(actorIds, add, remove).anyMatch(ids -> ids != null && ids.contains(null))) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Actor IDs must not be null."));
         }
 
         try {
-            Movie updatedMovie = movieService.updateMovieActors(id, actorIds); // Update the movie's actors
+            Movie updatedMovie = actorIds != null
+                    ? movieService.updateMovieActors(id, actorIds) // Replace the movie's actors
+                    : movieService.changeMovieActors(id, add == null ? List.of() : add,
+                            remove == null ? List.of() : remove); // Add and remove single actors
             return ResponseEntity.ok(updatedMovie); // Returns the updated movie object
         } catch (NotFoundException e) { // Handle case where movie is not found
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null); // Return 404 if not found
         }
     }
+
+    // A batch must name between 1 and BatchResult.MAX_IDS IDs, none of them empty
+    private static boolean invalidIds(List<Long> ids) {
+        return ids == null || ids.isEmpty() || ids.size() > BatchResult.MAX_IDS || ids.contains(null);
+    }
+
+    // Answer 304 when the client's copy of a movie list is still current; also sets the ETag of a 200 response
+    private boolean listNotModified(WebRequest request) {
+        return request.checkNotModified(ETags.list("movies", changeCounterService.current(ChangeCounterService.MOVIES)));
+    }
 }
@@ -0,0 +1,104 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Serialized and gzipped bodies of hot list responses, reused until the change counter of their resource moves.
+// Tomcat compresses every other JSON response itself (server.compression.*), but that serializes and compresses
+// the same page again for each request. Bodies below server.compression.min-response-size are kept uncompressed,
+// as Tomcat would send them. Clients that do not accept gzip get the normal response.
+@Component
+public class PrecompressedResponses {
+
+    @Autowired
+    private ObjectMapper objectMapper; // The mapper the JSON message converter uses
+
+    @Value("${server.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minResponseSize;
+
+    private final Cache<String, Body> bodies; // By endpoint and parameters, one revision each
+
+    public PrecompressedResponses(@Value("${compression.cache-size:32MB}") DataSize cacheSize) {
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                .weigher((String key, Body body) -> key.length() + body.bytes().length)
+                .build();
+    }
+
+    // The body for key at this revision; the supplier only runs when it is not cached yet
+    ResponseEntity<?> respond(String key, long revision, WebRequest request, Supplier<?> body) {
+        if (!enabled || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return ResponseEntity.ok(body.get());
+        }
+        Body cached = bodies.getIfPresent(key);
+        if (cached == null || cached.revision() != revision) {
+            Body fresh = encode(revision, body.get());
+            // Concurrent requests can encode different revisions; the newest one stays
+            bodies.asMap().merge(key, fresh, (old, next) -> next.revision() >= old.revision() ? next : old);
+            cached = fresh;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (cached.gzipped()) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip"); // Tomcat leaves encoded responses alone
+        }
+        return response.body(cached.bytes());
+    }
+
+    private Body encode(long revision, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            if (json.length < minResponseSize.toBytes()) {
+                return new Body(revision, json, false);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION); // Compressed once, so the slowest level is affordable
+                }
+            }) {
+                gzip.write(json);
+            }
+            return new Body(revision, out.toByteArray(), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // True if the Accept-Encoding header lists gzip without q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private record Body(long revision, byte[] bytes, boolean gzipped) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.service.ChangeCounterService;
+import com.filmsociety.moviedatabaseapi.service.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+
+// Aggregate views of the catalogue for dashboards. Every response carries the movie change counter as its
+// ETag, so a dashboard that polls gets 304 until something changed.
+@RestController
+@RequestMapping("/api/stats") // Base URL for statistics endpoints
+public class StatsController {
+
+    @Autowired
+    private StatsService statsService; // Aggregate queries
+
+    @Autowired
+    private ChangeCounterService changeCounterService; // Change counter behind the ETags and the cache keys
+
+    // Number of movies, actors and genres, average duration and release year range
+    @GetMapping
+    public ResponseEntity<?> getOverview(WebRequest request) {
+        long revision = changeCounterService.current(ChangeCounterService.MOVIES);
+        if (notModified(request, revision)) {
+            return null; // 304 Not Modified
+        }
+        return ResponseEntity.ok(statsService.getOverview(revision));
+    }
+
+    // Movies per genre
+    @GetMapping("/genres")
+    public ResponseEntity<?> getMoviesPerGenre(WebRequest request) {
+        long revision = changeCounterService.current(ChangeCounterService.MOVIES);
+        if (notModified(request, revision)) {
+            return null; // 304 Not Modified
+        }
+        return ResponseEntity.ok(statsService.getMoviesPerGenre(revision));
+    }
+
+    // Movies and average duration per release year
+    @GetMapping("/years")
+    public ResponseEntity<?> getMoviesPerYear(WebRequest request) {
+        long revision = changeCounterService.current(ChangeCounterService.MOVIES);
+        if (notModified(request, revision)) {
+            return null; // 304 Not Modified
+        }
+        return ResponseEntity.ok(statsService.getMoviesPerYear(revision));
+    }
+
+    // Actors with the most movies
+    @GetMapping("/actors")
+    public ResponseEntity<?> getBusiestActors(@RequestParam(defaultValue = "10") int limit, WebRequest request) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid limit parameter. Limit must be > 0."));
+        }
+        long revision = changeCounterService.current(ChangeCounterService.MOVIES);
+        if (notModified(request, revision)) {
+            return null; // 304 Not Modified
+        }
+        return ResponseEntity.ok(statsService.getBusiestActors(limit, revision));
+    }
+
+    // Answer 304 when the client's copy is still current; also sets the ETag of a 200 response
+    private boolean notModified(WebRequest request, long revision) {
+        return request.checkNotModified(ETags.list("stats", revision));
+    }
+}
@@ -0,0 +1,37 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.suggest.SuggestIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Set;
+
+// Search-as-you-type over movie titles and actor names, answered from memory on every keystroke
+@RestController
+@RequestMapping("/api/suggest") // Base URL for suggestions
+public class SuggestController {
+
+    static final int MAX_LIMIT = 50; // Suggestions per request
+
+    private static final Set<String> TYPES = Set.of("movie", "actor");
+
+    @Autowired
+    private SuggestIndex suggestIndex; // Typo-tolerant prefix index
+
+    // Titles and names for what has been typed, e.g. ?q=matirx rel; an empty list when nothing matches
+    @GetMapping
+    public ResponseEntity<?> suggest(@RequestParam String q,
+                                     @RequestParam(defaultValue = "10") int limit,
+                                     @RequestParam(required = false) String type) { // Only movies or only actors
+        if (limit <= 0 || limit > MAX_LIMIT || (type != null && !TYPES.contains(type))) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Invalid parameters. Limit must be between 1 and " + MAX_LIMIT + " and type 'movie' or 'actor'."));
+        }
+        return ResponseEntity.ok(suggestIndex.suggest(q, limit, type));
+    }
+}
@@ -0,0 +1,262 @@
+package com.filmsociety.moviedatabaseapi.datainitializer;
+
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// Generates a large synthetic catalogue for benchmarks and load tests, enabled with --seed.movies=N.
+// The same settings always produce the same data. Cast and genre popularity follow a Zipf distribution,
+// so a few actors appear in thousands of movies while most appear in a handful, like in a real catalogue.
+// Rows are written in one transaction with batched JDBC inserts. The full-text and change-counter triggers
+// are suspended during the load and the new rows are indexed in one pass at the end, which is several times faster.
+@Component
+public class CatalogGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    private static final int CHUNK = 50_000; // Rows per JDBC batch
+    private static final String[] GENRE_NAMES = {"Drama", "Comedy", "Action", "Thriller", "Romance", "Horror",
+            "Crime", "Adventure", "Sci-fi", "Fantasy", "Animation", "Documentary", "Mystery", "Family", "War",
+            "History", "Music", "Western", "Biography", "Sport"};
+    private static final String[] SYLLABLES = {"ba", "ke", "mo", "ti", "su", "ra", "lo", "ne", "vi", "da", "po",
+            "gu", "fe", "zi", "ha"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${seed.movies:0}")
+    private int movies; // Movies to generate; 0 keeps the small sample catalogue of DataInitializer
+
+    @Value("${seed.actors:0}")
+    private int actors; // Actors to generate; 0 means one per five movies
+
+    @Value("${seed.genres:20}")
+    private int genres; // Genres to generate
+
+    @Value("${seed.avgCast:8}")
+    private int averageCast; // Average number of actors per movie
+
+    @Value("${seed.zipfExponent:1.0}")
+    private double zipfExponent; // Skew of cast and genre popularity; larger is more skewed
+
+    @Value("${seed.random:42}")
+    private long randomSeed; // Seed of the random generator, for reproducible catalogues
+
+    public CatalogGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    // True when a generated catalogue was requested
+    public boolean isEnabled() {
+        return movies > 0;
+    }
+
+    // Write the whole catalogue; IDs continue after any rows already present
+    public void generate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> triggers = suspendRowTriggers();
+            long firstActorId = nextId("actor");
+            long firstMovieId = nextId("movie");
+            insertCatalogue(firstActorId, firstMovieId);
+
+            long start = System.nanoTime();
+            jdbcTemplate.update("INSERT INTO actor_fts (rowid, name) SELECT id, name FROM actor WHERE id >= ?", firstActorId);
+            jdbcTemplate.update("INSERT INTO movie_fts (rowid, title) SELECT id, title FROM movie WHERE id >= ?", firstMovieId);
+            jdbcTemplate.update("UPDATE change_counter SET value = value + 1"); // Once for the whole load
+            triggers.forEach(jdbcTemplate::execute); // Recreate the triggers exactly as the migrations defined them
+            logger.info("Indexed the generated titles and names in {} ms", (System.nanoTime() - start) / 1_000_000);
+            eventPublisher.publishEvent(CatalogChangeEvent.reloaded()); // Too many rows to announce one by one
+        });
+    }
+
+    // Drop the per-row triggers that keep movie_fts, actor_fts and the change counters in sync and return
+    // their definitions. Inside the surrounding transaction, so a failed load rolls the drop back too.
+    private List<String> suspendRowTriggers() {
+        List<Map<String, Object>> triggers = jdbcTemplate.queryForList(
+                "SELECT name, sql FROM sqlite_master WHERE type = 'trigger' "
+                        + "AND tbl_name IN ('movie', 'actor', 'genre', 'movie_actor', 'movie_genre') "
+                        + "AND (sql LIKE '%_fts%' OR sql LIKE '%change_counter%')");
+        List<String> definitions = new ArrayList<>();
+        for (Map<String, Object> trigger : triggers) {
+            jdbcTemplate.execute("DROP TRIGGER " + trigger.get("name"));
+            definitions.add((String) trigger.get("sql"));
+        }
+        return definitions;
+    }
+
+    private void insertCatalogue(long firstActorId, long firstMovieId) {
+        long start = System.nanoTime();
+        Random random = new Random(randomSeed);
+        int actorCount = actors > 0 ? actors : Math.max(movies / 5, 1);
+        String[] vocabulary = vocabulary(5_000, random);
+
+        long[] genreIds = insertGenres();
+        insertActors(firstActorId, actorCount, random);
+
+        ZipfSampler genrePopularity = new ZipfSampler(genres, zipfExponent, random);
+        ZipfSampler actorPopularity = new ZipfSampler(actorCount, zipfExponent, random);
+        ZipfSampler wordPopularity = new ZipfSampler(vocabulary.length, zipfExponent, random);
+        long castRows = 0;
+        for (int from = 0; from < movies; from += CHUNK) {
+            int to = Math.min(from + CHUNK, movies);
+            int chunkStart = from;
+            castRows += jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                long chunkCast = 0;
+                try (PreparedStatement movie = connection.prepareStatement(
+                             "INSERT INTO movie (id, title, release_year, duration) VALUES (?, ?, ?, ?)");
+                     PreparedStatement movieGenre = connection.prepareStatement(
+                             "INSERT INTO movie_genre (movie_id, genre_id) VALUES (?, ?)");
+                     PreparedStatement movieActor = connection.prepareStatement(
+                             "INSERT INTO movie_actor (movie_id, actor_id) VALUES (?, ?)")) {
+                    Set<Integer> picked = new HashSet<>();
+                    for (int i = chunkStart; i < to; i++) {
+                        long movieId = firstMovieId + i;
+                        movie.setLong(1, movieId);
+                        movie.setString(2, title(vocabulary, wordPopularity, random));
+                        movie.setInt(3, 1920 + (int) (105 * Math.sqrt(random.nextDouble()))); // More recent movies
+                        movie.setInt(4, 75 + random.nextInt(106));
+                        movie.addBatch();
+
+                        picked.clear();
+                        int genreCount = Math.min(1 + random.nextInt(3), genres);
+                        while (picked.size() < genreCount) {
+                            picked.add(genrePopularity.next(random));
+                        }
+                        for (int genre : picked) {
+                            movieGenre.setLong(1, movieId);
+                            movieGenre.setLong(2, genreIds[genre]);
+                            movieGenre.addBatch();
+                        }
+
+                        // Cast size is uniform on 1..2*avg-1; popular actors repeat, so give up after a few misses
+                        picked.clear();
+                        int castSize = Math.min(1 + random.nextInt(Math.max(2 * averageCast - 1, 1)), actorCount);
+                        for (int attempt = 0; picked.size() < castSize && attempt < castSize * 4; attempt++) {
+                            picked.add(actorPopularity.next(random));
+                        }
+                        for (int actor : picked) {
+                            movieActor.setLong(1, movieId);
+                            movieActor.setLong(2, firstActorId + actor);
+                            movieActor.addBatch();
+                        }
+                        chunkCast += picked.size();
+                    }
+                    movie.executeBatch();
+                    movieGenre.executeBatch();
+                    movieActor.executeBatch();
+                }
+                return chunkCast;
+            });
+            logger.info("Generated {} of {} movies", to, movies);
+        }
+        logger.info("Generated {} genres, {} actors, {} movies and {} cast entries in {} ms", genres, actorCount,
+                movies, castRows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Genre names are unique, so genres that already exist are reused rather than inserted again
+    private long[] insertGenres() {
+        String[] names = new String[genres];
+        for (int i = 0; i < genres; i++) {
+            names[i] = i < GENRE_NAMES.length ? GENRE_NAMES[i] : "Genre " + (i + 1);
+        }
+        long[] ids = new long[genres];
+        for (int i = 0; i < genres; i++) {
+            List<Long> existing = jdbcTemplate.queryForList("SELECT id FROM genre WHERE name = ?", Long.class, names[i]);
+            if (existing.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO genre (name) VALUES (?)", names[i]);
+                existing = jdbcTemplate.queryForList("SELECT id FROM genre WHERE name = ?", Long.class, names[i]);
+            }
+            ids[i] = existing.get(0);
+        }
+        return ids;
+    }
+
+    private void insertActors(long firstId, int count, Random random) {
+        LocalDate earliestBirthDate = LocalDate.of(1920, 1, 1);
+        for (int from = 0; from < count; from += CHUNK) {
+            int to = Math.min(from + CHUNK, count);
+            int chunkStart = from;
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO actor (id, name, birth_date) VALUES (?, ?, ?)")) {
+                    for (int i = chunkStart; i < to; i++) {
+                        insert.setLong(1, firstId + i);
+                        insert.setString(2, actorName(firstId + i, random));
+                        insert.setDate(3, Date.valueOf(earliestBirthDate.plusDays(random.nextInt(30_000))));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                return null;
+            });
+        }
+    }
+
+    private long nextId(String table) {
+        return jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM " + table, Long.class) + 1;
+    }
+
+    // 1-4 title words, popular words more often
+    private static String title(String[] vocabulary, ZipfSampler wordPopularity, Random random) {
+        StringBuilder title = new StringBuilder(capitalize(vocabulary[wordPopularity.next(random)]));
+        int words = random.nextInt(4);
+        for (int w = 0; w < words; w++) {
+            title.append(' ').append(vocabulary[wordPopularity.next(random)]);
+        }
+        return title.toString();
+    }
+
+    // A random first name and a surname that encodes the actor ID, so every actor name is unique,
+    // also across repeated runs against the same database
+    private static String actorName(long id, Random random) {
+        StringBuilder surname = new StringBuilder();
+        long rest = id - 1;
+        do {
+            surname.append(SYLLABLES[(int) (rest % SYLLABLES.length)]);
+            rest /= SYLLABLES.length;
+        } while (rest > 0);
+        return capitalize(word(2 + random.nextInt(2), random)) + " " + capitalize(surname.append("son").toString());
+    }
+
+    // Pronounceable distinct words such as "bakemo", "tisura"
+    private static String[] vocabulary(int size, Random random) {
+        Set<String> words = new HashSet<>();
+        while (words.size() < size) {
+            words.add(word(2 + random.nextInt(3), random));
+        }
+        return words.stream().sorted().toArray(String[]::new); // Sorted so the order does not depend on hashing
+    }
+
+    private static String word(int syllables, Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int s = 0; s < syllables; s++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
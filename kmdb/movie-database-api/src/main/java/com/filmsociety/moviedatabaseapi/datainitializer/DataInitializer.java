@@ -1,5 +1,7 @@
 package com.filmsociety.moviedatabaseapi.datainitializer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,19 +19,34 @@ import java.util.Arrays;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
+
     private final GenreRepository genreRepository;
     private final ActorRepository actorRepository;
     private final MovieRepository movieRepository;
+    private final CatalogGenerator catalogGenerator;
 
-    public DataInitializer(GenreRepository genreRepository, ActorRepository actorRepository, MovieRepository movieRepository) {
+    public DataInitializer(GenreRepository genreRepository, ActorRepository actorRepository, MovieRepository movieRepository,
+                           CatalogGenerator catalogGenerator) {
         this.genreRepository = genreRepository;
         this.actorRepository = actorRepository;
         this.movieRepository = movieRepository;
+        this.catalogGenerator = catalogGenerator;
     }
 
     @Override
     @Transactional
     public void run(String... args) throws Exception {
+        // Large generated catalogue instead of the samples when --seed.movies is set
+        if (catalogGenerator.isEnabled()) {
+            if (genreRepository.count() == 0 && actorRepository.count() == 0 && movieRepository.count() == 0) {
+                catalogGenerator.generate();
+            } else {
+                logger.warn("Database is not empty, skipping catalogue generation");
+            }
+            return;
+        }
+
         // Sample genres
         if (genreRepository.count() == 0) {
             Genre genre1 = new Genre("Action");
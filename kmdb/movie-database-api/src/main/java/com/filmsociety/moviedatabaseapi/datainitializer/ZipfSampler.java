@@ -0,0 +1,43 @@
+package com.filmsociety.moviedatabaseapi.datainitializer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Draws indexes 0..n-1 with Zipfian popularity: the k-th most popular index is picked with weight 1 / k^exponent.
+// Which index holds which popularity rank is shuffled, so popular rows are spread over the whole ID range.
+class ZipfSampler {
+
+    private final double[] cumulative; // Cumulative probability by popularity rank
+    private final int[] indexOfRank; // Popularity rank -> index
+
+    ZipfSampler(int n, double exponent, Random random) {
+        cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+
+        indexOfRank = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexOfRank[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) { // Fisher-Yates shuffle
+            int j = random.nextInt(i + 1);
+            int swap = indexOfRank[i];
+            indexOfRank[i] = indexOfRank[j];
+            indexOfRank[j] = swap;
+        }
+    }
+
+    int next(Random random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1; // Insertion point: first rank whose cumulative probability exceeds the draw
+        }
+        return indexOfRank[Math.min(rank, indexOfRank.length - 1)];
+    }
+}
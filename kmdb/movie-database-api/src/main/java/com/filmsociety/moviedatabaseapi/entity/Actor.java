@@ -21,6 +21,10 @@ public class Actor {
     @Past(message = "Birth date must be in the past")  // Validate birth date
     private LocalDate birthDate; // Actor's birth date
 
+    @Version // Bumped on every change; the ETag of the actor
+    @JsonIgnore
+    private Long version;
+
     @ManyToMany(mappedBy = "actors", fetch = FetchType.LAZY) // Define many-to-many relationship with movies
     @JsonIgnore // Prevent circular reference when serializing Actor
     private Set<Movie> movies = new HashSet<>(); // Set of movies the actor has participated in
@@ -56,6 +60,10 @@ public class Actor {
         this.birthDate = birthDate; // Sets the actor's birth date
     }
 
+    public Long getVersion() {
+        return version; // Returns the actor's version
+    }
+
     public Set<Movie> getMovies() {
         return movies; // Returns the set of movies associated with the actor
     }
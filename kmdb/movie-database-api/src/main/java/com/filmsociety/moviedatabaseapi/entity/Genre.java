@@ -2,6 +2,7 @@ package com.filmsociety.moviedatabaseapi.entity;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -15,6 +16,10 @@ public class Genre {
     @Column(nullable = false, unique = true) // Non-nullable and unique field for genre name
     private String name;
 
+    @Version // Bumped on every change; the ETag of the genre
+    @JsonIgnore
+    private Long version;
+
     @ManyToMany(mappedBy = "genres") // Define many-to-many relationship with movies
     @JsonBackReference // Prevent infinite recursion
     private Set<Movie> movies = new HashSet<>(); // Set of movies associated with this genre
@@ -41,6 +46,11 @@ public class Genre {
         this.name = name; // Sets the genre's name
     }
 
+    // Getter for version (managed by JPA)
+    public Long getVersion() {
+        return version; // Returns the genre's version
+    }
+
     // Getter and setter for movies
     public Set<Movie> getMovies() {
         return movies; // Returns the set of movies associated with this genre
@@ -1,7 +1,9 @@
 package com.filmsociety.moviedatabaseapi.entity;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.BatchSize;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
@@ -21,6 +23,10 @@ public class Movie {
     private int releaseYear; // Movie's release year
     private int duration; // Movie's duration in minutes
 
+    @Version // Bumped on every change, including changes to the genre and actor sets; the ETag of the movie
+    @JsonIgnore
+    private Long version;
+
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE}) // Define many-to-many relationship with genres
     @JoinTable(
         name = "movie_genre", // Join table name
@@ -28,6 +34,7 @@ public class Movie {
         inverseJoinColumns = @JoinColumn(name = "genre_id") // Foreign key in movie_genre referencing genre
     )
     @JsonIgnoreProperties("movies") // Prevent circular references
+    @BatchSize(size = 100) // Initialize genres for up to 100 movies in a single query
     private Set<Genre> genres = new HashSet<>(); // Set of genres associated with this movie
 
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE}) // Define many-to-many relationship with actors
@@ -37,6 +44,7 @@ public class Movie {
         inverseJoinColumns = @JoinColumn(name = "actor_id") // Foreign key in movie_actor referencing actor
     )
     @JsonIgnoreProperties("movies") // Prevent circular references
+    @BatchSize(size = 100) // Initialize actors for up to 100 movies in a single query
     private Set<Actor> actors = new HashSet<>(); // Set of actors associated with this movie
 
     public Movie() {} // Default constructor
@@ -94,4 +102,8 @@ public class Movie {
     public void setActors(Set<Actor> actors) {
         this.actors = actors; // Sets the actors for this movie
     }
+
+    public Long getVersion() {
+        return version; // Returns the movie's version
+    }
 }
@@ -0,0 +1,31 @@
+package com.filmsociety.moviedatabaseapi.event;
+
+import java.util.Collection;
+import java.util.List;
+
+// Published by the services and the importer after catalogue writes, so that in-memory indexes can follow the
+// database. Listeners use @TransactionalEventListener and therefore only see writes that committed.
+public record CatalogChangeEvent(Entity entity, Change change, List<Long> ids) {
+
+    public enum Entity { MOVIE, ACTOR, GENRE }
+
+    public enum Change { CREATED, UPDATED, DELETED, RELOADED }
+
+    // Entities of one type that were created, updated or deleted
+    public static CatalogChangeEvent of(Entity entity, Change change, Collection<Long> ids) {
+        return new CatalogChangeEvent(entity, change, List.copyOf(ids));
+    }
+
+    public static CatalogChangeEvent of(Entity entity, Change change, Long id) {
+        return new CatalogChangeEvent(entity, change, List.of(id));
+    }
+
+    // Anything may have changed, e.g. after a bulk load that bypassed the services; listeners rebuild from the database
+    public static CatalogChangeEvent reloaded() {
+        return new CatalogChangeEvent(null, Change.RELOADED, List.of());
+    }
+
+    public boolean concerns(Entity type, Change kind) {
+        return entity == type && change == kind;
+    }
+}
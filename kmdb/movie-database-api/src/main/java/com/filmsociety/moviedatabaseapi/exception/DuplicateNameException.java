@@ -0,0 +1,8 @@
+package com.filmsociety.moviedatabaseapi.exception;
+
+// Custom exception for cases where a name that must be unique is already taken
+public class DuplicateNameException extends RuntimeException {
+    public DuplicateNameException(String message) {
+        super(message); // Pass message to superclass constructor
+    }
+}
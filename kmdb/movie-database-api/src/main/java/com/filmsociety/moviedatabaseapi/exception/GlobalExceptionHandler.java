@@ -39,4 +39,11 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND); // Return message with 404 status
     }
 
+    // Method to handle invalid request data such as malformed cursors
+    @ExceptionHandler(InvalidDataException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidDataException(InvalidDataException ex) {
+        logger.error("Invalid data: {}", ex.getMessage()); // Log the invalid data message
+        return new ResponseEntity<>(new ErrorResponse(ex.getMessage()), HttpStatus.BAD_REQUEST); // Return message with 400 status
+    }
+
 }
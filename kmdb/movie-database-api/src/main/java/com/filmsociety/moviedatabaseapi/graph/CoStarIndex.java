@@ -0,0 +1,472 @@
+package com.filmsociety.moviedatabaseapi.graph;
+
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// In-memory actor-movie graph behind the co-star and degrees-of-separation endpoints.
+// The bipartite graph is held twice in CSR layout (compressed sparse rows), movie -> cast and actor -> movies:
+// an offsets array indexed by ID plus one flat array of neighbour IDs, so a traversal step reads a slice of an
+// int[] instead of running a query. The arrays are built from movie_actor on first use. Committed cast changes
+// arrive as CatalogChangeEvents and are kept as an overlay of replaced casts, which is folded into new arrays
+// once it grows past costar.max-overlay movies. Each change publishes a new immutable Graph, so queries never
+// take a lock and always see one consistent state.
+@Component
+public class CoStarIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoStarIndex.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Reads movie_actor for builds and changed casts
+
+    @Value("${costar.max-overlay:4096}")
+    private int maxOverlay; // Changed movies kept beside the arrays before they are rebuilt
+
+    @Value("${costar.preload:false}")
+    private boolean preload; // Build at startup instead of on the first query
+
+    private volatile Graph graph; // Null until first use
+
+    // An actor who shares movies with another one
+    public record CoStarCount(long actorId, int sharedMovies) {
+    }
+
+    // Actors from the first to the last one, each linked to the next by the movie at the same position
+    public record Path(List<Long> actorIds, List<Long> movieIds) {
+
+        public int degrees() {
+            return movieIds.size();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (preload) {
+            graph();
+        }
+    }
+
+    // Co-stars of an actor with the number of movies shared, most shared first and then by ID
+    public List<CoStarCount> coStars(long actorId, int limit) {
+        Graph current = graph();
+        int actor = index(actorId);
+        if (actor < 0 || actor >= current.actorBound) {
+            return List.of();
+        }
+        IntList movies = new IntList(64);
+        IntList cast = new IntList(16);
+        Map<Integer, Integer> shared = new HashMap<>();
+        current.movies(actor, movies);
+        for (int m = 0; m < movies.size(); m++) {
+            current.cast(movies.get(m), cast);
+            for (int c = 0; c < cast.size(); c++) {
+                if (cast.get(c) != actor) {
+                    shared.merge(cast.get(c), 1, Integer::sum);
+                }
+            }
+        }
+        return shared.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> new CoStarCount(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    // Shortest chain of shared movies between two actors, or null when there is none within maxDegrees.
+    // Searches from both ends at once, always growing the smaller frontier, so hub actors with thousands
+    // of movies are expanded as late as possible.
+    public Path shortestPath(long fromId, long toId, int maxDegrees) {
+        Graph current = graph();
+        int from = index(fromId);
+        int to = index(toId);
+        if (from < 0 || to < 0 || from >= current.actorBound || to >= current.actorBound) {
+            return null;
+        }
+        if (from == to) {
+            return new Path(List.of(fromId), List.of());
+        }
+        Search forward = new Search(from, current.actorBound);
+        Search backward = new Search(to, current.actorBound);
+        while (forward.depth + backward.depth < maxDegrees) {
+            Search side = forward.frontier.size() <= backward.frontier.size() ? forward : backward;
+            if (side.frontier.isEmpty()) {
+                return null; // One end's component is exhausted
+            }
+            int meet = side.expand(current, side == forward ? backward : forward);
+            if (meet != 0) {
+                return trace(forward, backward, meet);
+            }
+        }
+        return null;
+    }
+
+    // How many of the given movies each actor is in, indexed by actor ID: one pass over the casts of the movies
+    public int[] castCounts(RoaringBitmap movieIds) {
+        Graph current = graph();
+        int[] counts = new int[current.actorBound];
+        IntList cast = new IntList(16);
+        movieIds.forEach((IntConsumer) movie -> {
+            current.cast(movie, cast);
+            for (int c = 0; c < cast.size(); c++) {
+                counts[cast.get(c)]++;
+            }
+        });
+        return counts;
+    }
+
+    // Follow the committed catalogue. Changes before the first build are ignored, since the build reads them anyway;
+    // synchronized with the build so that no change slips in between its query and its publication.
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        Graph current = graph;
+        if (current == null) {
+            return;
+        }
+        if (event.change() == CatalogChangeEvent.Change.RELOADED) {
+            graph = load();
+        } else if (event.entity() == CatalogChangeEvent.Entity.MOVIE) {
+            graph = current.withCasts(loadCasts(event.ids()), maxOverlay); // Deleted movies come back with no cast
+        } else if (event.concerns(CatalogChangeEvent.Entity.ACTOR, CatalogChangeEvent.Change.DELETED)) {
+            Set<Long> movieIds = new HashSet<>();
+            IntList movies = new IntList(64);
+            for (Long actorId : event.ids()) {
+                int actor = index(actorId);
+                if (actor >= 0 && actor < current.actorBound) {
+                    current.movies(actor, movies);
+                    for (int m = 0; m < movies.size(); m++) {
+                        movieIds.add((long) movies.get(m));
+                    }
+                }
+            }
+            graph = current.withCasts(loadCasts(movieIds), maxOverlay);
+        }
+    }
+
+    private Graph graph() {
+        Graph current = graph;
+        if (current == null) {
+            synchronized (this) {
+                if (graph == null) {
+                    graph = load();
+                }
+                current = graph;
+            }
+        }
+        return current;
+    }
+
+    private Graph load() {
+        long start = System.nanoTime();
+        IntList edgeMovies = new IntList(1024);
+        IntList edgeActors = new IntList(1024);
+        jdbcTemplate.query("SELECT movie_id, actor_id FROM movie_actor", (RowCallbackHandler) rs -> {
+            edgeMovies.add(Math.toIntExact(rs.getLong(1)));
+            edgeActors.add(Math.toIntExact(rs.getLong(2)));
+        });
+        Graph built = Graph.fromEdges(edgeMovies, edgeActors);
+        logger.info("Built the co-star index over {} cast entries in {} ms", edgeMovies.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    // Current sorted cast of each movie; empty for movies without actors or that no longer exist
+    private Map<Integer, int[]> loadCasts(Collection<Long> movieIds) {
+        Map<Integer, IntList> casts = new HashMap<>();
+        movieIds.forEach(id -> casts.put(Math.toIntExact(id), new IntList(8)));
+        for (List<Long> chunk : InClause.chunks(movieIds)) {
+            String placeholders = InClause.placeholders(chunk);
+            jdbcTemplate.query("SELECT movie_id, actor_id FROM movie_actor WHERE movie_id IN (" + placeholders + ")",
+                    (RowCallbackHandler) rs -> casts.get(Math.toIntExact(rs.getLong(1)))
+                            .add(Math.toIntExact(rs.getLong(2))),
+                    chunk.toArray());
+        }
+        Map<Integer, int[]> sorted = new HashMap<>();
+        casts.forEach((movie, cast) -> {
+            int[] actors = cast.toArray();
+            Arrays.sort(actors);
+            sorted.put(movie, actors);
+        });
+        return sorted;
+    }
+
+    private static Path trace(Search forward, Search backward, int meet) {
+        List<Long> actors = new ArrayList<>();
+        List<Long> movies = new ArrayList<>();
+        for (int actor = meet; actor != forward.root; actor = forward.previousActor[actor]) {
+            actors.add((long) actor);
+            movies.add((long) forward.viaMovie[actor]);
+        }
+        actors.add((long) forward.root);
+        Collections.reverse(actors);
+        Collections.reverse(movies);
+        for (int actor = meet; actor != backward.root; ) {
+            movies.add((long) backward.viaMovie[actor]);
+            actor = backward.previousActor[actor];
+            actors.add((long) actor);
+        }
+        return new Path(actors, movies);
+    }
+
+    // IDs are stored as ints; anything outside that range cannot be in the graph
+    private static int index(long id) {
+        return id > 0 && id < Integer.MAX_VALUE ? (int) id : -1;
+    }
+
+    // One direction of a bidirectional breadth-first search over actors
+    private static final class Search {
+
+        private final int root;
+        private final int[] previousActor; // Actor -> the actor it was reached from (the root points to itself), 0 if unreached
+        private final int[] viaMovie; // Actor -> the movie shared with previousActor
+        private final BitSet expandedMovies = new BitSet(); // Each movie's cast is scanned once
+        private IntList frontier; // Actors reached in the last level
+        private int depth;
+
+        Search(int root, int actorBound) {
+            this.root = root;
+            previousActor = new int[actorBound];
+            viaMovie = new int[actorBound];
+            previousActor[root] = root;
+            frontier = new IntList(1);
+            frontier.add(root);
+        }
+
+        boolean reached(int actor) {
+            return previousActor[actor] != 0;
+        }
+
+        int depthOf(int actor) {
+            int depth = 0;
+            for (; actor != root; actor = previousActor[actor]) {
+                depth++;
+            }
+            return depth;
+        }
+
+        // Grow one level. Returns the newly reached actor that the other search reached closest to its root,
+        // which gives the shortest complete path, or 0 when the searches have not met yet.
+        int expand(Graph graph, Search other) {
+            IntList next = new IntList(frontier.size() * 4);
+            IntList movies = new IntList(64);
+            IntList cast = new IntList(16);
+            int meet = 0;
+            int meetDepth = Integer.MAX_VALUE;
+            for (int f = 0; f < frontier.size(); f++) {
+                int actor = frontier.get(f);
+                graph.movies(actor, movies);
+                for (int m = 0; m < movies.size(); m++) {
+                    int movie = movies.get(m);
+                    if (expandedMovies.get(movie)) {
+                        continue;
+                    }
+                    expandedMovies.set(movie);
+                    graph.cast(movie, cast);
+                    for (int c = 0; c < cast.size(); c++) {
+                        int coStar = cast.get(c);
+                        if (reached(coStar)) {
+                            continue;
+                        }
+                        previousActor[coStar] = actor;
+                        viaMovie[coStar] = movie;
+                        next.add(coStar);
+                        if (other.reached(coStar)) {
+                            int otherDepth = other.depthOf(coStar);
+                            if (otherDepth < meetDepth) {
+                                meet = coStar;
+                                meetDepth = otherDepth;
+                            }
+                        }
+                    }
+                }
+            }
+            frontier = next;
+            depth++;
+            return meet;
+        }
+    }
+
+    // Immutable snapshot of the graph: CSR arrays from the last build plus the casts replaced since
+    private static final class Graph {
+
+        private static final int[] NONE = new int[0];
+
+        private final int[] movieOffsets; // Cast of movie m: casts[movieOffsets[m]] up to casts[movieOffsets[m + 1]]
+        private final int[] casts; // Sorted within each movie
+        private final int[] actorOffsets; // Movies of actor a: filmographies[actorOffsets[a]] up to filmographies[actorOffsets[a + 1]]
+        private final int[] filmographies; // Sorted within each actor
+        private final Map<Integer, int[]> castOverrides; // Movie -> sorted cast, for movies changed since the build
+        private final BitSet overridden; // Keys of castOverrides, checked on every step of a traversal
+        private final Map<Integer, int[]> addedMovies; // Actor -> sorted changed movies they were not in at the build
+        private final int movieBound; // Movie IDs are below this
+        private final int actorBound; // Actor IDs are below this
+
+        private Graph(int[] movieOffsets, int[] casts, int[] actorOffsets, int[] filmographies,
+                      Map<Integer, int[]> castOverrides, BitSet overridden, Map<Integer, int[]> addedMovies,
+                      int movieBound, int actorBound) {
+            this.movieOffsets = movieOffsets;
+            this.casts = casts;
+            this.actorOffsets = actorOffsets;
+            this.filmographies = filmographies;
+            this.castOverrides = castOverrides;
+            this.overridden = overridden;
+            this.addedMovies = addedMovies;
+            this.movieBound = movieBound;
+            this.actorBound = actorBound;
+        }
+
+        // Counting sort of (movie, actor) pairs in any order into both CSR layouts
+        static Graph fromEdges(IntList edgeMovies, IntList edgeActors) {
+            int count = edgeMovies.size();
+            int movieBound = 1;
+            int actorBound = 1;
+            for (int i = 0; i < count; i++) {
+                movieBound = Math.max(movieBound, edgeMovies.get(i) + 1);
+                actorBound = Math.max(actorBound, edgeActors.get(i) + 1);
+            }
+
+            int[] movieOffsets = new int[movieBound + 1];
+            for (int i = 0; i < count; i++) {
+                movieOffsets[edgeMovies.get(i) + 1]++;
+            }
+            for (int m = 0; m < movieBound; m++) {
+                movieOffsets[m + 1] += movieOffsets[m];
+            }
+            int[] casts = new int[count];
+            int[] nextSlot = Arrays.copyOf(movieOffsets, movieBound);
+            for (int i = 0; i < count; i++) {
+                casts[nextSlot[edgeMovies.get(i)]++] = edgeActors.get(i);
+            }
+            for (int m = 0; m < movieBound; m++) {
+                Arrays.sort(casts, movieOffsets[m], movieOffsets[m + 1]);
+            }
+
+            int[] actorOffsets = new int[actorBound + 1];
+            for (int i = 0; i < count; i++) {
+                actorOffsets[casts[i] + 1]++;
+            }
+            for (int a = 0; a < actorBound; a++) {
+                actorOffsets[a + 1] += actorOffsets[a];
+            }
+            int[] filmographies = new int[count];
+            nextSlot = Arrays.copyOf(actorOffsets, actorBound);
+            for (int m = 0; m < movieBound; m++) { // Ascending movies keep each filmography sorted
+                for (int i = movieOffsets[m]; i < movieOffsets[m + 1]; i++) {
+                    filmographies[nextSlot[casts[i]]++] = m;
+                }
+            }
+            return new Graph(movieOffsets, casts, actorOffsets, filmographies, Map.of(), new BitSet(), Map.of(),
+                    movieBound, actorBound);
+        }
+
+        // Movies of an actor, into out
+        void movies(int actor, IntList out) {
+            out.clear();
+            if (actor < actorOffsets.length - 1) {
+                int from = actorOffsets[actor];
+                int to = actorOffsets[actor + 1];
+                if (castOverrides.isEmpty()) {
+                    out.addAll(filmographies, from, to);
+                } else {
+                    for (int i = from; i < to; i++) {
+                        int movie = filmographies[i];
+                        if (!overridden.get(movie) || Arrays.binarySearch(castOverrides.get(movie), actor) >= 0) {
+                            out.add(movie);
+                        }
+                    }
+                }
+            }
+            for (int movie : addedMovies.getOrDefault(actor, NONE)) {
+                if (Arrays.binarySearch(castOverrides.get(movie), actor) >= 0) {
+                    out.add(movie);
+                }
+            }
+        }
+
+        // Cast of a movie, into out
+        void cast(int movie, IntList out) {
+            out.clear();
+            if (overridden.get(movie)) {
+                int[] cast = castOverrides.get(movie);
+                out.addAll(cast, 0, cast.length);
+            } else if (movie < movieOffsets.length - 1) {
+                out.addAll(casts, movieOffsets[movie], movieOffsets[movie + 1]);
+            }
+        }
+
+        // A new snapshot with the given movies' casts replaced, compacted when the overlay has grown too large
+        Graph withCasts(Map<Integer, int[]> changed, int maxOverlay) {
+            if (changed.isEmpty()) {
+                return this;
+            }
+            Map<Integer, int[]> overrides = new HashMap<>(castOverrides);
+            BitSet overriddenMovies = (BitSet) overridden.clone();
+            Map<Integer, int[]> added = new HashMap<>(addedMovies);
+            int movieLimit = movieBound;
+            int actorLimit = actorBound;
+            for (Map.Entry<Integer, int[]> entry : changed.entrySet()) {
+                int movie = entry.getKey();
+                overrides.put(movie, entry.getValue());
+                overriddenMovies.set(movie);
+                movieLimit = Math.max(movieLimit, movie + 1);
+                for (int actor : entry.getValue()) {
+                    actorLimit = Math.max(actorLimit, actor + 1);
+                    int[] movies = added.getOrDefault(actor, NONE);
+                    if (!inBuild(actor, movie) && Arrays.binarySearch(movies, movie) < 0) {
+                        int[] grown = Arrays.copyOf(movies, movies.length + 1); // Never modify a published array
+                        grown[movies.length] = movie;
+                        Arrays.sort(grown);
+                        added.put(actor, grown);
+                    }
+                }
+            }
+            Graph next = new Graph(movieOffsets, casts, actorOffsets, filmographies, overrides, overriddenMovies, added,
+                    movieLimit, actorLimit);
+            return overrides.size() > maxOverlay ? next.compacted() : next;
+        }
+
+        // Same graph with the overlay folded into new CSR arrays
+        private Graph compacted() {
+            IntList edgeMovies = new IntList(casts.length);
+            IntList edgeActors = new IntList(casts.length);
+            IntList cast = new IntList(16);
+            for (int movie = 0; movie < movieBound; movie++) {
+                cast(movie, cast);
+                for (int c = 0; c < cast.size(); c++) {
+                    edgeMovies.add(movie);
+                    edgeActors.add(cast.get(c));
+                }
+            }
+            return fromEdges(edgeMovies, edgeActors);
+        }
+
+        // True when the actor was in the movie's cast at the last build
+        private boolean inBuild(int actor, int movie) {
+            return actor < actorOffsets.length - 1
+                    && Arrays.binarySearch(filmographies, actorOffsets[actor], actorOffsets[actor + 1], movie) >= 0;
+        }
+    }
+}
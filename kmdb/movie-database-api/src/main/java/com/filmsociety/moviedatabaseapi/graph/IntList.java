@@ -0,0 +1,51 @@
+package com.filmsociety.moviedatabaseapi.graph;
+
+import java.util.Arrays;
+
+// Growable list of primitive ints, so graph traversals and table loads do not box every ID
+public final class IntList {
+
+    private int[] values;
+    private int size;
+
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 8)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    // Append values[from, to) of another array
+    public void addAll(int[] source, int from, int to) {
+        int count = to - from;
+        if (size + count > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, size + count));
+        }
+        System.arraycopy(source, from, values, size, count);
+        size += count;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,63 @@
+package com.filmsociety.moviedatabaseapi.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk import: row counts, throughput and the rows that were rejected
+public class ImportReport {
+
+    public static final int MAX_REPORTED_ERRORS = 1000; // Keep the report small for very dirty files
+
+    private long rowsRead; // Non-blank lines read from the upload
+    private long rowsImported; // Rows written to the database
+    private long rowsFailed; // Rows rejected, including those beyond MAX_REPORTED_ERRORS
+    private long elapsedMillis; // Wall time of the whole import
+    private final List<ImportRowError> errors = new ArrayList<>(); // First MAX_REPORTED_ERRORS rejected rows
+
+    // Count a read row
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    // Count rows written by a committed batch
+    public void rowsImported(int count) {
+        rowsImported += count;
+    }
+
+    // Record a rejected row; only the first MAX_REPORTED_ERRORS are kept in detail
+    public void rowFailed(long line, String message) {
+        rowsFailed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportRowError(line, message));
+        }
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis; // Sets the import wall time
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Imported rows per second of wall time
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsImported : rowsImported * 1000.0 / elapsedMillis;
+    }
+
+    public List<ImportRowError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,21 @@
+package com.filmsociety.moviedatabaseapi.importer;
+
+// A single rejected row of a bulk import, identified by its line number in the upload
+public class ImportRowError {
+
+    private final long line; // 1-based line number in the uploaded file
+    private final String message; // Why the row was rejected
+
+    public ImportRowError(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line; // Returns the line number of the rejected row
+    }
+
+    public String getMessage() {
+        return message; // Returns the rejection reason
+    }
+}
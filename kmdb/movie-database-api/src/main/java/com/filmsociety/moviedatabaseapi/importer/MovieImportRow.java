@@ -0,0 +1,102 @@
+package com.filmsociety.moviedatabaseapi.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.filmsociety.moviedatabaseapi.exception.InvalidDataException;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// One parsed NDJSON line of a movie import:
+// {"title": "...", "releaseYear": 1999, "duration": 136, "genres": [1, 5], "actors": [{"id": 1}]}
+public class MovieImportRow {
+
+    private final long line; // Line number in the upload, used in error reports
+    private final String title;
+    private final int releaseYear;
+    private final int duration;
+    private final Set<Long> genreIds;
+    private final Set<Long> actorIds;
+
+    private MovieImportRow(long line, String title, int releaseYear, int duration, Set<Long> genreIds, Set<Long> actorIds) {
+        this.line = line;
+        this.title = title;
+        this.releaseYear = releaseYear;
+        this.duration = duration;
+        this.genreIds = genreIds;
+        this.actorIds = actorIds;
+    }
+
+    // Validate a JSON line the same way the Movie entity is validated on POST /api/movies
+    public static MovieImportRow parse(long line, JsonNode json) {
+        if (!json.isObject()) {
+            throw new InvalidDataException("Row must be a JSON object");
+        }
+        JsonNode title = json.get("title");
+        if (title == null || !title.isTextual() || title.asText().isEmpty()) {
+            throw new InvalidDataException("Title must have at least 1 character");
+        }
+        int releaseYear = intField(json, "releaseYear");
+        int duration = intField(json, "duration");
+        if (duration < 0) {
+            throw new InvalidDataException("Duration must not be negative");
+        }
+        return new MovieImportRow(line, title.asText(), releaseYear, duration,
+                idsField(json, "genres"), idsField(json, "actors"));
+    }
+
+    // Optional integer field, 0 when absent like the entity's primitive columns
+    private static int intField(JsonNode json, String name) {
+        JsonNode value = json.get(name);
+        if (value == null || value.isNull()) {
+            return 0;
+        }
+        if (!value.canConvertToInt()) {
+            throw new InvalidDataException(name + " must be an integer");
+        }
+        return value.asInt();
+    }
+
+    // Optional reference list; accepts plain IDs (1) as well as objects ({"id": 1})
+    private static Set<Long> idsField(JsonNode json, String name) {
+        Set<Long> ids = new LinkedHashSet<>();
+        JsonNode values = json.get(name);
+        if (values == null || values.isNull()) {
+            return ids;
+        }
+        if (!values.isArray()) {
+            throw new InvalidDataException(name + " must be an array of IDs");
+        }
+        for (JsonNode value : values) {
+            JsonNode id = value.isObject() ? value.get("id") : value;
+            if (id == null || !id.canConvertToLong()) {
+                throw new InvalidDataException(name + " must contain numeric IDs");
+            }
+            ids.add(id.asLong());
+        }
+        return ids;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public Set<Long> getGenreIds() {
+        return genreIds;
+    }
+
+    public Set<Long> getActorIds() {
+        return actorIds;
+    }
+}
@@ -0,0 +1,49 @@
+package com.filmsociety.moviedatabaseapi.pagination;
+
+import com.filmsociety.moviedatabaseapi.exception.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque cursor for keyset (seek) pagination.
+// A cursor holds the sort key values of the last row of a page, e.g. the id or (releaseYear, id).
+public final class Cursor {
+
+    private static final String SEPARATOR = ":";
+
+    private Cursor() {} // Utility class, no instances
+
+    // Encode the sort key values of a row into an opaque URL-safe string
+    public static String encode(long... keys) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a cursor into its sort key values; returns null for an empty cursor (first page)
+    public static long[] decode(String cursor, int keyCount) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != keyCount) {
+                throw new InvalidDataException("Invalid cursor: " + cursor);
+            }
+            long[] keys = new long[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                keys[i] = Long.parseLong(parts[i]);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) { // Covers bad Base64 and NumberFormatException
+            throw new InvalidDataException("Invalid cursor: " + cursor);
+        }
+    }
+}
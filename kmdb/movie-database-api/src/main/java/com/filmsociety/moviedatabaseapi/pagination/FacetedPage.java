@@ -0,0 +1,24 @@
+package com.filmsociety.moviedatabaseapi.pagination;
+
+import com.filmsociety.moviedatabaseapi.projection.MovieFacets;
+
+import java.util.List;
+
+// A page of results together with the facet counts of the whole result set
+public class FacetedPage<T> extends KeysetPage<T> {
+
+    private final MovieFacets facets; // Counts over every result, not just this page
+
+    public FacetedPage(List<T> content, String nextCursor, MovieFacets facets) {
+        super(content, nextCursor);
+        this.facets = facets;
+    }
+
+    public static <T> FacetedPage<T> of(KeysetPage<T> page, MovieFacets facets) {
+        return new FacetedPage<>(page.getContent(), page.getNextCursor(), facets);
+    }
+
+    public MovieFacets getFacets() {
+        return facets; // Returns the counts per genre, decade and actor
+    }
+}
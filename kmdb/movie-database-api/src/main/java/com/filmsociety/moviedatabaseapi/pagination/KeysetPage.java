@@ -0,0 +1,35 @@
+package com.filmsociety.moviedatabaseapi.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated listing together with the cursor for the next page
+public class KeysetPage<T> {
+
+    public static final int MAX_SIZE = 1000; // Rows per page; rows are fetched with a limit of size + 1
+
+    private final List<T> content; // Rows of this page
+    private final String nextCursor; // Cursor to pass as 'after' for the next page, null on the last page
+
+    public KeysetPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    // Build a page from rows fetched with a limit of size + 1; the extra row only signals that more rows follow
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null); // Last page, nothing follows
+        }
+        List<T> content = List.copyOf(rows.subList(0, size));
+        return new KeysetPage<>(content, cursorOf.apply(content.get(size - 1)));
+    }
+
+    public List<T> getContent() {
+        return content; // Returns the rows of this page
+    }
+
+    public String getNextCursor() {
+        return nextCursor; // Returns the cursor for the next page
+    }
+}
@@ -0,0 +1,7 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+import java.util.List;
+
+// Chain of co-stars between two actors: movies.get(i) links actors.get(i) and actors.get(i + 1)
+public record ActorPath(int degrees, List<ActorSummary> actors, List<MovieTitle> movies) {
+}
@@ -0,0 +1,5 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// Number of movies an actor appeared in
+public record ActorStats(Long id, String name, long movieCount) {
+}
@@ -0,0 +1,7 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+import java.time.LocalDate;
+
+// Read-only view of an actor inside a movie summary; serializes like the Actor entity
+public record ActorSummary(Long id, String name, LocalDate birthDate) {
+}
@@ -0,0 +1,32 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Answer to a fetch by IDs: what was found, in the order the IDs were requested (a repeated ID is answered once),
+// and the requested IDs that do not exist
+public record BatchResult<T>(List<T> items, List<Long> missing) {
+
+    public static final int MAX_IDS = 10_000; // IDs accepted per request
+
+    public static <T> BatchResult<T> of(List<Long> requestedIds, Collection<T> found, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        found.forEach(item -> byId.put(idOf.apply(item), item));
+        List<T> items = new ArrayList<>(byId.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(requestedIds)) {
+            T item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BatchResult<>(items, missing);
+    }
+}
@@ -0,0 +1,6 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// Totals over the whole catalogue; the release years are null while there are no movies
+public record CatalogueStats(long movies, long actors, long genres, double averageDuration,
+                             Integer firstReleaseYear, Integer lastReleaseYear) {
+}
@@ -0,0 +1,10 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+
+import java.time.Instant;
+
+// One row of the change log; entity and id are null for a reload of the whole catalogue
+public record ChangeLogEntry(long seq, CatalogChangeEvent.Entity entity, Long id, CatalogChangeEvent.Change change,
+                             Instant changedAt) {
+}
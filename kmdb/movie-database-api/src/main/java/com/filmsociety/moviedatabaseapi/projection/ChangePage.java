@@ -0,0 +1,8 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+import java.util.List;
+
+// Changes after a sequence number, oldest first. lastSeq is the since value for the next request;
+// more is true when the limit cut the page short.
+public record ChangePage(List<ChangeLogEntry> changes, long lastSeq, boolean more) {
+}
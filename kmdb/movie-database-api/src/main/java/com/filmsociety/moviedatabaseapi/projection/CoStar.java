@@ -0,0 +1,5 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// An actor who appeared with another one, and in how many movies
+public record CoStar(Long id, String name, int sharedMovies) {
+}
@@ -0,0 +1,5 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// Number of movies released in a decade, named by its first year (1990 for 1990-1999)
+public record DecadeStats(int decade, long movieCount) {
+}
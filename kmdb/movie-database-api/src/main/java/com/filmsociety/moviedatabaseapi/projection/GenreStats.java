@@ -0,0 +1,5 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// Number of movies in a genre
+public record GenreStats(Long id, String name, long movieCount) {
+}
@@ -0,0 +1,5 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// Read-only view of a genre inside a movie summary; serializes like the Genre entity
+public record GenreSummary(Long id, String name) {
+}
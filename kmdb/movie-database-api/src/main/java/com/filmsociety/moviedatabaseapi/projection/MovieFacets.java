@@ -0,0 +1,14 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+import java.util.List;
+
+// Counts over every movie of a result set, not just the page returned: how many match in total, per genre and
+// per decade (largest genres first, decades oldest first), and for the actors in most of them
+public record MovieFacets(long total, List<GenreStats> genres, List<DecadeStats> decades, List<ActorStats> actors) {
+
+    public static final int ACTOR_LIMIT = 20; // Actors listed, most movies first
+
+    public static int decadeOf(int releaseYear) {
+        return Math.floorDiv(releaseYear, 10) * 10;
+    }
+}
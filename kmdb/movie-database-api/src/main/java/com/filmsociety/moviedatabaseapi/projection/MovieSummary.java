@@ -0,0 +1,15 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Read-only view of a movie for list endpoints, built from query results instead of managed entities.
+// Serializes to the same JSON as the Movie entity, so clients see no difference.
+public record MovieSummary(Long id, String title, int releaseYear, int duration,
+                           List<GenreSummary> genres, List<ActorSummary> actors) {
+
+    // Used by the JPQL constructor expression; genres and actors are added once their rows are read
+    public MovieSummary(Long id, String title, int releaseYear, int duration) {
+        this(id, title, releaseYear, duration, new ArrayList<>(), new ArrayList<>());
+    }
+}
@@ -0,0 +1,5 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// Just enough of a movie to link to it
+public record MovieTitle(Long id, String title) {
+}
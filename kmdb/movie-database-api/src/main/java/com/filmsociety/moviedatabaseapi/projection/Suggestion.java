@@ -0,0 +1,5 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// A movie title or actor name offered while typing; type is "movie" or "actor"
+public record Suggestion(String type, Long id, String text) {
+}
@@ -0,0 +1,5 @@
+package com.filmsociety.moviedatabaseapi.projection;
+
+// Movies released in one year and their average duration in minutes
+public record YearStats(int releaseYear, long movieCount, double averageDuration) {
+}
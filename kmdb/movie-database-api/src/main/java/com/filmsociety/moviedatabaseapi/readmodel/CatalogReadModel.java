@@ -0,0 +1,337 @@
+package com.filmsociety.moviedatabaseapi.readmodel;
+
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.graph.IntList;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Optional read side of the catalogue (readmodel.enabled): the whole catalogue in memory as a CatalogSnapshot,
+// from which the movie, actor and genre controllers answer their GETs instead of running queries.
+//
+// The snapshot follows the change log rather than the events themselves. An event only says that something
+// committed; the model then reads every log entry after the last one it applied, reloads the rows they name and
+// reads the change counters, all in one read transaction. A snapshot therefore contains exactly the writes up to
+// its counters, which makes those safe ETags. Updates run on one background thread, so a writer returns right after
+// its commit and reads keep the previous snapshot, with its own ETags, until the update is published. A failed
+// update drops the snapshot, so reads go to the database until the next change loads everything again.
+// IDs must fit in an int, as for the co-star index.
+@Component
+public class CatalogReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogReadModel.class);
+
+    private static final RowMapper<NameTable.Row> GENRE_ROW = (rs, row) -> new NameTable.Row(
+            Math.toIntExact(rs.getLong("id")), rs.getString("name"), rs.getLong("version"), 0);
+
+    private static final RowMapper<NameTable.Row> ACTOR_ROW = (rs, row) -> new NameTable.Row(
+            Math.toIntExact(rs.getLong("id")), rs.getString("name"), rs.getLong("version"),
+            Math.toIntExact(rs.getDate("birth_date").toLocalDate().toEpochDay()));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Reads the tables, the change log and the counters
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${readmodel.enabled:false}")
+    private boolean enabled; // Build the snapshot at startup and answer reads from it
+
+    @Value("${readmodel.max-pending-changes:10000}")
+    private int maxPendingChanges; // Log entries applied one by one; beyond this the snapshot is reloaded
+
+    private volatile CatalogSnapshot snapshot; // Null until loaded, when disabled and after a failed update
+
+    private volatile boolean serving = true; // Off to answer from the database while the snapshot keeps following
+
+    private volatile boolean started; // Changes before startup are read by the first load
+
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(); // A queued refresh covers every earlier commit
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "catalog-read-model");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // The snapshot to answer a read from, or null when reads go to the database.
+    // Take it once per request, after the list ETag, so that the body is at least as new as the ETag.
+    public CatalogSnapshot current() {
+        return serving ? snapshot : null;
+    }
+
+    // Switch reads between the snapshot and the database without restarting; the snapshot stays up to date
+    public void setServing(boolean serving) {
+        this.serving = serving;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            started = true;
+            queueRefresh();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (started) {
+            queueRefresh();
+        }
+    }
+
+    // Wait until the changes committed so far are in the snapshot, for callers that must read their own writes
+    public void awaitRefresh() {
+        try {
+            refresher.submit(() -> { }).get(); // Runs after every refresh queued before it
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    // One refresh at a time on the refresher thread, so the log is applied in order. A refresh reads the whole log
+    // after its snapshot, so a commit that finds one still queued needs no other.
+    private void queueRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshQueued.set(false);
+                refresh();
+            });
+        }
+    }
+
+    private void refresh() {
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        read.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW); // Events arrive after commit
+        try {
+            CatalogSnapshot current = snapshot;
+            snapshot = read.execute(status -> current == null ? loadAll() : catchUp(current));
+        } catch (RuntimeException e) {
+            snapshot = null;
+            logger.warn("Catalogue read model dropped, reads go to the database until the next change", e);
+        }
+    }
+
+    private CatalogSnapshot loadAll() {
+        long start = System.nanoTime();
+        Long lastSeq = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM change_log", Long.class);
+        CatalogSnapshot.Position position = position(lastSeq);
+        NameTable genres = NameTable.of(jdbcTemplate.query("SELECT id, name, version FROM genre ORDER BY id", GENRE_ROW), false);
+        NameTable actors = NameTable.of(
+                jdbcTemplate.query("SELECT id, name, birth_date, version FROM actor ORDER BY id", ACTOR_ROW), true);
+        Links genreLinks = new Links("SELECT movie_id, genre_id FROM movie_genre ORDER BY movie_id, genre_id");
+        Links actorLinks = new Links("SELECT movie_id, actor_id FROM movie_actor ORDER BY movie_id, actor_id");
+        MovieTable.Builder movies = new MovieTable.Builder(1024, genreLinks.size(), actorLinks.size());
+        jdbcTemplate.query("SELECT id, title, release_year, duration, version FROM movie ORDER BY id",
+                (RowCallbackHandler) rs -> {
+                    int id = Math.toIntExact(rs.getLong("id"));
+                    int genreFrom = genreLinks.skipTo(id);
+                    int actorFrom = actorLinks.skipTo(id);
+                    movies.add(id, rs.getString("title"), rs.getInt("release_year"), rs.getInt("duration"),
+                            rs.getLong("version"), genreLinks.keys, genreFrom, genreLinks.skipPast(id),
+                            actorLinks.keys, actorFrom, actorLinks.skipPast(id));
+                });
+        CatalogSnapshot loaded = new CatalogSnapshot(movies.build(), actors, genres, position);
+        logger.info("Loaded the catalogue read model ({} movies, {} actors, {} genres) in {} ms", loaded.movies.size(),
+                actors.size(), genres.size(), (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    // The snapshot with the log entries after its position applied
+    private CatalogSnapshot catchUp(CatalogSnapshot current) {
+        SortedSet<Integer> movieIds = new TreeSet<>();
+        SortedSet<Integer> actorIds = new TreeSet<>();
+        SortedSet<Integer> genreIds = new TreeSet<>();
+        boolean[] reload = {false};
+        int[] entries = {0};
+        long[] lastSeq = {current.position.lastSeq()};
+        jdbcTemplate.query("SELECT seq, entity, entity_id, change FROM change_log WHERE seq > ? ORDER BY seq LIMIT ?",
+                (RowCallbackHandler) rs -> {
+                    lastSeq[0] = rs.getLong("seq");
+                    String entity = rs.getString("entity");
+                    if (entity == null || ++entries[0] > maxPendingChanges) {
+                        reload[0] = true; // A bulk reload, or too far behind to apply entries one by one
+                        return;
+                    }
+                    int id = Math.toIntExact(rs.getLong("entity_id"));
+                    boolean created = CatalogChangeEvent.Change.CREATED.name().equals(rs.getString("change"));
+                    switch (CatalogChangeEvent.Entity.valueOf(entity)) {
+                        case MOVIE -> movieIds.add(id);
+                        case ACTOR -> {
+                            actorIds.add(id);
+                            if (!created) { // Its movies embed it and have new versions
+                                addAll(movieIds, current.moviesByActor.get(id));
+                            }
+                        }
+                        case GENRE -> {
+                            genreIds.add(id);
+                            if (!created) {
+                                addAll(movieIds, current.moviesByGenre.get(id));
+                            }
+                        }
+                    }
+                },
+                lastSeq[0], maxPendingChanges + 1);
+        if (reload[0]) {
+            return loadAll();
+        }
+        if (lastSeq[0] == current.position.lastSeq()) {
+            return current; // Already applied by an earlier refresh
+        }
+        Map<Integer, MovieTable.Row> movies = loadMovies(movieIds);
+        for (MovieTable.Row movie : movies.values()) { // Linked actors and genres the snapshot lacks get loaded too
+            addMissing(actorIds, movie.actorIds(), current.actors);
+            addMissing(genreIds, movie.genreIds(), current.genres);
+        }
+        return current.with(new CatalogSnapshot.Update(
+                movieIds, movies,
+                actorIds, loadNames("SELECT id, name, birth_date, version FROM actor WHERE id IN ", actorIds, ACTOR_ROW),
+                genreIds, loadNames("SELECT id, name, version FROM genre WHERE id IN ", genreIds, GENRE_ROW),
+                position(lastSeq[0])));
+    }
+
+    private CatalogSnapshot.Position position(long lastSeq) {
+        Map<String, Long> counters = new HashMap<>();
+        jdbcTemplate.query("SELECT name, value FROM change_counter",
+                (RowCallbackHandler) rs -> counters.put(rs.getString("name"), rs.getLong("value")));
+        return new CatalogSnapshot.Position(lastSeq, counters.get("movie"), counters.get("actor"), counters.get("genre"));
+    }
+
+    // Current rows of the given movies; deleted movies have none
+    private Map<Integer, MovieTable.Row> loadMovies(Collection<Integer> ids) {
+        Map<Integer, IntList> genres = new HashMap<>();
+        Map<Integer, IntList> actors = new HashMap<>();
+        inChunks(ids, "SELECT movie_id, genre_id FROM movie_genre WHERE movie_id IN ", rs ->
+                genres.computeIfAbsent(Math.toIntExact(rs.getLong(1)), movie -> new IntList(4)).add(Math.toIntExact(rs.getLong(2))));
+        inChunks(ids, "SELECT movie_id, actor_id FROM movie_actor WHERE movie_id IN ", rs ->
+                actors.computeIfAbsent(Math.toIntExact(rs.getLong(1)), movie -> new IntList(8)).add(Math.toIntExact(rs.getLong(2))));
+        Map<Integer, MovieTable.Row> rows = new HashMap<>();
+        inChunks(ids, "SELECT id, title, release_year, duration, version FROM movie WHERE id IN ", rs -> {
+            int id = Math.toIntExact(rs.getLong("id"));
+            rows.put(id, new MovieTable.Row(id, rs.getString("title"), rs.getInt("release_year"),
+                    rs.getInt("duration"), rs.getLong("version"), sorted(genres.get(id)), sorted(actors.get(id))));
+        });
+        return rows;
+    }
+
+    // Current rows of the given actors or genres; deleted ones have none
+    private Map<Integer, NameTable.Row> loadNames(String sql, Collection<Integer> ids, RowMapper<NameTable.Row> mapper) {
+        Map<Integer, NameTable.Row> rows = new HashMap<>();
+        inChunks(ids, sql, rs -> {
+            NameTable.Row row = mapper.mapRow(rs, 0);
+            rows.put(row.id(), row);
+        });
+        return rows;
+    }
+
+    // Run sql (ending in "IN ") for chunks of the IDs
+    private void inChunks(Collection<Integer> ids, String sql, ResultSetConsumer consumer) {
+        for (List<Integer> chunk : InClause.chunks(ids)) {
+            String placeholders = InClause.placeholders(chunk);
+            jdbcTemplate.query(sql + "(" + placeholders + ")", (RowCallbackHandler) consumer::accept, chunk.toArray());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultSetConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private static int[] sorted(IntList ids) {
+        if (ids == null) {
+            return Postings.NONE;
+        }
+        int[] sorted = ids.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static void addAll(Collection<Integer> target, int[] ids) {
+        for (int id : ids) {
+            target.add(id);
+        }
+    }
+
+    private static void addMissing(Collection<Integer> target, int[] ids, NameTable table) {
+        for (int id : ids) {
+            if (table.indexOf(id) < 0) {
+                target.add(id);
+            }
+        }
+    }
+
+    // (movie, key) pairs in movie order, handed out movie by movie while the movies are read in ID order.
+    // Pairs of movies that no longer exist are skipped.
+    private final class Links {
+
+        private final int[] movies;
+        private final int[] keys;
+        private int next;
+
+        Links(String sql) {
+            IntList movieList = new IntList(1024);
+            IntList keyList = new IntList(1024);
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                movieList.add(Math.toIntExact(rs.getLong(1)));
+                keyList.add(Math.toIntExact(rs.getLong(2)));
+            });
+            movies = movieList.toArray();
+            keys = keyList.toArray();
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        // Skip the pairs of movies below the given one; returns the position of its first pair
+        int skipTo(int movie) {
+            while (next < movies.length && movies[next] < movie) {
+                next++;
+            }
+            return next;
+        }
+
+        // Skip the pairs of the given movie; returns the position after its last pair
+        int skipPast(int movie) {
+            while (next < movies.length && movies[next] == movie) {
+                next++;
+            }
+            return next;
+        }
+    }
+}
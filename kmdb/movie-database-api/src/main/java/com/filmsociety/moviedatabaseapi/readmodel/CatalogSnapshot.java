@@ -0,0 +1,327 @@
+package com.filmsociety.moviedatabaseapi.readmodel;
+
+import com.filmsociety.moviedatabaseapi.exception.NotFoundException;
+import com.filmsociety.moviedatabaseapi.pagination.Cursor;
+import com.filmsociety.moviedatabaseapi.pagination.KeysetPage;
+import com.filmsociety.moviedatabaseapi.projection.ActorSummary;
+import com.filmsociety.moviedatabaseapi.projection.BatchResult;
+import com.filmsociety.moviedatabaseapi.projection.GenreSummary;
+import com.filmsociety.moviedatabaseapi.projection.MovieSummary;
+import com.filmsociety.moviedatabaseapi.service.ChangeCounterService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+// The whole catalogue as it was at one position of the change log, answering the same questions as the read
+// methods of the services with the same JSON. Lists are in ID order, like the summary queries. Immutable, so a
+// request that holds one sees a consistent catalogue however many writes are applied meanwhile.
+public final class CatalogSnapshot {
+
+    // The change log sequence number a snapshot reflects, and the change counters at that point
+    record Position(long lastSeq, long movieRevision, long actorRevision, long genreRevision) {
+    }
+
+    // Reloaded rows of the movies, actors and genres that changed; changed IDs without a row were deleted
+    record Update(SortedSet<Integer> movieIds, Map<Integer, MovieTable.Row> movies,
+                  SortedSet<Integer> actorIds, Map<Integer, NameTable.Row> actors,
+                  SortedSet<Integer> genreIds, Map<Integer, NameTable.Row> genres,
+                  Position position) {
+    }
+
+    final MovieTable movies;
+    final NameTable actors;
+    final NameTable genres;
+    final Postings moviesByGenre;
+    final Postings moviesByActor;
+    final Postings moviesByYear;
+    final Position position;
+
+    CatalogSnapshot(MovieTable movies, NameTable actors, NameTable genres, Position position) {
+        this(movies, actors, genres,
+                Postings.invert(movies.ids, movies.genreOffsets, movies.genreIds),
+                Postings.invert(movies.ids, movies.actorOffsets, movies.actorIds),
+                Postings.invert(movies.ids, Postings.single(movies.size()), movies.releaseYears),
+                position);
+    }
+
+    private CatalogSnapshot(MovieTable movies, NameTable actors, NameTable genres, Postings moviesByGenre,
+                            Postings moviesByActor, Postings moviesByYear, Position position) {
+        this.movies = movies;
+        this.actors = actors;
+        this.genres = genres;
+        this.moviesByGenre = moviesByGenre;
+        this.moviesByActor = moviesByActor;
+        this.moviesByYear = moviesByYear;
+        this.position = position;
+    }
+
+    // This snapshot with an update applied; only the postings of changed links are rebuilt
+    CatalogSnapshot with(Update update) {
+        SortedMap<Integer, Postings.Delta> genreDeltas = new TreeMap<>();
+        SortedMap<Integer, Postings.Delta> actorDeltas = new TreeMap<>();
+        SortedMap<Integer, Postings.Delta> yearDeltas = new TreeMap<>();
+        for (int id : update.movieIds()) {
+            int i = movies.indexOf(id);
+            MovieTable.Row row = update.movies().get(id);
+            diff(id, i >= 0 ? movies.genresOf(i) : Postings.NONE, row != null ? row.genreIds() : Postings.NONE, genreDeltas);
+            diff(id, i >= 0 ? movies.actorsOf(i) : Postings.NONE, row != null ? row.actorIds() : Postings.NONE, actorDeltas);
+            diff(id, i >= 0 ? new int[] {movies.releaseYears[i]} : Postings.NONE,
+                    row != null ? new int[] {row.releaseYear()} : Postings.NONE, yearDeltas);
+        }
+        return new CatalogSnapshot(
+                update.movieIds().isEmpty() ? movies : movies.with(update.movieIds(), update.movies()),
+                update.actorIds().isEmpty() ? actors : actors.with(update.actorIds(), update.actors()),
+                update.genreIds().isEmpty() ? genres : genres.with(update.genreIds(), update.genres()),
+                genreDeltas.isEmpty() ? moviesByGenre : moviesByGenre.with(genreDeltas),
+                actorDeltas.isEmpty() ? moviesByActor : moviesByActor.with(actorDeltas),
+                yearDeltas.isEmpty() ? moviesByYear : moviesByYear.with(yearDeltas),
+                update.position());
+    }
+
+    // The value of a change counter (ChangeCounterService.MOVIES, ACTORS or GENRES) that this snapshot reflects
+    public long revision(String counter) {
+        return switch (counter) {
+            case ChangeCounterService.MOVIES -> position.movieRevision();
+            case ChangeCounterService.ACTORS -> position.actorRevision();
+            case ChangeCounterService.GENRES -> position.genreRevision();
+            default -> throw new IllegalArgumentException("Unknown change counter: " + counter);
+        };
+    }
+
+    // Movies
+
+    public List<MovieSummary> getAllMovies(int page, int size) {
+        return page(movies.size(), page, size, this::movie);
+    }
+
+    // The page of movies that follows the given cursor, ordered by ID or by (releaseYear, ID)
+    public KeysetPage<MovieSummary> getMoviesAfter(String after, int size, boolean byReleaseYear) {
+        List<MovieSummary> rows = new ArrayList<>(); // Up to size + 1; the extra row tells whether more follow
+        if (byReleaseYear) {
+            long[] key = Cursor.decode(after, 2);
+            int releaseYear = key == null ? Integer.MIN_VALUE : (int) key[0];
+            long lastId = key == null ? 0 : key[1];
+            for (int k = moviesByYear.firstAtOrAbove(releaseYear); k < moviesByYear.size() && rows.size() <= size; k++) {
+                int[] ids = moviesByYear.movies(k);
+                int p = moviesByYear.key(k) == releaseYear ? firstAbove(ids, lastId) : 0;
+                for (; p < ids.length && rows.size() <= size; p++) {
+                    rows.add(movie(movies.indexOf(ids[p])));
+                }
+            }
+            return KeysetPage.of(rows, size, movie -> Cursor.encode(movie.releaseYear(), movie.id()));
+        }
+        long[] key = Cursor.decode(after, 1);
+        for (int i = firstAbove(movies.ids, key == null ? 0 : key[0]); i < movies.size() && rows.size() <= size; i++) {
+            rows.add(movie(i));
+        }
+        return KeysetPage.of(rows, size, movie -> Cursor.encode(movie.id()));
+    }
+
+    public Optional<MovieSummary> getMovieById(long id) {
+        int i = movies.indexOf(key(id));
+        return i >= 0 ? Optional.of(movie(i)) : Optional.empty();
+    }
+
+    public Optional<Long> getMovieVersion(long id) {
+        int i = movies.indexOf(key(id));
+        return i >= 0 ? Optional.of(movies.versions[i]) : Optional.empty();
+    }
+
+    public BatchResult<MovieSummary> getMoviesByIds(List<Long> ids) {
+        return batch(ids, movies::indexOf, this::movie, MovieSummary::id);
+    }
+
+    public List<MovieSummary> getMoviesByGenre(long genreId) {
+        return moviesOf(moviesByGenre.get(key(genreId)), 0, Integer.MAX_VALUE);
+    }
+
+    public List<MovieSummary> getMoviesByReleaseYear(int releaseYear) {
+        return moviesOf(moviesByYear.get(releaseYear), 0, Integer.MAX_VALUE);
+    }
+
+    public List<MovieSummary> getMoviesByActor(long actorId, int page, int size) {
+        int[] ids = moviesByActor.get(key(actorId));
+        long from = (long) page * size;
+        return from >= ids.length ? List.of() : moviesOf(ids, (int) from, size);
+    }
+
+    public List<MovieSummary> getMoviesByActorWithoutPagination(long actorId) {
+        return moviesOf(moviesByActor.get(key(actorId)), 0, Integer.MAX_VALUE);
+    }
+
+    // The page of the given movies that MovieFilterIndex matched after a cursor, up to size + 1 IDs in ID order;
+    // movies this snapshot does not have yet are left out
+    public KeysetPage<MovieSummary> getMoviesPage(List<Long> ids, int size) {
+        return KeysetPage.of(getMoviesByIds(ids).items(), size, movie -> Cursor.encode(movie.id()));
+    }
+
+    public List<ActorSummary> getActorsInMovie(long movieId) {
+        int i = movies.indexOf(key(movieId));
+        if (i < 0) {
+            throw new NotFoundException("Movie not found with ID: " + movieId);
+        }
+        return movie(i).actors();
+    }
+
+    // Actors
+
+    public List<ActorSummary> getPaginatedActors(int page, int size) {
+        return page(actors.size(), page, size, this::actor);
+    }
+
+    public KeysetPage<ActorSummary> getActorsAfter(String after, int size) {
+        long[] key = Cursor.decode(after, 1);
+        int from = firstAbove(actors.ids, key == null ? 0 : key[0]);
+        List<ActorSummary> rows = rows(actors.size(), from, size + 1, this::actor);
+        return KeysetPage.of(rows, size, actor -> Cursor.encode(actor.id()));
+    }
+
+    public Optional<ActorSummary> getActorById(long id) {
+        int i = actors.indexOf(key(id));
+        return i >= 0 ? Optional.of(actor(i)) : Optional.empty();
+    }
+
+    public Optional<Long> getActorVersion(long id) {
+        int i = actors.indexOf(key(id));
+        return i >= 0 ? Optional.of(actors.versions[i]) : Optional.empty();
+    }
+
+    public BatchResult<ActorSummary> getActorsByIds(List<Long> ids) {
+        return batch(ids, actors::indexOf, this::actor, ActorSummary::id);
+    }
+
+    // Genres
+
+    public List<GenreSummary> getPaginatedGenres(int page, int size) {
+        return page(genres.size(), page, size, this::genre);
+    }
+
+    public KeysetPage<GenreSummary> getGenresAfter(String after, int size) {
+        long[] key = Cursor.decode(after, 1);
+        int from = firstAbove(genres.ids, key == null ? 0 : key[0]);
+        List<GenreSummary> rows = rows(genres.size(), from, size + 1, this::genre);
+        return KeysetPage.of(rows, size, genre -> Cursor.encode(genre.id()));
+    }
+
+    public Optional<GenreSummary> getGenreById(long id) {
+        int i = genres.indexOf(key(id));
+        return i >= 0 ? Optional.of(genre(i)) : Optional.empty();
+    }
+
+    public Optional<Long> getGenreVersion(long id) {
+        int i = genres.indexOf(key(id));
+        return i >= 0 ? Optional.of(genres.versions[i]) : Optional.empty();
+    }
+
+    public BatchResult<GenreSummary> getGenresByIds(List<Long> ids) {
+        return batch(ids, genres::indexOf, this::genre, GenreSummary::id);
+    }
+
+    // Rows
+
+    private MovieSummary movie(int i) {
+        List<GenreSummary> movieGenres = new ArrayList<>(movies.genreOffsets[i + 1] - movies.genreOffsets[i]);
+        for (int p = movies.genreOffsets[i]; p < movies.genreOffsets[i + 1]; p++) {
+            int g = genres.indexOf(movies.genreIds[p]);
+            if (g >= 0) {
+                movieGenres.add(genre(g));
+            }
+        }
+        List<ActorSummary> cast = new ArrayList<>(movies.actorOffsets[i + 1] - movies.actorOffsets[i]);
+        for (int p = movies.actorOffsets[i]; p < movies.actorOffsets[i + 1]; p++) {
+            int a = actors.indexOf(movies.actorIds[p]);
+            if (a >= 0) {
+                cast.add(actor(a));
+            }
+        }
+        return new MovieSummary((long) movies.ids[i], movies.titles[i], movies.releaseYears[i], movies.durations[i],
+                movieGenres, cast);
+    }
+
+    private ActorSummary actor(int i) {
+        return new ActorSummary((long) actors.ids[i], actors.names[i], actors.birthDate(i));
+    }
+
+    private GenreSummary genre(int i) {
+        return new GenreSummary((long) genres.ids[i], genres.names[i]);
+    }
+
+    // Up to count movies of a postings list, starting at position from
+    private List<MovieSummary> moviesOf(int[] ids, int from, int count) {
+        int to = (int) Math.min(ids.length, (long) from + count);
+        List<MovieSummary> result = new ArrayList<>(Math.max(to - from, 0));
+        for (int p = from; p < to; p++) {
+            result.add(movie(movies.indexOf(ids[p])));
+        }
+        return result;
+    }
+
+    // Rows [page * size, page * size + size) of a table, clipped to its end
+    private static <T> List<T> page(int rowCount, int page, int size, IntFunction<T> row) {
+        long from = (long) page * size;
+        return from >= rowCount ? List.of() : rows(rowCount, (int) from, size, row);
+    }
+
+    // Up to count rows of a table from position from
+    private static <T> List<T> rows(int rowCount, int from, int count, IntFunction<T> row) {
+        int to = (int) Math.min(rowCount, (long) from + count);
+        List<T> result = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) {
+            result.add(row.apply(i));
+        }
+        return result;
+    }
+
+    private static <T> BatchResult<T> batch(List<Long> ids, IntUnaryOperator indexOf, IntFunction<T> row,
+                                            Function<T, Long> idOf) {
+        List<T> found = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            int i = indexOf.applyAsInt(key(id));
+            if (i >= 0) {
+                found.add(row.apply(i));
+            }
+        }
+        return BatchResult.of(ids, found, idOf);
+    }
+
+    // Position of the first ID above the given one in a sorted array
+    private static int firstAbove(int[] ids, long id) {
+        if (id < Integer.MIN_VALUE) {
+            return 0;
+        }
+        if (id >= Integer.MAX_VALUE) {
+            return ids.length;
+        }
+        int at = Arrays.binarySearch(ids, (int) id);
+        return at >= 0 ? at + 1 : -at - 1;
+    }
+
+    // IDs are stored as ints (see CatalogReadModel); any other ID cannot exist
+    private static int key(long id) {
+        return id >= 0 && id <= Integer.MAX_VALUE ? (int) id : -1;
+    }
+
+    // The keys movie gained and lost going from before to after, both sorted
+    private static void diff(int movie, int[] before, int[] after, SortedMap<Integer, Postings.Delta> deltas) {
+        for (int key : before) {
+            if (Arrays.binarySearch(after, key) < 0) {
+                deltas.computeIfAbsent(key, k -> new Postings.Delta()).removed.add(movie);
+            }
+        }
+        for (int key : after) {
+            if (Arrays.binarySearch(before, key) < 0) {
+                deltas.computeIfAbsent(key, k -> new Postings.Delta()).added.add(movie);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.filmsociety.moviedatabaseapi.readmodel;
+
+import com.filmsociety.moviedatabaseapi.graph.IntList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+// Movies as columns in ascending ID order. The genres of movie i are genreIds[genreOffsets[i]] up to
+// genreIds[genreOffsets[i + 1]], sorted, and its actors likewise. Never modified once built.
+final class MovieTable {
+
+    final int[] ids;
+    final String[] titles;
+    final int[] releaseYears;
+    final int[] durations;
+    final long[] versions;
+    final int[] genreOffsets;
+    final int[] genreIds;
+    final int[] actorOffsets;
+    final int[] actorIds;
+
+    // One movie as read from the database, with sorted genre and actor IDs
+    record Row(int id, String title, int releaseYear, int duration, long version, int[] genreIds, int[] actorIds) {
+    }
+
+    private MovieTable(Builder builder) {
+        ids = builder.ids.toArray();
+        titles = builder.titles.toArray(new String[0]);
+        releaseYears = builder.releaseYears.toArray();
+        durations = builder.durations.toArray();
+        versions = Arrays.copyOf(builder.versions, ids.length);
+        genreOffsets = builder.genreOffsets.toArray();
+        genreIds = builder.genreIds.toArray();
+        actorOffsets = builder.actorOffsets.toArray();
+        actorIds = builder.actorIds.toArray();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    // Position of an ID, negative when absent
+    int indexOf(int id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    // Position of the given ID, or of the first ID above it when absent
+    int firstAtOrAbove(int id) {
+        int at = Arrays.binarySearch(ids, id);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    int[] genresOf(int i) {
+        return Arrays.copyOfRange(genreIds, genreOffsets[i], genreOffsets[i + 1]);
+    }
+
+    int[] actorsOf(int i) {
+        return Arrays.copyOfRange(actorIds, actorOffsets[i], actorOffsets[i + 1]);
+    }
+
+    // This table with the given IDs replaced by their reloaded rows; IDs without a row are removed.
+    // Unchanged stretches are copied array to array.
+    MovieTable with(SortedSet<Integer> changed, Map<Integer, Row> rows) {
+        int genreCount = genreIds.length;
+        int actorCount = actorIds.length;
+        for (Row row : rows.values()) {
+            genreCount += row.genreIds().length;
+            actorCount += row.actorIds().length;
+        }
+        Builder builder = new Builder(size() + rows.size(), genreCount, actorCount);
+        int from = 0;
+        for (int id : changed) {
+            int at = firstAtOrAbove(id);
+            builder.copy(this, from, at);
+            from = at < size() && ids[at] == id ? at + 1 : at; // Skip the old row
+            Row row = rows.get(id);
+            if (row != null) {
+                builder.add(row.id(), row.title(), row.releaseYear(), row.duration(), row.version(),
+                        row.genreIds(), 0, row.genreIds().length, row.actorIds(), 0, row.actorIds().length);
+            }
+        }
+        builder.copy(this, from, size());
+        return builder.build();
+    }
+
+    // Collects movies in ascending ID order
+    static final class Builder {
+
+        private final IntList ids;
+        private final List<String> titles;
+        private final IntList releaseYears;
+        private final IntList durations;
+        private long[] versions;
+        private final IntList genreOffsets;
+        private final IntList genreIds;
+        private final IntList actorOffsets;
+        private final IntList actorIds;
+
+        // Room for capacity movies with genreCapacity genre links and actorCapacity actor links; grows beyond
+        Builder(int capacity, int genreCapacity, int actorCapacity) {
+            ids = new IntList(capacity);
+            titles = new ArrayList<>(capacity);
+            releaseYears = new IntList(capacity);
+            durations = new IntList(capacity);
+            versions = new long[Math.max(capacity, 8)];
+            genreOffsets = new IntList(capacity + 1);
+            genreOffsets.add(0);
+            genreIds = new IntList(genreCapacity);
+            actorOffsets = new IntList(capacity + 1);
+            actorOffsets.add(0);
+            actorIds = new IntList(actorCapacity);
+        }
+
+        // Append a movie whose genres are genres[genreFrom, genreTo) and actors actors[actorFrom, actorTo)
+        void add(int id, String title, int releaseYear, int duration, long version,
+                 int[] genres, int genreFrom, int genreTo, int[] actors, int actorFrom, int actorTo) {
+            growVersions(1);
+            versions[ids.size()] = version;
+            ids.add(id);
+            titles.add(title);
+            releaseYears.add(releaseYear);
+            durations.add(duration);
+            genreIds.addAll(genres, genreFrom, genreTo);
+            genreOffsets.add(genreIds.size());
+            actorIds.addAll(actors, actorFrom, actorTo);
+            actorOffsets.add(actorIds.size());
+        }
+
+        // Append movies [from, to) of another table
+        void copy(MovieTable table, int from, int to) {
+            int count = to - from;
+            growVersions(count);
+            System.arraycopy(table.versions, from, versions, ids.size(), count);
+            ids.addAll(table.ids, from, to);
+            titles.addAll(Arrays.asList(table.titles).subList(from, to));
+            releaseYears.addAll(table.releaseYears, from, to);
+            durations.addAll(table.durations, from, to);
+            copyLinks(table.genreOffsets, table.genreIds, from, to, genreOffsets, genreIds);
+            copyLinks(table.actorOffsets, table.actorIds, from, to, actorOffsets, actorIds);
+        }
+
+        MovieTable build() {
+            return new MovieTable(this);
+        }
+
+        private void growVersions(int count) {
+            if (ids.size() + count > versions.length) {
+                versions = Arrays.copyOf(versions, Math.max(versions.length * 2, ids.size() + count));
+            }
+        }
+
+        // The links of rows [from, to), with their offsets shifted to where they land
+        private static void copyLinks(int[] offsets, int[] links, int from, int to, IntList targetOffsets, IntList target) {
+            int shift = target.size() - offsets[from];
+            for (int i = from + 1; i <= to; i++) {
+                targetOffsets.add(offsets[i] + shift);
+            }
+            target.addAll(links, offsets[from], offsets[to]);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.filmsociety.moviedatabaseapi.readmodel;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+// Actors or genres as columns in ascending ID order. Actors also have their birth dates as epoch days;
+// for genres birthDays is null. Never modified once built.
+final class NameTable {
+
+    final int[] ids;
+    final String[] names;
+    final long[] versions;
+    final int[] birthDays;
+
+    // One actor or genre as read from the database; birthDay is ignored for genres
+    record Row(int id, String name, long version, int birthDay) {
+    }
+
+    private NameTable(int[] ids, String[] names, long[] versions, int[] birthDays) {
+        this.ids = ids;
+        this.names = names;
+        this.versions = versions;
+        this.birthDays = birthDays;
+    }
+
+    // Rows in ascending ID order
+    static NameTable of(List<Row> rows, boolean withBirthDates) {
+        Builder builder = new Builder(rows.size(), withBirthDates);
+        rows.forEach(builder::add);
+        return builder.build();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    // Position of an ID, negative when absent
+    int indexOf(int id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    // Position of the given ID, or of the first ID above it when absent
+    int firstAtOrAbove(int id) {
+        int at = Arrays.binarySearch(ids, id);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    LocalDate birthDate(int i) {
+        return LocalDate.ofEpochDay(birthDays[i]);
+    }
+
+    // This table with the given IDs replaced by their reloaded rows; IDs without a row are removed
+    NameTable with(SortedSet<Integer> changed, Map<Integer, Row> rows) {
+        Builder builder = new Builder(size() + rows.size(), birthDays != null);
+        int from = 0;
+        for (int id : changed) {
+            int at = firstAtOrAbove(id);
+            builder.copy(this, from, at);
+            from = at < size() && ids[at] == id ? at + 1 : at; // Skip the old row
+            Row row = rows.get(id);
+            if (row != null) {
+                builder.add(row);
+            }
+        }
+        builder.copy(this, from, size());
+        return builder.build();
+    }
+
+    private static final class Builder {
+
+        private final int[] ids;
+        private final List<String> names;
+        private final long[] versions;
+        private final int[] birthDays;
+        private int size;
+
+        Builder(int capacity, boolean withBirthDates) {
+            ids = new int[capacity];
+            names = new ArrayList<>(capacity);
+            versions = new long[capacity];
+            birthDays = withBirthDates ? new int[capacity] : null;
+        }
+
+        void add(Row row) {
+            ids[size] = row.id();
+            names.add(row.name());
+            versions[size] = row.version();
+            if (birthDays != null) {
+                birthDays[size] = row.birthDay();
+            }
+            size++;
+        }
+
+        // Append rows [from, to) of another table
+        void copy(NameTable table, int from, int to) {
+            int count = to - from;
+            System.arraycopy(table.ids, from, ids, size, count);
+            names.addAll(Arrays.asList(table.names).subList(from, to));
+            System.arraycopy(table.versions, from, versions, size, count);
+            if (birthDays != null) {
+                System.arraycopy(table.birthDays, from, birthDays, size, count);
+            }
+            size += count;
+        }
+
+        NameTable build() {
+            return new NameTable(Arrays.copyOf(ids, size), names.toArray(new String[0]), Arrays.copyOf(versions, size),
+                    birthDays != null ? Arrays.copyOf(birthDays, size) : null);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.filmsociety.moviedatabaseapi.readmodel;
+
+import com.filmsociety.moviedatabaseapi.graph.IntList;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+// For each key (a genre, an actor or a release year) the IDs of the movies that have it, ascending.
+// Keys without movies are left out. Never modified once built.
+final class Postings {
+
+    static final int[] NONE = new int[0];
+
+    private final int[] keys; // Ascending
+    private final int[][] movies; // Movies of keys[i]
+
+    private Postings(int[] keys, int[][] movies) {
+        this.keys = keys;
+        this.movies = movies;
+    }
+
+    // Inverts the links of a table, where links[offsets[i]] up to links[offsets[i + 1]] belong to movieIds[i]
+    static Postings invert(int[] movieIds, int[] offsets, int[] links) {
+        int[] keys = links.clone();
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        keys = Arrays.copyOf(keys, distinct);
+        int[] counts = new int[distinct];
+        for (int link : links) {
+            counts[Arrays.binarySearch(keys, link)]++;
+        }
+        int[][] movies = new int[distinct][];
+        for (int k = 0; k < distinct; k++) {
+            movies[k] = new int[counts[k]];
+        }
+        int[] filled = new int[distinct];
+        for (int i = 0; i < movieIds.length; i++) { // In ID order, so every list comes out sorted
+            for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+                int k = Arrays.binarySearch(keys, links[p]);
+                movies[k][filled[k]++] = movieIds[i];
+            }
+        }
+        return new Postings(keys, movies);
+    }
+
+    // Offsets that give each movie exactly one link, e.g. its release year
+    static int[] single(int count) {
+        int[] offsets = new int[count + 1];
+        Arrays.setAll(offsets, i -> i);
+        return offsets;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    int key(int i) {
+        return keys[i];
+    }
+
+    int[] movies(int i) {
+        return movies[i];
+    }
+
+    // Movies with the key, empty when there are none
+    int[] get(int key) {
+        int at = Arrays.binarySearch(keys, key);
+        return at >= 0 ? movies[at] : NONE;
+    }
+
+    // Position of the given key, or of the first key above it when absent
+    int firstAtOrAbove(int key) {
+        int at = Arrays.binarySearch(keys, key);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    // These postings with movies taken from or added to the keys of the deltas
+    Postings with(SortedMap<Integer, Delta> deltas) {
+        int[] newKeys = new int[keys.length + deltas.size()];
+        int[][] newMovies = new int[newKeys.length][];
+        int size = 0;
+        int from = 0;
+        for (Map.Entry<Integer, Delta> entry : deltas.entrySet()) {
+            int at = firstAtOrAbove(entry.getKey());
+            System.arraycopy(keys, from, newKeys, size, at - from);
+            System.arraycopy(movies, from, newMovies, size, at - from);
+            size += at - from;
+            boolean present = at < keys.length && keys[at] == entry.getKey();
+            int[] changed = entry.getValue().applyTo(present ? movies[at] : NONE);
+            if (changed.length > 0) {
+                newKeys[size] = entry.getKey();
+                newMovies[size++] = changed;
+            }
+            from = present ? at + 1 : at;
+        }
+        System.arraycopy(keys, from, newKeys, size, keys.length - from);
+        System.arraycopy(movies, from, newMovies, size, keys.length - from);
+        size += keys.length - from;
+        return new Postings(Arrays.copyOf(newKeys, size), Arrays.copyOf(newMovies, size));
+    }
+
+    // Movies leaving and joining one key
+    static final class Delta {
+
+        final SortedSet<Integer> removed = new TreeSet<>();
+        final SortedSet<Integer> added = new TreeSet<>();
+
+        // A movie is never both removed and added
+        int[] applyTo(int[] current) {
+            IntList result = new IntList(current.length + added.size());
+            int i = 0;
+            for (int movie : added) {
+                while (i < current.length && current[i] < movie) {
+                    keep(current[i++], result);
+                }
+                if (i < current.length && current[i] == movie) {
+                    i++; // Already there
+                }
+                result.add(movie);
+            }
+            while (i < current.length) {
+                keep(current[i++], result);
+            }
+            return result.toArray();
+        }
+
+        private void keep(int movie, IntList result) {
+            if (!removed.contains(movie)) {
+                result.add(movie);
+            }
+        }
+    }
+}
@@ -1,13 +1,30 @@
 package com.filmsociety.moviedatabaseapi.repository;
 
 import com.filmsociety.moviedatabaseapi.entity.Actor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 // Repository interface for Actor entity, extending JpaRepository
 public interface ActorRepository extends JpaRepository<Actor, Long> {
-    // Method to find actors by name with case-insensitive search
-    List<Actor> findByNameContainingIgnoreCase(String name);
+    // Full-text name search through the actor_fts index, best ranked matches first
+    @Query(value = "SELECT a.* FROM actor_fts JOIN actor a ON a.id = actor_fts.rowid "
+            + "WHERE actor_fts MATCH :query ORDER BY actor_fts.rank LIMIT :limit", nativeQuery = true)
+    List<Actor> searchByName(@Param("query") String query, @Param("limit") int limit);
     Actor findByName(String name);
+
+    // Name uniqueness checks, answered from the unique index on actor.name
+    boolean existsByName(String name);
+    boolean existsByNameAndIdNot(String name, Long id);
+
+    // The given IDs that belong to an actor; one IN query to validate many references
+    @Query("select a.id from Actor a where a.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset pagination: seek past the last seen ID instead of skipping rows with OFFSET
+    List<Actor> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
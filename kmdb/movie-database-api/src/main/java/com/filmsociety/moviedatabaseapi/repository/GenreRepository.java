@@ -1,10 +1,15 @@
 package com.filmsociety.moviedatabaseapi.repository;
 
 import com.filmsociety.moviedatabaseapi.entity.Genre;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 // Repository interface for Genre entity, extending JpaRepository
 public interface GenreRepository extends JpaRepository<Genre, Long> {
     Genre findByName(String name);
-    // No additional methods defined; basic CRUD operations are inherited
+
+    // Keyset pagination: seek past the last seen ID instead of skipping rows with OFFSET
+    List<Genre> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -0,0 +1,30 @@
+package com.filmsociety.moviedatabaseapi.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Splits the values of an IN (...) lookup into chunks, so no statement binds too many parameters
+public final class InClause {
+
+    public static final int MAX_VALUES = 500; // Stay well below SQLite's bound parameter limit
+
+    private InClause() {} // Utility class, no instances
+
+    // The distinct values in encounter order, in chunks of at most MAX_VALUES
+    public static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> distinct = List.copyOf(new LinkedHashSet<>(values));
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += MAX_VALUES) {
+            chunks.add(distinct.subList(from, Math.min(from + MAX_VALUES, distinct.size())));
+        }
+        return chunks;
+    }
+
+    // The "?,?,?" parameter list for a chunk, for SQL built by hand
+    public static String placeholders(List<?> chunk) {
+        return String.join(",", Collections.nCopies(chunk.size(), "?"));
+    }
+}
@@ -1,27 +1,120 @@
 package com.filmsociety.moviedatabaseapi.repository;
 
 import com.filmsociety.moviedatabaseapi.entity.Movie;
-import org.springframework.data.domain.Page;
+import com.filmsociety.moviedatabaseapi.projection.MovieSummary;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 // Repository interface for Movie entity, extending JpaRepository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
 
-    // Method to find movies by genre ID
-    List<Movie> findByGenres_Id(Long genreId);
+    // Summary rows for one page of movies, without the extra count query and without managed entities
+    @Query("select new com.filmsociety.moviedatabaseapi.projection.MovieSummary(m.id, m.title, m.releaseYear, m.duration) "
+            + "from Movie m order by m.id")
+    List<MovieSummary> findSummaries(Pageable pageable);
 
-    // Method to find movies by release year
-    List<Movie> findByReleaseYear(int releaseYear);
+    // Summary rows of the movies in a genre
+    @Query("select new com.filmsociety.moviedatabaseapi.projection.MovieSummary(m.id, m.title, m.releaseYear, m.duration) "
+            + "from Movie m join m.genres g where g.id = :genreId order by m.id")
+    List<MovieSummary> findSummariesByGenreId(@Param("genreId") Long genreId);
 
-    // Method to find movies by title using case-insensitive search
-    List<Movie> findByTitleContainingIgnoreCase(String title);
+    // Summary rows of the movies released in a year
+    @Query("select new com.filmsociety.moviedatabaseapi.projection.MovieSummary(m.id, m.title, m.releaseYear, m.duration) "
+            + "from Movie m where m.releaseYear = :releaseYear order by m.id")
+    List<MovieSummary> findSummariesByReleaseYear(@Param("releaseYear") int releaseYear);
+
+    // Summary rows of the given movies
+    @Query("select new com.filmsociety.moviedatabaseapi.projection.MovieSummary(m.id, m.title, m.releaseYear, m.duration) "
+            + "from Movie m where m.id in :ids")
+    List<MovieSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Genre tuples (movie ID, genre ID, genre name) of the given movies
+    @Query("select m.id, g.id, g.name from Movie m join m.genres g where m.id in :movieIds order by g.id")
+    List<Object[]> findGenreTuples(@Param("movieIds") Collection<Long> movieIds);
+
+    // Actor tuples (movie ID, actor ID, actor name, birth date) of the given movies
+    @Query("select m.id, a.id, a.name, a.birthDate from Movie m join m.actors a where m.id in :movieIds order by a.id")
+    List<Object[]> findActorTuples(@Param("movieIds") Collection<Long> movieIds);
+
+    // Full-text title search through the movie_fts index, best ranked matches first
+    @Query(value = "SELECT m.* FROM movie_fts JOIN movie m ON m.id = movie_fts.rowid "
+            + "WHERE movie_fts MATCH :query ORDER BY movie_fts.rank LIMIT :limit", nativeQuery = true)
+    List<Movie> searchByTitle(@Param("query") String query, @Param("limit") int limit);
+
+    // Version of a movie without loading it, for conditional GETs
+    @Query("select m.version from Movie m where m.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // IDs of the movies linked to a genre or actor; read before their versions are bumped, to log them as updated
+    @Query("select m.id from Movie m join m.genres g where g.id = :genreId")
+    List<Long> findIdsByGenreId(@Param("genreId") Long genreId);
+
+    @Query("select m.id from Movie m join m.actors a where a.id = :actorId")
+    List<Long> findIdsByActorId(@Param("actorId") Long actorId);
+
+    // Bump the version of every movie linked to a genre or actor, whose embedded copy is about to change
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE movie SET version = version + 1 "
+            + "WHERE id IN (SELECT movie_id FROM movie_genre WHERE genre_id = :genreId)", nativeQuery = true)
+    int incrementVersionsByGenreId(@Param("genreId") Long genreId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE movie SET version = version + 1 "
+            + "WHERE id IN (SELECT movie_id FROM movie_actor WHERE actor_id = :actorId)", nativeQuery = true)
+    int incrementVersionsByActorId(@Param("actorId") Long actorId);
+
+    // IDs of the actors in a movie, without loading the movie or the actors
+    @Query("select a.id from Movie m join m.actors a where m.id = :movieId")
+    List<Long> findActorIdsByMovieId(@Param("movieId") Long movieId);
+
+    // Link or unlink some actors of a movie, writing only those join rows. Callers bump the version themselves.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT OR IGNORE INTO movie_actor (movie_id, actor_id) "
+            + "SELECT :movieId, id FROM actor WHERE id IN :actorIds", nativeQuery = true)
+    int insertActorLinks(@Param("movieId") Long movieId, @Param("actorIds") Collection<Long> actorIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM movie_actor WHERE movie_id = :movieId AND actor_id IN :actorIds", nativeQuery = true)
+    int deleteActorLinks(@Param("movieId") Long movieId, @Param("actorIds") Collection<Long> actorIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE movie SET version = version + 1 WHERE id = :id", nativeQuery = true)
+    int incrementVersion(@Param("id") Long id);
+
+    // Whether any movie links to the genre or actor; a single index probe on the join table
+    boolean existsByGenres_Id(Long genreId);
+    boolean existsByActors_Id(Long actorId);
+
+    // Drop every movie link of a genre or actor in one statement, without loading the movies.
+    // The persistence context is flushed before and cleared after, so no stale collections survive.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM movie_genre WHERE genre_id = :genreId", nativeQuery = true)
+    int deleteGenreLinks(@Param("genreId") Long genreId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM movie_actor WHERE actor_id = :actorId", nativeQuery = true)
+    int deleteActorLinks(@Param("actorId") Long actorId);
 
     // Method to find movies by actor ID without pagination
+    @EntityGraph(attributePaths = {"genres", "actors"})
     List<Movie> findByActors_Id(Long actorId);
 
-    // Method to find movies by actor ID with pagination
-    Page<Movie> findByActors_Id(Long actorId, Pageable pageable);
+    // Method to find movies by actor ID with pagination (no count query, collections batch-fetched)
+    List<Movie> findByActors_Id(Long actorId, Pageable pageable);
+
+    // Keyset pagination: seek past the last seen ID instead of skipping rows with OFFSET
+    List<Movie> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Keyset pagination ordered by (releaseYear, id); the leading range keeps the seek on release_year
+    @Query("select m from Movie m where m.releaseYear >= :releaseYear "
+            + "and (m.releaseYear > :releaseYear or m.id > :id) order by m.releaseYear, m.id")
+    List<Movie> findAfterReleaseYearAndId(@Param("releaseYear") int releaseYear, @Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,26 @@
+package com.filmsociety.moviedatabaseapi.search;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+// Builds SQLite FTS5 MATCH expressions from free-text user input
+public final class FullTextQuery {
+
+    private FullTextQuery() {} // Utility class, no instances
+
+    // Turn "matri reload" into "matri"* "reload"*: every token must match, each as a prefix.
+    // Tokens are split like the unicode61 tokenizer does, so user input can never inject FTS5 syntax.
+    // Returns null when the input contains no searchable token.
+    public static String prefixMatch(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringJoiner expression = new StringJoiner(" ");
+        for (String token : input.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                expression.add("\"" + token + "\"*");
+            }
+        }
+        return expression.length() == 0 ? null : expression.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.filmsociety.moviedatabaseapi.search;
+
+import java.util.List;
+import java.util.Objects;
+
+// Criteria of the combined movie filter. A movie matches when it has every listed genre and every listed actor
+// and its release year and duration lie within the bounds; null bounds are open.
+public record MovieFilter(List<Long> genreIds, List<Long> actorIds, Integer yearFrom, Integer yearTo,
+                          Integer minDuration, Integer maxDuration) {
+
+    public static final int MAX_IDS = 100; // Per list, to bound the work of one request
+
+    public MovieFilter {
+        genreIds = genreIds == null ? List.of() : genreIds.stream().filter(Objects::nonNull).distinct().toList();
+        actorIds = actorIds == null ? List.of() : actorIds.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    // Describes what makes the criteria unusable, or returns null when they are fine
+    public String problem() {
+        if (genreIds.size() > MAX_IDS || actorIds.size() > MAX_IDS) {
+            return "Give at most " + MAX_IDS + " genre and " + MAX_IDS + " actor IDs.";
+        }
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo) {
+            return "yearFrom must not be after yearTo.";
+        }
+        if (minDuration != null && maxDuration != null && minDuration > maxDuration) {
+            return "minDuration must not exceed maxDuration.";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,275 @@
+package com.filmsociety.moviedatabaseapi.search;
+
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Bitmaps of movie IDs per genre, release year and duration behind the combined filter, whether the rows then come
+// from the database or the catalogue read model, so a filtered page intersects a few compressed bitmaps instead of
+// running one subquery per criterion. Actors have too few movies each to be worth keeping; theirs are read per
+// query from the link index. The bitmaps are built at startup and follow committed movie changes from
+// CatalogChangeEvents. Each change publishes a new immutable State that shares the bitmaps of unchanged keys, so
+// queries never take a lock. IDs must fit in an int, as for the co-star index.
+@Component
+public class MovieFilterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieFilterIndex.class);
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap(); // Shared, never modified
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Reads the movies and genre links for builds and changed movies
+
+    private volatile State state; // Null until built
+
+    // A set of movies with how many of them have each genre and each release year; keys without any are left out
+    public record Counts(RoaringBitmap movies, Map<Integer, Integer> byGenre, NavigableMap<Integer, Integer> byYear) {
+    }
+
+    // Built before the application takes requests, so no request runs the build while holding the monitor that the
+    // commits of writers wait on
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        state();
+    }
+
+    // IDs of the movies matching every criterion of the filter that come after the given ID, ascending, at most limit
+    public List<Long> matchingIds(MovieFilter filter, long afterId, int limit) {
+        RoaringBitmap matches = matches(state(), filter);
+        List<Long> ids = new ArrayList<>();
+        if (afterId < Integer.MAX_VALUE) {
+            PeekableIntIterator candidates = matches.getIntIterator();
+            candidates.advanceIfNeeded((int) Math.max(afterId + 1, 0));
+            while (candidates.hasNext() && ids.size() < limit) {
+                ids.add((long) candidates.next());
+            }
+        }
+        return ids;
+    }
+
+    // The movies matching the filter with their counts per genre and release year
+    public Counts countFilter(MovieFilter filter) {
+        State current = state();
+        return current.count(matches(current, filter));
+    }
+
+    // The given movies that exist with their counts per genre and release year, e.g. every match of a title search
+    public Counts countMovies(Collection<Long> movieIds) {
+        RoaringBitmap movies = new RoaringBitmap();
+        movieIds.forEach(id -> {
+            if (key(id) >= 0) {
+                movies.add(key(id));
+            }
+        });
+        State current = state();
+        return current.count(RoaringBitmap.and(movies, current.all));
+    }
+
+    // Every movie matching every criterion of the filter; the bitmaps of the criteria are intersected smallest first
+    private RoaringBitmap matches(State current, MovieFilter filter) {
+        List<RoaringBitmap> sets = new ArrayList<>();
+        for (Long genreId : filter.genreIds()) {
+            sets.add(current.genres.getOrDefault(key(genreId), EMPTY));
+        }
+        for (Long actorId : filter.actorIds()) {
+            sets.add(moviesOfActor(actorId));
+        }
+        if (filter.yearFrom() != null || filter.yearTo() != null) {
+            sets.add(range(current.years, filter.yearFrom(), filter.yearTo()));
+        }
+        if (filter.minDuration() != null || filter.maxDuration() != null) {
+            sets.add(range(current.durations, filter.minDuration(), filter.maxDuration()));
+        }
+        if (sets.isEmpty()) {
+            sets.add(current.all);
+        }
+        sets.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        RoaringBitmap matches = sets.get(0);
+        for (int s = 1; s < sets.size() && !matches.isEmpty(); s++) {
+            matches = RoaringBitmap.and(matches, sets.get(s)); // Never larger than the smallest set
+        }
+        return matches;
+    }
+
+    // Follow the committed catalogue. Changes before the build are ignored, since the build reads them anyway;
+    // synchronized with the build so that no change slips in between its queries and its publication.
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        State current = state;
+        if (current == null) {
+            return;
+        }
+        if (event.change() == CatalogChangeEvent.Change.RELOADED) {
+            state = load();
+        } else if (event.entity() == CatalogChangeEvent.Entity.MOVIE) {
+            state = current.withMovies(event.ids(), loadMovies(event.ids())); // Deleted movies come back with no row
+        } else if (event.concerns(CatalogChangeEvent.Entity.GENRE, CatalogChangeEvent.Change.DELETED)) {
+            state = current.withoutGenres(event.ids()); // A forced delete drops the links along with the genre
+        }
+    }
+
+    private State state() {
+        State current = state;
+        if (current == null) {
+            synchronized (this) {
+                if (state == null) {
+                    state = load();
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+
+    private State load() {
+        long start = System.nanoTime();
+        Map<Integer, RoaringBitmap> genres = new HashMap<>();
+        NavigableMap<Integer, RoaringBitmap> years = new TreeMap<>();
+        NavigableMap<Integer, RoaringBitmap> durations = new TreeMap<>();
+        RoaringBitmap all = new RoaringBitmap();
+        jdbcTemplate.query("SELECT id, release_year, duration FROM movie", (RowCallbackHandler) rs -> {
+            int id = Math.toIntExact(rs.getLong(1));
+            all.add(id);
+            years.computeIfAbsent(rs.getInt(2), year -> new RoaringBitmap()).add(id);
+            durations.computeIfAbsent(rs.getInt(3), duration -> new RoaringBitmap()).add(id);
+        });
+        jdbcTemplate.query("SELECT movie_id, genre_id FROM movie_genre", (RowCallbackHandler) rs ->
+                genres.computeIfAbsent(Math.toIntExact(rs.getLong(2)), genre -> new RoaringBitmap())
+                        .add(Math.toIntExact(rs.getLong(1))));
+        List.of(genres, years, durations).forEach(bitmaps -> bitmaps.values().forEach(RoaringBitmap::runOptimize));
+        all.runOptimize();
+        State built = new State(all, genres, years, durations);
+        logger.info("Built the movie filter index over {} movies in {} ms", all.getCardinality(),
+                (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    // Current year, duration and genres of each movie that still exists
+    private Map<Integer, Row> loadMovies(Collection<Long> movieIds) {
+        Map<Integer, Row> movies = new HashMap<>();
+        for (List<Long> chunk : InClause.chunks(movieIds)) {
+            String placeholders = InClause.placeholders(chunk);
+            jdbcTemplate.query("SELECT id, release_year, duration FROM movie WHERE id IN (" + placeholders + ")",
+                    (RowCallbackHandler) rs -> movies.put(Math.toIntExact(rs.getLong(1)),
+                            new Row(rs.getInt(2), rs.getInt(3), new ArrayList<>())),
+                    chunk.toArray());
+            jdbcTemplate.query("SELECT movie_id, genre_id FROM movie_genre WHERE movie_id IN (" + placeholders + ")",
+                    (RowCallbackHandler) rs -> {
+                        Row movie = movies.get(Math.toIntExact(rs.getLong(1)));
+                        if (movie != null) { // Links of a movie deleted in between have nothing to join
+                            movie.genreIds().add(Math.toIntExact(rs.getLong(2)));
+                        }
+                    },
+                    chunk.toArray());
+        }
+        return movies;
+    }
+
+    private RoaringBitmap moviesOfActor(long actorId) {
+        RoaringBitmap movies = new RoaringBitmap();
+        jdbcTemplate.query("SELECT movie_id FROM movie_actor WHERE actor_id = ?",
+                (RowCallbackHandler) rs -> movies.add(Math.toIntExact(rs.getLong(1))), actorId);
+        return movies;
+    }
+
+    // Movies with any key in [from, to]; null bounds are open
+    private static RoaringBitmap range(NavigableMap<Integer, RoaringBitmap> bitmaps, Integer from, Integer to) {
+        int low = from != null ? from : Integer.MIN_VALUE;
+        int high = to != null ? to : Integer.MAX_VALUE;
+        Collection<RoaringBitmap> inRange = bitmaps.subMap(low, true, high, true).values();
+        return inRange.isEmpty() ? EMPTY : FastAggregation.or(inRange.iterator());
+    }
+
+    // IDs are indexed as ints; any other ID cannot exist
+    private static int key(long id) {
+        return id >= 0 && id <= Integer.MAX_VALUE ? (int) id : -1;
+    }
+
+    private record Row(int releaseYear, int duration, List<Integer> genreIds) {
+    }
+
+    // Never modified once published; an update copies the maps and only the bitmaps of keys that changed
+    private record State(RoaringBitmap all, Map<Integer, RoaringBitmap> genres,
+                         NavigableMap<Integer, RoaringBitmap> years, NavigableMap<Integer, RoaringBitmap> durations) {
+
+        // This state with the changed movies removed and those in rows added back with their current keys
+        State withMovies(Collection<Long> changedIds, Map<Integer, Row> rows) {
+            RoaringBitmap changed = new RoaringBitmap();
+            changedIds.forEach(id -> changed.add(Math.toIntExact(id)));
+            Map<Integer, RoaringBitmap> newGenres = without(new HashMap<>(genres), changed);
+            NavigableMap<Integer, RoaringBitmap> newYears = without(new TreeMap<>(years), changed);
+            NavigableMap<Integer, RoaringBitmap> newDurations = without(new TreeMap<>(durations), changed);
+            RoaringBitmap added = new RoaringBitmap();
+            Map<Integer, RoaringBitmap> addedGenres = new HashMap<>();
+            Map<Integer, RoaringBitmap> addedYears = new HashMap<>();
+            Map<Integer, RoaringBitmap> addedDurations = new HashMap<>();
+            rows.forEach((id, movie) -> {
+                added.add(id);
+                addedYears.computeIfAbsent(movie.releaseYear(), year -> new RoaringBitmap()).add(id);
+                addedDurations.computeIfAbsent(movie.duration(), duration -> new RoaringBitmap()).add(id);
+                movie.genreIds().forEach(genre -> addedGenres.computeIfAbsent(genre, g -> new RoaringBitmap()).add(id));
+            });
+            merge(newGenres, addedGenres);
+            merge(newYears, addedYears);
+            merge(newDurations, addedDurations);
+            return new State(RoaringBitmap.or(RoaringBitmap.andNot(all, changed), added),
+                    newGenres, newYears, newDurations);
+        }
+
+        // Cardinalities of the movies' intersections with the genre and year bitmaps
+        Counts count(RoaringBitmap movies) {
+            Map<Integer, Integer> byGenre = new HashMap<>();
+            NavigableMap<Integer, Integer> byYear = new TreeMap<>();
+            if (!movies.isEmpty()) {
+                genres.forEach((genre, bitmap) -> addCount(byGenre, genre, RoaringBitmap.andCardinality(bitmap, movies)));
+                years.forEach((year, bitmap) -> addCount(byYear, year, RoaringBitmap.andCardinality(bitmap, movies)));
+            }
+            return new Counts(movies, byGenre, byYear);
+        }
+
+        State withoutGenres(Collection<Long> genreIds) {
+            Map<Integer, RoaringBitmap> newGenres = new HashMap<>(genres);
+            genreIds.forEach(id -> newGenres.remove(key(id)));
+            return new State(all, newGenres, years, durations);
+        }
+
+        // The bitmaps with the movies taken out, as new bitmaps where any were in; empty ones are dropped
+        private static <M extends Map<Integer, RoaringBitmap>> M without(M bitmaps, RoaringBitmap movies) {
+            bitmaps.replaceAll((key, bitmap) ->
+                    RoaringBitmap.intersects(bitmap, movies) ? RoaringBitmap.andNot(bitmap, movies) : bitmap);
+            bitmaps.values().removeIf(RoaringBitmap::isEmpty);
+            return bitmaps;
+        }
+
+        private static void addCount(Map<Integer, Integer> counts, int key, int count) {
+            if (count > 0) {
+                counts.put(key, count);
+            }
+        }
+
+        // Adds the new bitmaps of keys without one and new unions for the others
+        private static void merge(Map<Integer, RoaringBitmap> bitmaps, Map<Integer, RoaringBitmap> added) {
+            added.forEach((key, movies) -> bitmaps.merge(key, movies, (old, more) -> RoaringBitmap.or(old, more)));
+        }
+    }
+}
@@ -1,21 +1,35 @@
 package com.filmsociety.moviedatabaseapi.service;
 
+import com.filmsociety.moviedatabaseapi.config.CacheConfig;
 import com.filmsociety.moviedatabaseapi.entity.Actor;
-import com.filmsociety.moviedatabaseapi.entity.Movie;
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.exception.DuplicateNameException;
 import com.filmsociety.moviedatabaseapi.exception.NotFoundException;
 import com.filmsociety.moviedatabaseapi.exception.RelationshipExistsException;
+import com.filmsociety.moviedatabaseapi.pagination.Cursor;
+import com.filmsociety.moviedatabaseapi.pagination.KeysetPage;
+import com.filmsociety.moviedatabaseapi.projection.BatchResult;
 import com.filmsociety.moviedatabaseapi.repository.ActorRepository;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
 import com.filmsociety.moviedatabaseapi.repository.MovieRepository;
+import com.filmsociety.moviedatabaseapi.search.FullTextQuery;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 @Service // Marks this class as a service layer component
+@Timed("service.invocations") // Latency per method, tagged with class and method
+@Transactional(readOnly = true) // Reads run in read-only transactions; write methods override this
 public class ActorService {
 
     @Autowired
@@ -24,6 +38,9 @@ public class ActorService {
     @Autowired
     private MovieRepository movieRepository; // Repository for Movie entity
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Tells the in-memory indexes about committed changes
+
     // Get all actors
     public List<Actor> getAllActors() {
         return actorRepository.findAll(); // Fetch all actors from the database
@@ -35,40 +52,103 @@ public class ActorService {
         return actorRepository.findAll(pageable); // Paginate actors
     }
 
-    // Search actors by name (case-insensitive)
-    public List<Actor> getActorsByName(String name) {
-        return actorRepository.findByNameContainingIgnoreCase(name); // Search for actors
+    // Get the page of actors that follows the given cursor, ordered by ID
+    public KeysetPage<Actor> getActorsAfter(String after, int size) {
+        long[] key = Cursor.decode(after, 1);
+        Pageable limit = PageRequest.of(0, size + 1); // One extra row tells whether another page follows
+        List<Actor> actors = actorRepository.findByIdGreaterThanOrderByIdAsc(key == null ? 0 : key[0], limit);
+        return KeysetPage.of(actors, size, actor -> Cursor.encode(actor.getId()));
+    }
+
+    // Search actors by name (token prefix match, best ranked first)
+    public List<Actor> getActorsByName(String name, int limit) {
+        String query = FullTextQuery.prefixMatch(name); // Build the FTS5 match expression
+        if (query == null) {
+            return List.of(); // Nothing searchable in the input
+        }
+        return actorRepository.searchByName(query, limit); // Search the full-text index
     }
 
-    // Get a single actor by their ID
+    // Get many actors by ID with one query per chunk of IDs, in request order
+    public BatchResult<Actor> getActorsByIds(List<Long> ids) {
+        List<Actor> actors = new ArrayList<>(ids.size());
+        for (List<Long> chunk : InClause.chunks(ids)) {
+            actors.addAll(actorRepository.findAllById(chunk));
+        }
+        return BatchResult.of(ids, actors, Actor::getId);
+    }
+
+    // Get a single actor by their ID (cached; the returned instance is shared and must not be modified)
+    @Cacheable(cacheNames = CacheConfig.ACTORS, key = "#id")
     public Actor getActorById(Long id) {
         return actorRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Actor not found with id: " + id)); // Handle not found
     }
 
+    // Get an actor straight from the database so it can be modified and passed to updateActor
+    public Actor getActorForUpdate(Long id) {
+        return actorRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Actor not found with id: " + id)); // Handle not found
+    }
+
     // Create a new actor
+    @Transactional
     public Actor createActor(Actor actor) {
-        return actorRepository.save(actor); // Save new actor to the database
+        if (actorRepository.existsByName(actor.getName())) {
+            throw new DuplicateNameException("An actor named " + actor.getName() + " already exists."); // Names are unique
+        }
+        Actor createdActor = actorRepository.save(actor); // Save new actor to the database
+        eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.ACTOR,
+                CatalogChangeEvent.Change.CREATED, createdActor.getId()));
+        return createdActor;
+    }
+
+    // Update an existing actor
+    @CacheEvict(cacheNames = CacheConfig.ACTORS, key = "#actor.id")
+    @Transactional
+    public Actor updateActor(Actor actor) {
+        if (actorRepository.existsByNameAndIdNot(actor.getName(), actor.getId())) {
+            throw new DuplicateNameException("An actor named " + actor.getName() + " already exists."); // Names are unique
+        }
+        Actor updatedActor = actorRepository.save(actor); // Save updated actor
+        List<Long> movieIds = movieRepository.findIdsByActorId(actor.getId());
+        movieRepository.incrementVersionsByActorId(actor.getId()); // Movies embed the actor, so their ETags change too
+        eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.ACTOR,
+                CatalogChangeEvent.Change.UPDATED, actor.getId()));
+        publishMoviesUpdated(movieIds);
+        return updatedActor;
     }
 
     // Delete an actor with an optional 'force' flag
+    @CacheEvict(cacheNames = CacheConfig.ACTORS, key = "#id")
+    @Transactional
     public void deleteActor(Long id, boolean force) {
-        Actor actor = getActorById(id); // Fetch actor by ID
-        Set<Movie> movies = actor.getMovies(); // Get movies associated with the actor
+        if (!actorRepository.existsById(id)) {
+            throw new NotFoundException("Actor not found with id: " + id); // Handle not found
+        }
 
+        List<Long> movieIds = List.of();
         if (force) {
-            // Detach actor from movies if force deletion is requested
-            for (Movie movie : movies) {
-                movie.getActors().remove(actor); // Remove actor from each movie
-                movieRepository.save(movie); // Persist the change in each movie
-            }
-            actorRepository.delete(actor); // Delete the actor
-        } else {
+            movieIds = movieRepository.findIdsByActorId(id);
+            movieRepository.incrementVersionsByActorId(id); // The linked movies lose this actor
+            movieRepository.deleteActorLinks(id); // Drop all movie links in one statement
+        } else if (movieRepository.existsByActors_Id(id)) {
             // Prevent deletion if actor is still in use
-            if (!movies.isEmpty()) {
-                throw new RelationshipExistsException("Cannot delete actor. They are still associated with movies."); // Handle relationship exists
-            }
-            actorRepository.delete(actor); // Delete actor if not associated with any movie
+            throw new RelationshipExistsException("Cannot delete actor. They are still associated with movies."); // Handle relationship exists
+        }
+
+        actorRepository.deleteById(id); // Delete the actor
+        eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.ACTOR,
+                CatalogChangeEvent.Change.DELETED, id));
+        publishMoviesUpdated(movieIds);
+    }
+
+    // Movies embed their actors, so a change to one bumps their versions; the change log names them too, so that
+    // followers of the log re-read them just as clients holding their ETags do
+    private void publishMoviesUpdated(List<Long> movieIds) {
+        if (!movieIds.isEmpty()) {
+            eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.MOVIE,
+                    CatalogChangeEvent.Change.UPDATED, movieIds));
         }
     }
 }
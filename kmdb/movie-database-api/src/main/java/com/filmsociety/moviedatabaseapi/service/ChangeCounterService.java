@@ -0,0 +1,38 @@
+package com.filmsociety.moviedatabaseapi.service;
+
+import com.filmsociety.moviedatabaseapi.readmodel.CatalogReadModel;
+import com.filmsociety.moviedatabaseapi.readmodel.CatalogSnapshot;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Reads the per-resource change counters that database triggers bump on every write (see the V3 migration).
+// A counter identifies the state of all list pages of its resource, so it serves as their ETag.
+// While the read model answers reads, its counters are used instead: they may trail the database for the moment
+// a change takes to apply, and must, since an ETag must never claim a change its body does not show yet.
+@Service
+@Timed("service.invocations")
+@Transactional(readOnly = true)
+public class ChangeCounterService {
+
+    public static final String MOVIES = "movie"; // Movies and everything embedded in them
+    public static final String ACTORS = "actor";
+    public static final String GENRES = "genre";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    // Current value of a counter; a single primary key lookup, or none while the read model answers reads
+    public long current(String name) {
+        CatalogSnapshot catalog = catalogReadModel.current();
+        if (catalog != null) {
+            return catalog.revision(name);
+        }
+        return jdbcTemplate.queryForObject("SELECT value FROM change_counter WHERE name = ?", Long.class, name);
+    }
+}
@@ -0,0 +1,72 @@
+package com.filmsociety.moviedatabaseapi.service;
+
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.projection.ChangeLogEntry;
+import com.filmsociety.moviedatabaseapi.projection.ChangePage;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// The change log (see the V5 migration): one row per created, updated or deleted movie, actor or genre, so that
+// downstream caches and indexes apply only what changed since their last sequence number instead of re-reading
+// lists. Renaming or force-deleting an actor or genre bumps the versions of the movies that embed it, so those
+// movies are logged as updated in the same transaction, and the log agrees with their ETags.
+@Service
+@Timed("service.invocations")
+@Transactional(readOnly = true)
+public class ChangeLogService {
+
+    public static final int MAX_LIMIT = 1000; // Changes per page
+
+    private static final RowMapper<ChangeLogEntry> ENTRY = (rs, row) -> new ChangeLogEntry(
+            rs.getLong("seq"),
+            rs.getString("entity") != null ? CatalogChangeEvent.Entity.valueOf(rs.getString("entity")) : null,
+            rs.getObject("entity_id", Long.class),
+            CatalogChangeEvent.Change.valueOf(rs.getString("change")),
+            Instant.ofEpochMilli(rs.getLong("changed_at")));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The services publish their events inside the writing transaction, so the log rows commit or roll back with
+    // the change they describe. Not called outside a transaction, where a log row could outlive a failed change.
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(CatalogChangeEvent event) {
+        String entity = event.entity() != null ? event.entity().name() : null;
+        String change = event.change().name();
+        long now = System.currentTimeMillis();
+        String sql = "INSERT INTO change_log (entity, entity_id, change, changed_at) VALUES (?, ?, ?, ?)";
+        if (event.ids().isEmpty()) {
+            jdbcTemplate.update(sql, entity, null, change, now); // A reload names no entity
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, event.ids(), 500, (statement, id) -> {
+            statement.setString(1, entity);
+            statement.setLong(2, id);
+            statement.setString(3, change);
+            statement.setLong(4, now);
+        });
+    }
+
+    // Up to limit changes after since, oldest first; since 0 reads the log from the start
+    public ChangePage getChangesSince(long since, int limit) {
+        List<ChangeLogEntry> changes = jdbcTemplate.query(
+                "SELECT seq, entity, entity_id, change, changed_at FROM change_log WHERE seq > ? ORDER BY seq LIMIT ?",
+                ENTRY, since, limit + 1); // One extra row tells whether there is more
+        boolean more = changes.size() > limit;
+        if (more) {
+            changes = changes.subList(0, limit);
+        }
+        long lastSeq = changes.isEmpty() ? since : changes.get(changes.size() - 1).seq();
+        return new ChangePage(changes, lastSeq, more);
+    }
+}
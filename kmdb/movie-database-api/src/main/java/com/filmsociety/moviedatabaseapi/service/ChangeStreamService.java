@@ -0,0 +1,137 @@
+package com.filmsociety.moviedatabaseapi.service;
+
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.projection.ChangeLogEntry;
+import com.filmsociety.moviedatabaseapi.projection.ChangePage;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Server-sent event streams of the change log. Each subscriber gets a thread that reads the log from its own
+// position, one batch at a time, and reads the next batch only after the previous one was written to the client.
+// A slow client thereby slows its own reads instead of making the server buffer changes for it, and however far it
+// falls behind it catches up from the log. Idle streams sleep until the next commit and send a heartbeat comment
+// now and then, which also detects clients that went away.
+@Service
+@Timed("service.invocations")
+public class ChangeStreamService {
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Value("${changes.stream.batch-size:500}")
+    private int batchSize;
+
+    @Value("${changes.stream.heartbeat:15s}")
+    private Duration heartbeat;
+
+    private final Semaphore subscribers; // Open streams, each holding a thread
+
+    private final ExecutorService streams;
+
+    private final Object commits = new Object(); // Monitor the streams wait on
+    private long commitCount; // Guarded by commits
+
+    public ChangeStreamService(@Value("${changes.stream.max-subscribers:64}") int maxSubscribers) {
+        this.subscribers = new Semaphore(maxSubscribers);
+        AtomicInteger threads = new AtomicInteger();
+        this.streams = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "change-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // A stream of the changes after since, or empty when all subscriber slots are taken
+    public Optional<SseEmitter> subscribe(long since) {
+        if (!subscribers.tryAcquire()) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(); // No timeout beyond spring.mvc.async.request-timeout
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        try {
+            streams.execute(() -> stream(emitter, since, open));
+        } catch (RuntimeException e) {
+            subscribers.release(); // Shutting down
+            throw e;
+        }
+        return Optional.of(emitter);
+    }
+
+    // Wakes the waiting streams once a change is visible to their reads
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        synchronized (commits) {
+            commitCount++;
+            commits.notifyAll();
+        }
+    }
+
+    private void stream(SseEmitter emitter, long since, AtomicBoolean open) {
+        long position = since;
+        try {
+            while (open.get()) {
+                long seen = commitCount(); // Taken before reading, so a commit during the read is not slept through
+                ChangePage page = changeLogService.getChangesSince(position, batchSize);
+                for (ChangeLogEntry entry : page.changes()) {
+                    emitter.send(SseEmitter.event().id(Long.toString(entry.seq())).name("change").data(entry));
+                }
+                position = page.lastSeq();
+                if (!page.more() && !awaitCommitAfter(seen)) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+            emitter.complete();
+        } catch (IOException | RuntimeException e) {
+            emitter.completeWithError(e); // The client went away, the emitter was closed or the read failed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete(); // Shutting down; the client reconnects with Last-Event-ID
+        } finally {
+            subscribers.release();
+        }
+    }
+
+    private long commitCount() {
+        synchronized (commits) {
+            return commitCount;
+        }
+    }
+
+    // True once a commit happened after seen, false when the heartbeat interval passed without one
+    private boolean awaitCommitAfter(long seen) throws InterruptedException {
+        long deadline = System.nanoTime() + heartbeat.toNanos();
+        synchronized (commits) {
+            while (commitCount == seen) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                commits.wait(Math.max(TimeUnit.NANOSECONDS.toMillis(remaining), 1));
+            }
+            return true;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        streams.shutdownNow(); // Interrupts the waiting streams
+    }
+}
@@ -0,0 +1,82 @@
+package com.filmsociety.moviedatabaseapi.service;
+
+import com.filmsociety.moviedatabaseapi.entity.Actor;
+import com.filmsociety.moviedatabaseapi.entity.Movie;
+import com.filmsociety.moviedatabaseapi.exception.NotFoundException;
+import com.filmsociety.moviedatabaseapi.graph.CoStarIndex;
+import com.filmsociety.moviedatabaseapi.projection.ActorPath;
+import com.filmsociety.moviedatabaseapi.projection.ActorSummary;
+import com.filmsociety.moviedatabaseapi.projection.CoStar;
+import com.filmsociety.moviedatabaseapi.projection.MovieTitle;
+import com.filmsociety.moviedatabaseapi.repository.ActorRepository;
+import com.filmsociety.moviedatabaseapi.repository.MovieRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Co-star queries: the traversal runs on the in-memory CoStarIndex, the database only supplies names and titles
+@Service
+@Timed("service.invocations")
+@Transactional(readOnly = true)
+public class CoStarService {
+
+    @Autowired
+    private CoStarIndex coStarIndex; // Actor-movie graph
+
+    @Autowired
+    private ActorRepository actorRepository; // Repository for Actor entity
+
+    @Autowired
+    private MovieRepository movieRepository; // Repository for Movie entity
+
+    // Actors who appeared with the given one, most shared movies first
+    public List<CoStar> getCoStars(Long actorId, int limit) {
+        requireActor(actorId);
+        List<CoStarIndex.CoStarCount> counts = coStarIndex.coStars(actorId, limit);
+        Map<Long, Actor> actors = actorsById(counts.stream().map(CoStarIndex.CoStarCount::actorId).toList());
+        return counts.stream()
+                .filter(count -> actors.containsKey(count.actorId())) // Deleted before the index caught up
+                .map(count -> new CoStar(count.actorId(), actors.get(count.actorId()).getName(), count.sharedMovies()))
+                .toList();
+    }
+
+    // Shortest chain of shared movies between two actors
+    public ActorPath getPath(Long fromId, Long toId, int maxDegrees) {
+        requireActor(fromId);
+        requireActor(toId);
+        CoStarIndex.Path path = coStarIndex.shortestPath(fromId, toId, maxDegrees);
+        if (path == null) {
+            throw new NotFoundException("No path between actors " + fromId + " and " + toId
+                    + " within " + maxDegrees + " degrees");
+        }
+
+        Map<Long, Actor> actors = actorsById(path.actorIds());
+        Map<Long, Movie> movies = new HashMap<>();
+        movieRepository.findAllById(path.movieIds()).forEach(movie -> movies.put(movie.getId(), movie));
+        return new ActorPath(path.degrees(),
+                path.actorIds().stream().map(actors::get).filter(Objects::nonNull) // Deleted since the traversal
+                        .map(actor -> new ActorSummary(actor.getId(), actor.getName(), actor.getBirthDate()))
+                        .toList(),
+                path.movieIds().stream().map(movies::get).filter(Objects::nonNull)
+                        .map(movie -> new MovieTitle(movie.getId(), movie.getTitle()))
+                        .toList());
+    }
+
+    private void requireActor(Long id) {
+        if (!actorRepository.existsById(id)) {
+            throw new NotFoundException("Actor not found with id: " + id);
+        }
+    }
+
+    private Map<Long, Actor> actorsById(List<Long> ids) {
+        Map<Long, Actor> actors = new HashMap<>();
+        actorRepository.findAllById(ids).forEach(actor -> actors.put(actor.getId(), actor));
+        return actors;
+    }
+}
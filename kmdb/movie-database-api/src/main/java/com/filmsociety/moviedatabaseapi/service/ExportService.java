@@ -0,0 +1,172 @@
+package com.filmsociety.moviedatabaseapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Streams the whole catalogue as NDJSON straight from forward-only JDBC cursors.
+// Nothing is loaded into a persistence context, so heap use stays constant however large the export is.
+// Each export runs in one read-only transaction, so all of its cursors read the same snapshot
+// (and, with the prod datasource, come from the reader pool).
+@Service
+@Timed("service.invocations")
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int FETCH_SIZE = 1000; // Rows pulled from the driver per round trip
+
+    @Autowired
+    private DataSource dataSource; // Raw connections for the export cursors
+
+    @Autowired
+    private ObjectMapper objectMapper; // Supplies the JSON generator
+
+    // Write every movie with its genres and actors, one JSON object per line, ordered by ID.
+    // The movie cursor is merge-joined with two join-table cursors that are also ordered by movie ID.
+    @Transactional(readOnly = true)
+    public long exportMovies(OutputStream out) throws IOException, SQLException {
+        long count = 0;
+        Connection connection = DataSourceUtils.getConnection(dataSource); // Bound to the read-only transaction
+        try (ResultSet movies = cursor(connection,
+                     "SELECT id, title, release_year, duration FROM movie ORDER BY id");
+             ResultSet genres = cursor(connection,
+                     "SELECT mg.movie_id, g.id, g.name FROM movie_genre mg "
+                             + "JOIN genre g ON g.id = mg.genre_id ORDER BY mg.movie_id");
+             ResultSet actors = cursor(connection,
+                     "SELECT ma.movie_id, a.id, a.name, a.birth_date FROM movie_actor ma "
+                             + "JOIN actor a ON a.id = ma.actor_id ORDER BY ma.movie_id");
+             JsonGenerator json = ndjsonGenerator(out)) {
+
+            boolean genresLeft = genres.next();
+            boolean actorsLeft = actors.next();
+            while (movies.next()) {
+                long movieId = movies.getLong(1);
+                json.writeStartObject();
+                json.writeNumberField("id", movieId);
+                json.writeStringField("title", movies.getString(2));
+                json.writeNumberField("releaseYear", movies.getInt(3));
+                json.writeNumberField("duration", movies.getInt(4));
+
+                json.writeArrayFieldStart("genres");
+                while (genresLeft && genres.getLong(1) <= movieId) {
+                    if (genres.getLong(1) == movieId) { // Skip orphaned join rows of deleted movies
+                        json.writeStartObject();
+                        json.writeNumberField("id", genres.getLong(2));
+                        json.writeStringField("name", genres.getString(3));
+                        json.writeEndObject();
+                    }
+                    genresLeft = genres.next();
+                }
+                json.writeEndArray();
+
+                json.writeArrayFieldStart("actors");
+                while (actorsLeft && actors.getLong(1) <= movieId) {
+                    if (actors.getLong(1) == movieId) {
+                        json.writeStartObject();
+                        writeActorFields(json, actors.getLong(2), actors.getString(3), actors.getDate(4));
+                        json.writeEndObject();
+                    }
+                    actorsLeft = actors.next();
+                }
+                json.writeEndArray();
+
+                endLine(json);
+                count++;
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        logger.info("Exported {} movies", count);
+        return count;
+    }
+
+    // Write every actor, one JSON object per line, ordered by ID
+    @Transactional(readOnly = true)
+    public long exportActors(OutputStream out) throws IOException, SQLException {
+        long count = 0;
+        Connection connection = DataSourceUtils.getConnection(dataSource); // Bound to the read-only transaction
+        try (ResultSet actors = cursor(connection, "SELECT id, name, birth_date FROM actor ORDER BY id");
+             JsonGenerator json = ndjsonGenerator(out)) {
+            while (actors.next()) {
+                json.writeStartObject();
+                writeActorFields(json, actors.getLong(1), actors.getString(2), actors.getDate(3));
+                endLine(json);
+                count++;
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        logger.info("Exported {} actors", count);
+        return count;
+    }
+
+    // Write every genre, one JSON object per line, ordered by ID
+    @Transactional(readOnly = true)
+    public long exportGenres(OutputStream out) throws IOException, SQLException {
+        long count = 0;
+        Connection connection = DataSourceUtils.getConnection(dataSource); // Bound to the read-only transaction
+        try (ResultSet genres = cursor(connection, "SELECT id, name FROM genre ORDER BY id");
+             JsonGenerator json = ndjsonGenerator(out)) {
+            while (genres.next()) {
+                json.writeStartObject();
+                json.writeNumberField("id", genres.getLong(1));
+                json.writeStringField("name", genres.getString(2));
+                endLine(json);
+                count++;
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        logger.info("Exported {} genres", count);
+        return count;
+    }
+
+    // Same fields as the JSON of the Actor entity
+    private void writeActorFields(JsonGenerator json, long id, String name, Date birthDate) throws IOException {
+        json.writeNumberField("id", id);
+        json.writeStringField("name", name);
+        if (birthDate == null) {
+            json.writeNullField("birthDate");
+        } else {
+            json.writeStringField("birthDate", birthDate.toLocalDate().toString()); // ISO yyyy-MM-dd
+        }
+    }
+
+    // Forward-only, read-only cursor; closing the ResultSet also closes its statement
+    private ResultSet cursor(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(FETCH_SIZE);
+        statement.closeOnCompletion();
+        return statement.executeQuery();
+    }
+
+    // JSON generator for NDJSON: no separator between root values (endLine adds the newline), stream left open
+    private JsonGenerator ndjsonGenerator(OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return json;
+    }
+
+    // Terminate the current root object's line
+    private void endLine(JsonGenerator json) throws IOException {
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+}
@@ -0,0 +1,116 @@
+package com.filmsociety.moviedatabaseapi.service;
+
+import com.filmsociety.moviedatabaseapi.graph.CoStarIndex;
+import com.filmsociety.moviedatabaseapi.projection.ActorStats;
+import com.filmsociety.moviedatabaseapi.projection.DecadeStats;
+import com.filmsociety.moviedatabaseapi.projection.GenreStats;
+import com.filmsociety.moviedatabaseapi.projection.MovieFacets;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
+import com.filmsociety.moviedatabaseapi.search.MovieFilter;
+import com.filmsociety.moviedatabaseapi.search.MovieFilterIndex;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Facet counts for the filter and the title search, over every match rather than the page returned, whether the
+// rows come from the database or the catalogue read model. Genre and decade counts are cardinalities of the
+// matches' intersections with the bitmaps of MovieFilterIndex, and actor counts take one pass over the casts of
+// the matches in CoStarIndex, so only the names of the counted genres and listed actors are read from the database.
+// Not cached, since the criteria vary per request.
+@Service
+@Timed("service.invocations")
+@Transactional(readOnly = true)
+public class FacetService {
+
+    @Autowired
+    private MovieFilterIndex movieFilterIndex;
+
+    @Autowired
+    private CoStarIndex coStarIndex;
+
+    @Autowired
+    private MovieService movieService; // Finds the matches of a title search
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Facet counts over the movies matching a filter
+    public MovieFacets getFilterFacets(MovieFilter filter) {
+        return facets(movieFilterIndex.countFilter(filter));
+    }
+
+    // Facet counts over every movie whose title matches the search, not only the ranked results returned
+    public MovieFacets getSearchFacets(String title) {
+        return facets(movieFilterIndex.countMovies(movieService.searchMovieIdsByTitle(title)));
+    }
+
+    // Entries whose genre or actor was deleted after the counts were taken are left out
+    private MovieFacets facets(MovieFilterIndex.Counts counts) {
+        Map<Long, String> genreNames = names("genre", counts.byGenre().keySet());
+        List<GenreStats> genres = new ArrayList<>();
+        counts.byGenre().forEach((id, count) -> {
+            String name = genreNames.get((long) id);
+            if (name != null) {
+                genres.add(new GenreStats((long) id, name, count));
+            }
+        });
+        genres.sort(Comparator.comparingLong(GenreStats::movieCount).reversed().thenComparing(GenreStats::id));
+
+        List<DecadeStats> decades = new ArrayList<>();
+        counts.byYear().forEach((year, count) -> { // Years ascending, so each decade's years are adjacent
+            int decade = MovieFacets.decadeOf(year);
+            int last = decades.size() - 1;
+            if (last >= 0 && decades.get(last).decade() == decade) {
+                decades.set(last, new DecadeStats(decade, decades.get(last).movieCount() + count));
+            } else {
+                decades.add(new DecadeStats(decade, count));
+            }
+        });
+
+        int[] castCounts = coStarIndex.castCounts(counts.movies()); // Indexed by actor ID
+        Comparator<Integer> fewestFirst = Comparator.<Integer>comparingInt(a -> castCounts[a])
+                .thenComparing(Comparator.reverseOrder()); // Heap head is the actor to drop next
+        PriorityQueue<Integer> busiest = new PriorityQueue<>(fewestFirst);
+        for (int a = 0; a < castCounts.length; a++) {
+            if (castCounts[a] > 0) {
+                busiest.add(a);
+                if (busiest.size() > MovieFacets.ACTOR_LIMIT) {
+                    busiest.poll();
+                }
+            }
+        }
+        Map<Long, String> actorNames = names("actor", busiest);
+        List<ActorStats> actors = new ArrayList<>(busiest.size());
+        while (!busiest.isEmpty()) {
+            int a = busiest.poll();
+            String name = actorNames.get((long) a);
+            if (name != null) {
+                actors.add(new ActorStats((long) a, name, castCounts[a]));
+            }
+        }
+        Collections.reverse(actors); // Most movies first, then by ID
+        return new MovieFacets(counts.movies().getLongCardinality(), genres, decades, actors);
+    }
+
+    // Names of the rows of the genre or actor table with the given IDs
+    private Map<Long, String> names(String table, Collection<Integer> ids) {
+        Map<Long, String> names = new HashMap<>();
+        for (List<Integer> chunk : InClause.chunks(ids)) {
+            jdbcTemplate.query("SELECT id, name FROM " + table + " WHERE id IN (" + InClause.placeholders(chunk) + ")",
+                    (RowCallbackHandler) rs -> names.put(rs.getLong(1), rs.getString(2)), chunk.toArray());
+        }
+        return names;
+    }
+}
@@ -1,20 +1,34 @@
 package com.filmsociety.moviedatabaseapi.service;
 
+import com.filmsociety.moviedatabaseapi.config.CacheConfig;
 import com.filmsociety.moviedatabaseapi.entity.Genre;
-import com.filmsociety.moviedatabaseapi.entity.Movie;
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
 import com.filmsociety.moviedatabaseapi.exception.NotFoundException;
 import com.filmsociety.moviedatabaseapi.exception.RelationshipExistsException;
+import com.filmsociety.moviedatabaseapi.pagination.Cursor;
+import com.filmsociety.moviedatabaseapi.pagination.KeysetPage;
+import com.filmsociety.moviedatabaseapi.projection.BatchResult;
 import com.filmsociety.moviedatabaseapi.repository.GenreRepository;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
 import com.filmsociety.moviedatabaseapi.repository.MovieRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
+@Timed("service.invocations") // Latency per method, tagged with class and method
+@Transactional(readOnly = true) // Reads run in read-only transactions; write methods override this
 public class GenreService {
 
     @Autowired
@@ -23,56 +37,115 @@ public class GenreService {
     @Autowired
     private MovieRepository movieRepository; // Repository for Movie entity
 
-    // Fetch all genres
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Tells the in-memory indexes about committed changes
+
+    // Fetch all genres (cached until a genre is created, updated or deleted)
+    @Cacheable(cacheNames = CacheConfig.GENRE_LISTS, key = "'all'")
     public List<Genre> getAllGenres() {
         return genreRepository.findAll(); // Get all genres from the database
     }
 
-    // Get a genre by its ID
+    // Get many genres by ID with one query per chunk of IDs, in request order
+    public BatchResult<Genre> getGenresByIds(List<Long> ids) {
+        List<Genre> genres = new ArrayList<>(ids.size());
+        for (List<Long> chunk : InClause.chunks(ids)) {
+            genres.addAll(genreRepository.findAllById(chunk));
+        }
+        return BatchResult.of(ids, genres, Genre::getId);
+    }
+
+    // Get a genre by its ID (cached; the returned instance is shared and must not be modified)
+    @Cacheable(cacheNames = CacheConfig.GENRES, key = "#id")
     public Genre getGenreById(Long id) {
         return genreRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Genre not found with id: " + id)); // Handle not found
     }
 
+    // Get a genre straight from the database so it can be modified and passed to updateGenre
+    public Genre getGenreForUpdate(Long id) {
+        return genreRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Genre not found with id: " + id)); // Handle not found
+    }
+
     // Create a new genre
+    @CacheEvict(cacheNames = CacheConfig.GENRE_LISTS, allEntries = true)
+    @Transactional
     public Genre createGenre(Genre genre) {
-        return genreRepository.save(genre); // Save new genre to the database
+        Genre createdGenre = genreRepository.save(genre); // Save new genre to the database
+        eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.GENRE,
+                CatalogChangeEvent.Change.CREATED, createdGenre.getId()));
+        return createdGenre;
     }
 
     // Update an existing genre
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.GENRES, key = "#genre.id"),
+            @CacheEvict(cacheNames = CacheConfig.GENRE_LISTS, allEntries = true)
+    })
+    @Transactional
     public Genre updateGenre(Genre genre) {
         // Ensure that the genre exists
         if (!genreRepository.existsById(genre.getId())) {
             throw new NotFoundException("Genre not found with id: " + genre.getId()); // Handle not found
         }
-        return genreRepository.save(genre); // Save updated genre
+        Genre updatedGenre = genreRepository.save(genre); // Save updated genre
+        List<Long> movieIds = movieRepository.findIdsByGenreId(genre.getId());
+        movieRepository.incrementVersionsByGenreId(genre.getId()); // Movies embed the genre, so their ETags change too
+        eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.GENRE,
+                CatalogChangeEvent.Change.UPDATED, genre.getId()));
+        publishMoviesUpdated(movieIds);
+        return updatedGenre;
     }
 
     // Delete a genre with an optional 'force' flag
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.GENRES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.GENRE_LISTS, allEntries = true)
+    })
+    @Transactional
     public void deleteGenre(Long id, boolean force) {
-        Genre genre = getGenreById(id); // Fetch genre by ID
-
-        // Find movies associated with the genre
-        List<Movie> moviesWithGenre = movieRepository.findByGenres_Id(genre.getId());
-
-        if (!moviesWithGenre.isEmpty() && !force) {
-            throw new RelationshipExistsException("Cannot delete genre. It is associated with movies."); // Handle relationship exists
+        if (!genreRepository.existsById(id)) {
+            throw new NotFoundException("Genre not found with id: " + id); // Handle not found
         }
 
+        List<Long> movieIds = List.of();
         if (force) {
-            // Remove the association between the genre and the movies
-            for (Movie movie : moviesWithGenre) {
-                movie.getGenres().remove(genre); // Remove genre from each movie
-                movieRepository.save(movie); // Save the updated movie
-            }
+            movieIds = movieRepository.findIdsByGenreId(id);
+            movieRepository.incrementVersionsByGenreId(id); // The linked movies lose this genre
+            movieRepository.deleteGenreLinks(id); // Drop all movie links in one statement
+        } else if (movieRepository.existsByGenres_Id(id)) {
+            throw new RelationshipExistsException("Cannot delete genre. It is associated with movies."); // Handle relationship exists
         }
 
-        genreRepository.delete(genre); // Now delete the genre
+        genreRepository.deleteById(id); // Now delete the genre
+        eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.GENRE,
+                CatalogChangeEvent.Change.DELETED, id));
+        publishMoviesUpdated(movieIds);
     }
 
-    // Get paginated genres
+    // Get paginated genres (cached per page and size)
+    @Cacheable(cacheNames = CacheConfig.GENRE_LISTS, key = "'page:' + #page + ':' + #size")
     public Page<Genre> getPaginatedGenres(int page, int size) {
         Pageable pageable = PageRequest.of(page, size); // Create pageable object
         return genreRepository.findAll(pageable); // Fetch paginated genres
     }
+
+    // Get the page of genres that follows the given cursor, ordered by ID (cached per cursor and size)
+    @Cacheable(cacheNames = CacheConfig.GENRE_LISTS, key = "'after:' + #after + ':' + #size")
+    public KeysetPage<Genre> getGenresAfter(String after, int size) {
+        long[] key = Cursor.decode(after, 1);
+        Pageable limit = PageRequest.of(0, size + 1); // One extra row tells whether another page follows
+        List<Genre> genres = genreRepository.findByIdGreaterThanOrderByIdAsc(key == null ? 0 : key[0], limit);
+        return KeysetPage.of(genres, size, genre -> Cursor.encode(genre.getId()));
+    }
+
+    // Movies embed their genres, so a change to one bumps their versions; the change log names them too, so that
+    // followers of the log re-read them just as clients holding their ETags do
+    private void publishMoviesUpdated(List<Long> movieIds) {
+        if (!movieIds.isEmpty()) {
+            eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.MOVIE,
+                    CatalogChangeEvent.Change.UPDATED, movieIds));
+        }
+    }
 }
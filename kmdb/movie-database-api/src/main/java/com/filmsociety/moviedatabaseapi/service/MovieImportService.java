@@ -0,0 +1,187 @@
+package com.filmsociety.moviedatabaseapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.exception.InvalidDataException;
+import com.filmsociety.moviedatabaseapi.importer.ImportReport;
+import com.filmsociety.moviedatabaseapi.importer.MovieImportRow;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Streams NDJSON movie dumps into the database with batched JDBC inserts.
+// Bad rows are reported and skipped; they never abort the rest of the load.
+@Service
+@Timed("service.invocations")
+public class MovieImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieImportService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Plain JDBC for batched inserts
+
+    @Autowired
+    private PlatformTransactionManager transactionManager; // One transaction per batch
+
+    @Autowired
+    private ObjectMapper objectMapper; // Parses each NDJSON line
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Announces each committed batch to the in-memory indexes
+
+    @Value("${import.batch-size:5000}")
+    private int batchSize; // Rows written per transaction
+
+    // Read the upload line by line and write it in batches of batchSize rows
+    public ImportReport importMovies(InputStream ndjson) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        ReferenceSet genres = new ReferenceSet("genre");
+        ReferenceSet actors = new ReferenceSet("actor");
+        List<MovieImportRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String text;
+            long line = 0;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue; // Tolerate empty lines, e.g. a trailing newline
+                }
+                report.rowRead();
+                try {
+                    batch.add(MovieImportRow.parse(line, objectMapper.readTree(text)));
+                } catch (JsonProcessingException e) {
+                    report.rowFailed(line, "Malformed JSON: " + e.getOriginalMessage());
+                } catch (InvalidDataException e) {
+                    report.rowFailed(line, e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, genres, actors, report);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, genres, actors, report);
+        }
+
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        logger.info("Imported {} of {} movies in {} ms ({} rows/s)", report.getRowsImported(), report.getRowsRead(),
+                report.getElapsedMillis(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    // Resolve the batch's references in bulk, drop rows with unknown IDs and insert the rest in one transaction
+    private void writeBatch(List<MovieImportRow> batch, ReferenceSet genres, ReferenceSet actors, ImportReport report) {
+        genres.resolve(batch.stream().flatMap(row -> row.getGenreIds().stream()).toList());
+        actors.resolve(batch.stream().flatMap(row -> row.getActorIds().stream()).toList());
+
+        List<MovieImportRow> valid = new ArrayList<>(batch.size());
+        for (MovieImportRow row : batch) {
+            Long missingGenre = genres.firstMissing(row.getGenreIds());
+            Long missingActor = actors.firstMissing(row.getActorIds());
+            if (missingGenre != null) {
+                report.rowFailed(row.getLine(), "Genre not found with ID: " + missingGenre);
+            } else if (missingActor != null) {
+                report.rowFailed(row.getLine(), "Actor not found with ID: " + missingActor);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> insertRows(valid));
+            report.rowsImported(valid.size());
+        } catch (DataAccessException e) {
+            logger.error("Import batch starting at line {} failed", valid.get(0).getLine(), e);
+            for (MovieImportRow row : valid) {
+                report.rowFailed(row.getLine(), "Batch write failed: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    // Insert movies with IDs assigned up front so the join rows can be batched as well
+    private void insertRows(List<MovieImportRow> rows) {
+        long nextId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM movie", Long.class) + 1;
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<Object[]> movies = new ArrayList<>(rows.size());
+        List<Object[]> movieGenres = new ArrayList<>();
+        List<Object[]> movieActors = new ArrayList<>();
+        for (MovieImportRow row : rows) {
+            long movieId = nextId++;
+            ids.add(movieId);
+            movies.add(new Object[] {movieId, row.getTitle(), row.getReleaseYear(), row.getDuration()});
+            row.getGenreIds().forEach(genreId -> movieGenres.add(new Object[] {movieId, genreId}));
+            row.getActorIds().forEach(actorId -> movieActors.add(new Object[] {movieId, actorId}));
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO movie (id, title, release_year, duration) VALUES (?, ?, ?, ?)", movies);
+        jdbcTemplate.batchUpdate("INSERT INTO movie_genre (movie_id, genre_id) VALUES (?, ?)", movieGenres);
+        jdbcTemplate.batchUpdate("INSERT INTO movie_actor (movie_id, actor_id) VALUES (?, ?)", movieActors);
+        eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.MOVIE,
+                CatalogChangeEvent.Change.CREATED, ids)); // Delivered once the batch commits
+    }
+
+    // IDs of one referenced table that are known to exist or known to be missing.
+    // Each ID is looked up at most once per import, in chunked IN queries.
+    private class ReferenceSet {
+
+        private final String table; // Fixed table name, never user input
+        private final Set<Long> existing = new HashSet<>();
+        private final Set<Long> missing = new HashSet<>();
+
+        ReferenceSet(String table) {
+            this.table = table;
+        }
+
+        // Look up every ID not seen before
+        void resolve(Collection<Long> ids) {
+            List<Long> unknown = ids.stream()
+                    .filter(id -> !existing.contains(id) && !missing.contains(id))
+                    .toList();
+            for (List<Long> chunk : InClause.chunks(unknown)) {
+                String placeholders = InClause.placeholders(chunk);
+                List<Long> found = jdbcTemplate.queryForList(
+                        "SELECT id FROM " + table + " WHERE id IN (" + placeholders + ")", Long.class, chunk.toArray());
+                existing.addAll(found);
+                chunk.stream().filter(id -> !existing.contains(id)).forEach(missing::add);
+            }
+        }
+
+        // First referenced ID that does not exist, or null when all exist
+        Long firstMissing(Set<Long> ids) {
+            for (Long id : ids) {
+                if (missing.contains(id)) {
+                    return id;
+                }
+            }
+            return null;
+        }
+    }
+}
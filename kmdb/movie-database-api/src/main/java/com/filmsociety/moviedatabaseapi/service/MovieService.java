@@ -1,23 +1,51 @@
 package com.filmsociety.moviedatabaseapi.service;
 
+import com.filmsociety.moviedatabaseapi.config.CacheConfig;
 import com.filmsociety.moviedatabaseapi.entity.Movie;
 import com.filmsociety.moviedatabaseapi.entity.Actor;
 import com.filmsociety.moviedatabaseapi.entity.Genre;
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.exception.DuplicateNameException;
+import com.filmsociety.moviedatabaseapi.exception.InvalidDataException;
 import com.filmsociety.moviedatabaseapi.exception.NotFoundException;
+import com.filmsociety.moviedatabaseapi.pagination.Cursor;
+import com.filmsociety.moviedatabaseapi.pagination.KeysetPage;
+import com.filmsociety.moviedatabaseapi.projection.ActorSummary;
+import com.filmsociety.moviedatabaseapi.projection.BatchResult;
+import com.filmsociety.moviedatabaseapi.projection.GenreSummary;
+import com.filmsociety.moviedatabaseapi.projection.MovieSummary;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
 import com.filmsociety.moviedatabaseapi.repository.MovieRepository;
 import com.filmsociety.moviedatabaseapi.repository.ActorRepository;
 import com.filmsociety.moviedatabaseapi.repository.GenreRepository;
+import com.filmsociety.moviedatabaseapi.search.FullTextQuery;
+import com.filmsociety.moviedatabaseapi.search.MovieFilter;
+import com.filmsociety.moviedatabaseapi.search.MovieFilterIndex;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 @Service
+@Timed("service.invocations") // Latency per method, tagged with class and method
+@Transactional(readOnly = true) // Reads run in read-only transactions; write methods override this
 public class MovieService {
 
     @Autowired
@@ -29,73 +57,172 @@ public class MovieService {
     @Autowired
     private GenreRepository genreRepository; // Repository for Genre entity
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Tells the in-memory indexes about committed changes
+
+    @Autowired
+    private CacheManager cacheManager; // Genres created along with a movie change the cached genre lists
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Runs the full-text ID lookups
+
+    @Autowired
+    private MovieFilterIndex movieFilterIndex; // Movies per genre, release year and duration as bitmaps
+
     // Fetch all movies with pagination
-    public List<Movie> getAllMovies(int page, int size) {
+    public List<MovieSummary> getAllMovies(int page, int size) {
         // Handle pagination
         Pageable pageable = PageRequest.of(page, size);
-        return movieRepository.findAll(pageable).getContent(); // Get paginated movie list
+        return attachGenresAndActors(movieRepository.findSummaries(pageable)); // Get paginated movie list
+    }
+
+    // Fetch the page of movies that follows the given cursor, ordered by ID or by (releaseYear, ID)
+    public KeysetPage<Movie> getMoviesAfter(String after, int size, boolean byReleaseYear) {
+        Pageable limit = PageRequest.of(0, size + 1); // One extra row tells whether another page follows
+        if (byReleaseYear) {
+            long[] key = Cursor.decode(after, 2);
+            int releaseYear = key == null ? Integer.MIN_VALUE : (int) key[0];
+            long lastId = key == null ? 0 : key[1];
+            List<Movie> movies = initializeGraphs(movieRepository.findAfterReleaseYearAndId(releaseYear, lastId, limit));
+            return KeysetPage.of(movies, size, movie -> Cursor.encode(movie.getReleaseYear(), movie.getId()));
+        }
+        long[] key = Cursor.decode(after, 1);
+        List<Movie> movies = initializeGraphs(movieRepository.findByIdGreaterThanOrderByIdAsc(key == null ? 0 : key[0], limit));
+        return KeysetPage.of(movies, size, movie -> Cursor.encode(movie.getId()));
+    }
+
+    // Fetch the page of movies matching every criterion of the filter that follows the given cursor, in ID order.
+    // The matching IDs come from the filter index's bitmaps; the read model has its own when enabled.
+    public KeysetPage<MovieSummary> filterMovies(MovieFilter filter, String after, int size) {
+        List<MovieSummary> movies = getMoviesByIds(filterMovieIds(filter, after, size)).items(); // In index order
+        return KeysetPage.of(movies, size, movie -> Cursor.encode(movie.id()));
+    }
+
+    // IDs of the movies on the page of the filter that follows the given cursor, plus one that tells whether another
+    // page follows, for rows read from the database or the catalogue read model
+    public List<Long> filterMovieIds(MovieFilter filter, String after, int size) {
+        if (size <= 0 || size > KeysetPage.MAX_SIZE) { // size + 1 must stay an int
+            throw new InvalidDataException("Size must be between 1 and " + KeysetPage.MAX_SIZE + ".");
+        }
+        long[] key = Cursor.decode(after, 1);
+        return movieFilterIndex.matchingIds(filter, key == null ? 0 : key[0], size + 1);
+    }
+
+    // IDs of every movie whose title matches the search, for counting facets over all of them
+    public List<Long> searchMovieIdsByTitle(String title) {
+        String query = FullTextQuery.prefixMatch(title);
+        return query == null ? List.of()
+                : jdbcTemplate.queryForList("SELECT rowid FROM movie_fts WHERE movie_fts MATCH ?", Long.class, query);
     }
 
     // Get a movie by its ID
     public Optional<Movie> getMovieById(Long id) {
-        return movieRepository.findById(id); // Fetch movie by ID
+        Optional<Movie> movie = movieRepository.findById(id); // Fetch movie by ID
+        movie.ifPresent(found -> initializeGraphs(List.of(found)));
+        return movie;
+    }
+
+    // Get many movies by ID with one summary query per chunk of IDs, plus one per collection; in request order
+    public BatchResult<MovieSummary> getMoviesByIds(List<Long> ids) {
+        List<MovieSummary> movies = new ArrayList<>(ids.size());
+        for (List<Long> chunk : InClause.chunks(ids)) {
+            movies.addAll(movieRepository.findSummariesByIds(chunk));
+        }
+        return BatchResult.of(ids, attachGenresAndActors(movies), MovieSummary::id);
+    }
+
+    // Get the version of a movie without loading it (empty when it does not exist)
+    public Optional<Long> getMovieVersion(Long id) {
+        return movieRepository.findVersionById(id);
     }
 
     // Create a new movie
+    @Transactional
     public Movie createMovie(Movie movie) {
-        // Fetch and attach actors to the persistence context
+        // Fetch and attach actors to the persistence context, resolving all referenced IDs with one query
         Set<Actor> attachedActors = new HashSet<>();
+        Set<Long> actorIds = new HashSet<>();
+        Set<String> newNames = new HashSet<>();
         for (Actor actor : movie.getActors()) {
             if (actor.getId() != null) {
-                // Fetch the actor from the database (attach it)
-                Actor existingActor = actorRepository.findById(actor.getId())
-                        .orElseThrow(() -> new NotFoundException("Actor not found with ID: " + actor.getId()));
-                attachedActors.add(existingActor); // Attach existing actor
+                actorIds.add(actor.getId()); // Existing actor, fetched below
+            } else if (!newNames.add(actor.getName()) || actorRepository.existsByName(actor.getName())) {
+                throw new DuplicateNameException("An actor named " + actor.getName() + " already exists."); // Names are unique
             } else {
                 // If actor is new (no ID), let it be persisted
                 attachedActors.add(actor);
             }
         }
+        List<Actor> existingActors = actorRepository.findAllById(actorIds);
+        if (existingActors.size() < actorIds.size()) {
+            existingActors.forEach(actor -> actorIds.remove(actor.getId())); // Leave only the missing IDs
+            throw new NotFoundException("Actor not found with ID: " + actorIds.iterator().next());
+        }
+        List<Actor> newActors = List.copyOf(attachedActors); // Only the actors without an ID so far
+        attachedActors.addAll(existingActors); // Attach existing actors
         movie.setActors(attachedActors); // Set attached actors
-        
-        // Fetch and attach genres to the persistence context
+
+        // Fetch and attach genres to the persistence context, resolving all referenced IDs with one query
         Set<Genre> attachedGenres = new HashSet<>();
+        Set<Long> genreIds = new HashSet<>();
         for (Genre genre : movie.getGenres()) {
             if (genre.getId() != null) {
-                // Fetch the genre from the database (attach it)
-                Genre existingGenre = genreRepository.findById(genre.getId())
-                        .orElseThrow(() -> new NotFoundException("Genre not found with ID: " + genre.getId()));
-                attachedGenres.add(existingGenre); // Attach existing genre
+                genreIds.add(genre.getId()); // Existing genre, fetched below
             } else {
                 // If genre is new (no ID), let it be persisted
                 attachedGenres.add(genre);
             }
         }
+        List<Genre> existingGenres = genreRepository.findAllById(genreIds);
+        if (existingGenres.size() < genreIds.size()) {
+            existingGenres.forEach(genre -> genreIds.remove(genre.getId())); // Leave only the missing IDs
+            throw new NotFoundException("Genre not found with ID: " + genreIds.iterator().next());
+        }
+        List<Genre> newGenres = List.copyOf(attachedGenres); // Only the genres without an ID so far
+        attachedGenres.addAll(existingGenres); // Attach existing genres
         movie.setGenres(attachedGenres); // Set attached genres
 
         // Now save the movie with the attached actors and genres
-        return movieRepository.save(movie); // Persist new movie
+        Movie createdMovie = movieRepository.save(movie); // Persist new movie, cascading to the new actors and genres
+        if (!newGenres.isEmpty()) {
+            cacheManager.getCache(CacheConfig.GENRE_LISTS).clear(); // Like GenreService.createGenre, once the movie commits
+        }
+        for (Actor actor : newActors) { // Logged like actors created on their own, before the movie that links them
+            eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.ACTOR,
+                    CatalogChangeEvent.Change.CREATED, actor.getId()));
+        }
+        for (Genre genre : newGenres) {
+            eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.GENRE,
+                    CatalogChangeEvent.Change.CREATED, genre.getId()));
+        }
+        eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.MOVIE,
+                CatalogChangeEvent.Change.CREATED, createdMovie.getId()));
+        return createdMovie;
     }
 
     // Get movies by genre ID
-    public List<Movie> getMoviesByGenre(Long genreId) {
-        return movieRepository.findByGenres_Id(genreId); // Fetch movies associated with genre
+    public List<MovieSummary> getMoviesByGenre(Long genreId) {
+        return attachGenresAndActors(movieRepository.findSummariesByGenreId(genreId)); // Fetch movies associated with genre
     }
 
     // Get movies released in a specific year
-    public List<Movie> getMoviesByReleaseYear(int releaseYear) {
-        return movieRepository.findByReleaseYear(releaseYear); // Fetch movies by release year
+    public List<MovieSummary> getMoviesByReleaseYear(int releaseYear) {
+        return attachGenresAndActors(movieRepository.findSummariesByReleaseYear(releaseYear)); // Fetch movies by release year
     }
 
-    // Search movies by title
-    public List<Movie> searchMoviesByTitle(String title) {
-        return movieRepository.findByTitleContainingIgnoreCase(title); // Search for movies by title
+    // Search movies by title (token prefix match, best ranked first)
+    public List<Movie> searchMoviesByTitle(String title, int limit) {
+        String query = FullTextQuery.prefixMatch(title); // Build the FTS5 match expression
+        if (query == null) {
+            return List.of(); // Nothing searchable in the input
+        }
+        return initializeGraphs(movieRepository.searchByTitle(query, limit)); // Search the full-text index
     }
 
     // Get movies by actor ID with pagination
     public List<Movie> getMoviesByActor(Long actorId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return movieRepository.findByActors_Id(actorId, pageable).getContent(); // Fetch movies for the actor
+        return initializeGraphs(movieRepository.findByActors_Id(actorId, pageable)); // Fetch movies for the actor
     }
 
     // Get movies by actor ID without pagination
@@ -113,32 +240,102 @@ public class MovieService {
         }
     }
 
-    // Update the actors in a movie
+    // Replace the actors in a movie; only the difference to the current cast is written
+    @Transactional
     public Movie updateMovieActors(Long movieId, List<Long> actorIds) {
-        // Fetch the movie by ID
-        Movie movie = movieRepository.findById(movieId)
-                .orElseThrow(() -> new NotFoundException("Movie not found with ID: " + movieId));
+        requireMovie(movieId);
+        Set<Long> current = new HashSet<>(movieRepository.findActorIdsByMovieId(movieId)); // Current cast, IDs only
+        Set<Long> add = new HashSet<>(actorIds);
+        add.removeAll(current);
+        Set<Long> remove = new HashSet<>(current);
+        remove.removeAll(actorIds);
+        return changeCast(movieId, add, remove);
+    }
 
-        // Fetch and attach the actors to the movie
-        Set<Actor> attachedActors = new HashSet<>();
-        for (Long actorId : actorIds) {
-            Actor actor = actorRepository.findById(actorId)
-                    .orElseThrow(() -> new NotFoundException("Actor not found with ID: " + actorId));
-            attachedActors.add(actor); // Attach existing actor
+    // Add and remove some actors of a movie; adding a cast member or removing a non-member changes nothing
+    @Transactional
+    public Movie changeMovieActors(Long movieId, Collection<Long> add, Collection<Long> remove) {
+        if (!Collections.disjoint(add, remove)) {
+            throw new InvalidDataException("An actor cannot be added and removed at the same time.");
         }
-        movie.setActors(attachedActors); // Set attached actors
-
-        return movieRepository.save(movie); // Persist updated movie
+        requireMovie(movieId);
+        return changeCast(movieId, new HashSet<>(add), new HashSet<>(remove));
     }
 
     // Delete a movie by ID
+    @Transactional
     public boolean deleteMovie(Long id) {
         Optional<Movie> movie = movieRepository.findById(id); // Fetch movie by ID
         if (movie.isPresent()) {
             movieRepository.deleteById(id); // Delete movie
+            eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.MOVIE,
+                    CatalogChangeEvent.Change.DELETED, id));
             return true;
         } else {
             throw new NotFoundException("Movie not found with ID: " + id); // Handle not found
         }
     }
+
+    // Validate the added actors with one IN query per chunk, then write only the join rows that change.
+    // A 200-actor cast with one actor swapped touches two rows instead of being deleted and reinserted.
+    private Movie changeCast(Long movieId, Set<Long> add, Set<Long> remove) {
+        Set<Long> missing = new HashSet<>(add);
+        for (List<Long> chunk : InClause.chunks(add)) {
+            actorRepository.findExistingIds(chunk).forEach(missing::remove);
+        }
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Actor not found with ID: " + missing.iterator().next());
+        }
+
+        int changedRows = 0;
+        for (List<Long> chunk : InClause.chunks(remove)) {
+            changedRows += movieRepository.deleteActorLinks(movieId, chunk);
+        }
+        for (List<Long> chunk : InClause.chunks(add)) {
+            changedRows += movieRepository.insertActorLinks(movieId, chunk);
+        }
+        if (changedRows > 0) {
+            movieRepository.incrementVersion(movieId); // The cast is part of the movie's ETag
+            eventPublisher.publishEvent(CatalogChangeEvent.of(CatalogChangeEvent.Entity.MOVIE,
+                    CatalogChangeEvent.Change.UPDATED, movieId));
+        }
+
+        Movie movie = movieRepository.findById(movieId)
+                .orElseThrow(() -> new NotFoundException("Movie not found with ID: " + movieId));
+        initializeGraphs(List.of(movie));
+        return movie;
+    }
+
+    private void requireMovie(Long movieId) {
+        if (!movieRepository.existsById(movieId)) {
+            throw new NotFoundException("Movie not found with ID: " + movieId);
+        }
+    }
+
+    // Fill in the genres and actors of movie summaries with one tuple query per collection (per chunk of IDs)
+    private List<MovieSummary> attachGenresAndActors(List<MovieSummary> movies) {
+        Map<Long, MovieSummary> byId = new HashMap<>();
+        for (MovieSummary movie : movies) {
+            byId.put(movie.id(), movie);
+        }
+        for (List<Long> chunk : InClause.chunks(byId.keySet())) {
+            for (Object[] row : movieRepository.findGenreTuples(chunk)) {
+                byId.get((Long) row[0]).genres().add(new GenreSummary((Long) row[1], (String) row[2]));
+            }
+            for (Object[] row : movieRepository.findActorTuples(chunk)) {
+                byId.get((Long) row[0]).actors().add(new ActorSummary((Long) row[1], (String) row[2], (LocalDate) row[3]));
+            }
+        }
+        return movies;
+    }
+
+    // Load genres and actors while the transaction is still open, since the movies are serialized after it ends.
+    // @BatchSize on Movie makes this one query per collection for up to 100 movies.
+    private List<Movie> initializeGraphs(List<Movie> movies) {
+        for (Movie movie : movies) {
+            Hibernate.initialize(movie.getGenres());
+            Hibernate.initialize(movie.getActors());
+        }
+        return movies;
+    }
 }
@@ -0,0 +1,65 @@
+package com.filmsociety.moviedatabaseapi.service;
+
+import com.filmsociety.moviedatabaseapi.config.CacheConfig;
+import com.filmsociety.moviedatabaseapi.projection.ActorStats;
+import com.filmsociety.moviedatabaseapi.projection.CatalogueStats;
+import com.filmsociety.moviedatabaseapi.projection.GenreStats;
+import com.filmsociety.moviedatabaseapi.projection.YearStats;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Catalogue aggregates for dashboards, computed in SQL with GROUP BY over covering indexes, so only the
+// aggregated rows leave the database. Each result is cached under the movie change counter it was requested
+// with (every catalogue write bumps that counter), so it is computed once per catalogue state. A result can
+// be newer than its counter, never older.
+@Service
+@Timed("service.invocations")
+@Transactional(readOnly = true)
+public class StatsService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Totals; revision is the current movie change counter and only part of the cache key
+    @Cacheable(cacheNames = CacheConfig.STATS, key = "'overview:' + #revision")
+    public CatalogueStats getOverview(long revision) {
+        return jdbcTemplate.queryForObject("SELECT (SELECT count(*) FROM movie), (SELECT count(*) FROM actor), "
+                        + "(SELECT count(*) FROM genre), coalesce(round(avg(duration), 1), 0), min(release_year), "
+                        + "max(release_year) FROM movie",
+                (rs, rowNum) -> new CatalogueStats(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getDouble(4),
+                        rs.getObject(5, Integer.class), rs.getObject(6, Integer.class)));
+    }
+
+    // Movies per genre, largest first; genres without movies are included with 0
+    @Cacheable(cacheNames = CacheConfig.STATS, key = "'genres:' + #revision")
+    public List<GenreStats> getMoviesPerGenre(long revision) {
+        return jdbcTemplate.query("SELECT g.id, g.name, "
+                        + "(SELECT count(*) FROM movie_genre mg WHERE mg.genre_id = g.id) AS movie_count "
+                        + "FROM genre g ORDER BY movie_count DESC, g.id",
+                (rs, rowNum) -> new GenreStats(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+    }
+
+    // Movies and average duration per release year, oldest first
+    @Cacheable(cacheNames = CacheConfig.STATS, key = "'years:' + #revision")
+    public List<YearStats> getMoviesPerYear(long revision) {
+        return jdbcTemplate.query("SELECT release_year, count(*), round(avg(duration), 1) FROM movie "
+                        + "GROUP BY release_year ORDER BY release_year",
+                (rs, rowNum) -> new YearStats(rs.getInt(1), rs.getLong(2), rs.getDouble(3)));
+    }
+
+    // Actors with the most movies, most first
+    @Cacheable(cacheNames = CacheConfig.STATS, key = "'actors:' + #limit + ':' + #revision")
+    public List<ActorStats> getBusiestActors(int limit, long revision) {
+        return jdbcTemplate.query("SELECT a.id, a.name, c.movie_count FROM "
+                        + "(SELECT actor_id, count(*) AS movie_count FROM movie_actor GROUP BY actor_id "
+                        + "ORDER BY movie_count DESC, actor_id LIMIT ?) c "
+                        + "JOIN actor a ON a.id = c.actor_id ORDER BY c.movie_count DESC, a.id",
+                (rs, rowNum) -> new ActorStats(rs.getLong(1), rs.getString(2), rs.getLong(3)), limit);
+    }
+}
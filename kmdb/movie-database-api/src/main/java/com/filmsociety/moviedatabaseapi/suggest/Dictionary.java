@@ -0,0 +1,419 @@
+package com.filmsociety.moviedatabaseapi.suggest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Entries ranked by popularity plus the sorted distinct words of their texts, each with the positions of the
+// entries that contain it. The sorted words double as a trie: the words below any prefix are contiguous, so a
+// typo-tolerant prefix search walks character groups found by binary search and yields ranges of word positions.
+// Candidates come from the most selective query word in rank order; the other words are checked by looking the
+// candidates' word positions up in their ranges, after bitsets of their entries filtered out most misses.
+// Never modified once built.
+final class Dictionary {
+
+    static final int MAX_EXAMINED = 20_000; // Candidates checked per query before settling for the best so far
+    static final int FILTER_RATIO = 32; // Other words with up to this many times the candidates' entries get a bitset
+
+    private final Entry[] entries; // In Entry.RANK order, so a lower position means a higher rank
+    private final String[] words; // Ascending, distinct
+    private final int[] postingOffsets; // Entries of words[w]: postings[postingOffsets[w]] up to postings[postingOffsets[w + 1]]
+    private final int[] postings; // Entry positions, ascending within each word and so most popular first
+    private final int[] wordOffsets; // Words of entries[e]: entryWords[wordOffsets[e]] up to entryWords[wordOffsets[e + 1]]
+    private final int[] entryWords; // Word positions, distinct within each entry
+
+    // A suggested entry with the edits its query needed
+    record Ranked(int edits, Entry entry) {
+
+        // Fewest edits first, then by entry rank
+        static final Comparator<Ranked> BEST = Comparator.comparingInt(Ranked::edits)
+                .thenComparing(Ranked::entry, Entry.RANK);
+    }
+
+    // Words [from, to) start with a query word after the given number of edits
+    private record Range(int from, int to, int edits) {
+    }
+
+    private Dictionary(Entry[] entries, String[] words, int[] postingOffsets, int[] postings,
+                       int[] wordOffsets, int[] entryWords) {
+        this.entries = entries;
+        this.words = words;
+        this.postingOffsets = postingOffsets;
+        this.postings = postings;
+        this.wordOffsets = wordOffsets;
+        this.entryWords = entryWords;
+    }
+
+    static Dictionary of(Collection<Entry> all) {
+        Entry[] ranked = all.toArray(new Entry[0]);
+        Arrays.sort(ranked, Entry.RANK);
+        Map<String, Integer> counts = new HashMap<>();
+        for (Entry entry : ranked) {
+            for (String word : distinct(entry.words())) {
+                counts.merge(word, 1, Integer::sum);
+            }
+        }
+        String[] words = counts.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        Map<String, Integer> positions = new HashMap<>(words.length * 2);
+        int[] offsets = new int[words.length + 1];
+        for (int w = 0; w < words.length; w++) {
+            positions.put(words[w], w);
+            offsets[w + 1] = offsets[w] + counts.get(words[w]);
+        }
+        int[] postings = new int[offsets[words.length]];
+        int[] filled = Arrays.copyOf(offsets, words.length);
+        int[] wordOffsets = new int[ranked.length + 1];
+        int[] entryWords = new int[postings.length];
+        for (int e = 0; e < ranked.length; e++) { // In rank order, so every word's entries come out ranked
+            int next = wordOffsets[e];
+            for (String word : distinct(ranked[e].words())) {
+                int w = positions.get(word);
+                postings[filled[w]++] = e;
+                entryWords[next++] = w;
+            }
+            wordOffsets[e + 1] = next;
+        }
+        return new Dictionary(ranked, words, offsets, postings, wordOffsets, entryWords);
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    // The best entries for the query words, each of which must start one of an entry's words within its allowed
+    // edits. Overlay entries replace the entries with the same key; a null value removes one.
+    List<Ranked> suggest(String[] queryWords, int[] maxEdits, Entry.Kind kind, int limit, Map<Long, Entry> overlay) {
+        PriorityQueue<Ranked> best = new PriorityQueue<>(Ranked.BEST.reversed()); // Worst of the best on top
+        for (Entry entry : overlay.values()) {
+            if (entry != null && (kind == null || entry.kind() == kind)) {
+                offer(best, limit, entry, entry.edits(queryWords, maxEdits));
+            }
+        }
+
+        // Candidates come from the query word with the fewest entries, by its edits and then by rank. Every other
+        // word adds at least its fewest edits, so once the worst kept result beats a candidate with those added
+        // nothing after it can get in.
+        List<Range[]> matches = new ArrayList<>();
+        int driver = 0;
+        for (int q = 0; q < queryWords.length; q++) {
+            matches.add(prefixRanges(queryWords[q], maxEdits[q]));
+            if (matches.get(q).length == 0) {
+                return sorted(best); // No word starts like this one
+            }
+            if (postingCount(matches.get(q)) < postingCount(matches.get(driver))) {
+                driver = q;
+            }
+        }
+        Range[] driving = matches.remove(driver);
+        int otherEdits = 0;
+        for (Range[] ranges : matches) {
+            otherEdits += Arrays.stream(ranges).mapToInt(Range::edits).min().orElseThrow();
+        }
+        Search search = new Search(best, limit, kind, overlay, driving, matches, otherEdits);
+        for (int edits = 0; edits <= maxEdits[driver]; edits++) {
+            // A single word is matched by almost every candidate, so merging a few heads in rank order is enough.
+            // With more words most candidates fail, and marking them all in a bitset is cheaper than a heap per entry.
+            if (!(queryWords.length == 1 ? search.merge(edits) : search.mark(edits))) {
+                break;
+            }
+        }
+        return sorted(best);
+    }
+
+    // The state of one query while its candidates are checked in rank order
+    private final class Search {
+
+        private final PriorityQueue<Ranked> best;
+        private final int limit;
+        private final Entry.Kind kind;
+        private final Map<Long, Entry> overlay;
+        private final Range[] driver; // Of the query word that yields the candidates
+        private final List<Range[]> others; // Of the other query words
+        private final int otherEdits; // Fewest edits the other query words can add
+        private long[] marked; // Candidate positions of one edit level, cleared again while they are checked
+        private List<long[]> filters; // Positions of the entries that other query words match, for those cheap to mark
+        private int examined;
+
+        Search(PriorityQueue<Ranked> best, int limit, Entry.Kind kind, Map<Long, Entry> overlay,
+               Range[] driver, List<Range[]> others, int otherEdits) {
+            this.best = best;
+            this.limit = limit;
+            this.kind = kind;
+            this.overlay = overlay;
+            this.driver = driver;
+            this.others = others;
+            this.otherEdits = otherEdits;
+        }
+
+        // Candidates at the given edits from a heap of per-word posting cursors; false once no more can get in
+        boolean merge(int edits) {
+            PriorityQueue<int[]> heads = new PriorityQueue<>(Comparator.comparingInt(head -> postings[head[0]]));
+            for (Range range : driver) {
+                if (range.edits() == edits) {
+                    for (int w = range.from(); w < range.to(); w++) {
+                        heads.add(new int[] {postingOffsets[w], postingOffsets[w + 1]}); // Next posting, end
+                    }
+                }
+            }
+            int previous = -1;
+            while (!heads.isEmpty()) {
+                int[] head = heads.poll();
+                int e = postings[head[0]++];
+                if (head[0] < head[1]) {
+                    heads.add(head);
+                }
+                if (e != previous && !check(edits, e)) { // Equal when another of its words matched as well
+                    return false;
+                }
+                previous = e;
+            }
+            return true;
+        }
+
+        // Candidates at the given edits from a bitset of their positions; false once no more can get in
+        boolean mark(int edits) {
+            if (marked == null) {
+                marked = new long[(entries.length + 63) >>> 6];
+                filters = new ArrayList<>();
+                long budget = (long) FILTER_RATIO * postingCount(driver);
+                for (Range[] ranges : others) {
+                    if (postingCount(ranges) <= budget) {
+                        filters.add(positions(ranges));
+                    }
+                }
+            }
+            int low = entries.length;
+            int high = -1;
+            for (Range range : driver) {
+                if (range.edits() == edits) {
+                    for (int w = range.from(); w < range.to(); w++) {
+                        for (int p = postingOffsets[w]; p < postingOffsets[w + 1]; p++) {
+                            marked[postings[p] >>> 6] |= 1L << postings[p];
+                        }
+                        low = Math.min(low, postings[postingOffsets[w]]); // Every word has an entry
+                        high = Math.max(high, postings[postingOffsets[w + 1] - 1]);
+                    }
+                }
+            }
+            if (high < 0) {
+                return true; // No word at these edits
+            }
+            for (int i = low >>> 6; i <= high >>> 6; i++) {
+                long bits = marked[i];
+                marked[i] = 0;
+                for (long[] filter : filters) {
+                    bits &= filter[i];
+                }
+                for (; bits != 0; bits &= bits - 1) {
+                    if (!check(edits, (i << 6) + Long.numberOfTrailingZeros(bits))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // A bitset of the positions of the entries with a word in the ranges
+        private long[] positions(Range[] ranges) {
+            long[] positions = new long[(entries.length + 63) >>> 6];
+            for (Range range : ranges) {
+                for (int p = postingOffsets[range.from()]; p < postingOffsets[range.to()]; p++) {
+                    positions[postings[p] >>> 6] |= 1L << postings[p];
+                }
+            }
+            return positions;
+        }
+
+        // Offers the entry at position e, which the driving word matches after the given edits. Most candidates
+        // of a longer query fail another word, so the entry itself is only read once it is needed.
+        private boolean check(int edits, int e) {
+            if (best.size() == limit
+                    && Ranked.BEST.compare(best.peek(), new Ranked(edits + otherEdits, entries[e])) < 0) {
+                return false;
+            }
+            if (edits(e, driver) < edits) {
+                return true; // Already examined at fewer edits
+            }
+            if (++examined > MAX_EXAMINED) {
+                return false; // Very unselective queries stop here with the best found so far
+            }
+            int total = edits(e, others);
+            if (total >= 0) {
+                Entry entry = entries[e];
+                if ((kind == null || entry.kind() == kind) && !overlay.containsKey(entry.key())) {
+                    offer(best, limit, entry, edits + total);
+                }
+            }
+            return true;
+        }
+    }
+
+    // Total edits for each of the query words' ranges to hold one of the entry's words, or -1 when one does not
+    private int edits(int e, List<Range[]> matches) {
+        int total = 0;
+        for (Range[] ranges : matches) {
+            int edits = edits(e, ranges);
+            if (edits == Integer.MAX_VALUE) {
+                return -1;
+            }
+            total += edits;
+        }
+        return total;
+    }
+
+    // Fewest edits among the entry's words in the ranges, or Integer.MAX_VALUE when none is
+    private int edits(int e, Range[] ranges) {
+        int best = Integer.MAX_VALUE;
+        for (int i = wordOffsets[e]; i < wordOffsets[e + 1]; i++) {
+            Range range = rangeOf(entryWords[i], ranges);
+            if (range != null) {
+                best = Math.min(best, range.edits());
+            }
+        }
+        return best;
+    }
+
+    private static Range rangeOf(int word, Range[] ranges) {
+        int low = 0;
+        int high = ranges.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (ranges[middle].to() <= word) {
+                low = middle + 1;
+            } else if (ranges[middle].from() > word) {
+                high = middle - 1;
+            } else {
+                return ranges[middle];
+            }
+        }
+        return null;
+    }
+
+    // Disjoint ascending word ranges whose words start with the query word after at most maxEdits edits, each
+    // with its fewest edits. Like Text.prefixDistance, only words with the same first character are considered.
+    // Each character step below a prefix extends the edit distance table by one row; branches whose rows already
+    // exceed maxEdits are skipped, and branches stop once going deeper cannot need fewer edits.
+    private Range[] prefixRanges(String queryWord, int maxEdits) {
+        char first = queryWord.charAt(0);
+        int to = groupEnd(0, words.length, 0, first);
+        int from = groupEnd(0, to, 0, (char) (first - 1)); // Words hold only letters and digits, so first is above zero
+        List<Range> nested = new ArrayList<>();
+        walk(queryWord, maxEdits, from, to, 0, Text.firstRow(queryWord.length()), null, (char) 0, nested);
+        return disjoint(nested);
+    }
+
+    // The walk reports a prefix before the longer prefixes below it, which may need fewer edits. Splits the
+    // nested ranges so that every word is covered once, by its fewest edits.
+    private static Range[] disjoint(List<Range> nested) {
+        List<Range> ranges = new ArrayList<>();
+        ArrayDeque<Range> open = new ArrayDeque<>(); // Enclosing ranges, innermost first, each with its fewest edits
+        int position = 0;
+        for (Range range : nested) {
+            while (!open.isEmpty() && open.peek().to() <= range.from()) {
+                position = close(open, position, ranges);
+            }
+            if (!open.isEmpty()) {
+                emit(ranges, position, range.from(), open.peek().edits());
+            }
+            position = range.from();
+            open.push(new Range(range.from(), range.to(),
+                    open.isEmpty() ? range.edits() : Math.min(range.edits(), open.peek().edits())));
+        }
+        while (!open.isEmpty()) {
+            position = close(open, position, ranges);
+        }
+        return ranges.toArray(new Range[0]);
+    }
+
+    private static int close(ArrayDeque<Range> open, int position, List<Range> ranges) {
+        Range range = open.pop();
+        emit(ranges, position, range.to(), range.edits());
+        return range.to();
+    }
+
+    private static void emit(List<Range> ranges, int from, int to, int edits) {
+        if (from >= to) {
+            return;
+        }
+        Range last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+        if (last != null && last.to() == from && last.edits() == edits) {
+            ranges.set(ranges.size() - 1, new Range(last.from(), to, edits));
+        } else {
+            ranges.add(new Range(from, to, edits));
+        }
+    }
+
+    // Words [from, to) share their first depth characters, which turned the query into row
+    private void walk(String queryWord, int maxEdits, int from, int to, int depth, int[] row, int[] previousRow,
+                      char previousChar, List<Range> ranges) {
+        int i = from;
+        if (i < to && words[i].length() == depth) {
+            i++; // The word that ends here sorts before the longer ones
+        }
+        while (i < to) {
+            char c = words[i].charAt(depth);
+            int end = groupEnd(i, to, depth, c);
+            int[] next = Text.step(row, previousRow, queryWord, c, previousChar);
+            int edits = next[queryWord.length()];
+            if (edits <= maxEdits) {
+                ranges.add(new Range(i, end, edits));
+            }
+            if (Text.min(next) < Math.min(edits, maxEdits + 1)) {
+                walk(queryWord, maxEdits, i, end, depth + 1, next, row, c, ranges);
+            }
+            i = end;
+        }
+    }
+
+    // End of the words in [from, to) whose character at depth is c; all of them are longer than depth
+    private int groupEnd(int from, int to, int depth, char c) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (words[middle].charAt(depth) <= c) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int postingCount(Range[] ranges) {
+        long count = 0;
+        for (Range range : ranges) {
+            count += postingOffsets[range.to()] - postingOffsets[range.from()];
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    private static void offer(PriorityQueue<Ranked> best, int limit, Entry entry, int edits) {
+        if (edits < 0) {
+            return; // Some query word matches none of the entry's words
+        }
+        best.add(new Ranked(edits, entry));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    private static List<Ranked> sorted(PriorityQueue<Ranked> best) {
+        List<Ranked> ranked = new ArrayList<>(best);
+        ranked.sort(Ranked.BEST);
+        return ranked;
+    }
+
+    private static Set<String> distinct(String[] words) {
+        return new HashSet<>(Arrays.asList(words));
+    }
+}
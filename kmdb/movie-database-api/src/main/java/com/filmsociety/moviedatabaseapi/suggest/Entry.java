@@ -0,0 +1,44 @@
+package com.filmsociety.moviedatabaseapi.suggest;
+
+import java.util.Comparator;
+
+// A movie title or actor name that can be suggested, with its normalised words. Popularity is the number of
+// movies of an actor, or the cast size of a movie.
+record Entry(Kind kind, long id, String text, int popularity, String[] words) {
+
+    enum Kind { MOVIE, ACTOR }
+
+    // Most popular first, then movies before actors, then by ID
+    static final Comparator<Entry> RANK = Comparator.comparingInt(Entry::popularity).reversed()
+            .thenComparing(Entry::kind)
+            .thenComparingLong(Entry::id);
+
+    static Entry of(Kind kind, long id, String text, int popularity) {
+        return new Entry(kind, id, text, popularity, Text.words(text));
+    }
+
+    long key() {
+        return key(kind, id);
+    }
+
+    // Movies and actors share ID values, so the kind is part of the key
+    static long key(Kind kind, long id) {
+        return id * 2 + kind.ordinal();
+    }
+
+    // Total edits for every query word to match the start of one of this entry's words, or -1 when one cannot
+    int edits(String[] queryWords, int[] maxEdits) {
+        int total = 0;
+        for (int q = 0; q < queryWords.length; q++) {
+            int best = maxEdits[q] + 1;
+            for (int w = 0; w < words.length && best > 0; w++) {
+                best = Math.min(best, Text.prefixDistance(queryWords[q], words[w], maxEdits[q]));
+            }
+            if (best > maxEdits[q]) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,170 @@
+package com.filmsociety.moviedatabaseapi.suggest;
+
+import com.filmsociety.moviedatabaseapi.event.CatalogChangeEvent;
+import com.filmsociety.moviedatabaseapi.projection.Suggestion;
+import com.filmsociety.moviedatabaseapi.repository.InClause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// In-memory index behind search-as-you-type for movie titles and actor names.
+// Every query word must start one of an entry's words, with a few typos allowed depending on its length, and
+// the fewest typos win before the most popular entries. The Dictionary is built from the database on first use.
+// Committed changes arrive as CatalogChangeEvents and are kept as an overlay of reloaded entries, which is
+// replaced by a fresh build once it grows past suggest.max-overlay entries. Each change publishes a new immutable
+// state, so queries never take a lock.
+@Component
+public class SuggestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestIndex.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Reads titles, names and their counts for builds and changes
+
+    @Value("${suggest.max-overlay:1024}")
+    private int maxOverlay; // Changed entries kept beside the dictionary, each checked on every query
+
+    @Value("${suggest.preload:false}")
+    private boolean preload; // Build at startup instead of on the first query
+
+    private volatile State state; // Null until first use
+
+    // The dictionary from the last build and the entries reloaded since; a null entry was deleted
+    private record State(Dictionary dictionary, Map<Long, Entry> overlay) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (preload) {
+            state();
+        }
+    }
+
+    // Up to limit movies and actors (or only one type, when given) for what has been typed so far
+    public List<Suggestion> suggest(String query, int limit, String type) {
+        String[] queryWords = Text.words(query);
+        if (queryWords.length == 0) {
+            return List.of(); // Nothing to match yet
+        }
+        int[] maxEdits = new int[queryWords.length];
+        for (int q = 0; q < queryWords.length; q++) {
+            maxEdits[q] = Text.maxEdits(queryWords[q]);
+        }
+        Entry.Kind kind = type == null ? null : Entry.Kind.valueOf(type.toUpperCase(Locale.ROOT));
+        State current = state();
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        for (Dictionary.Ranked ranked : current.dictionary().suggest(queryWords, maxEdits, kind, limit, current.overlay())) {
+            Entry entry = ranked.entry();
+            suggestions.add(new Suggestion(entry.kind().name().toLowerCase(Locale.ROOT), entry.id(), entry.text()));
+        }
+        return suggestions;
+    }
+
+    // Follow the committed catalogue. A changed movie also changes the movie counts of its actors, so they are
+    // reloaded with it; counts that a change affects otherwise (a former cast member, the casts of a deleted actor)
+    // catch up at the next build. Synchronized with the build so no change slips in between its queries and its
+    // publication.
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        State current = state;
+        if (current == null) {
+            return; // The first build reads everything anyway
+        }
+        if (event.change() == CatalogChangeEvent.Change.RELOADED) {
+            state = load();
+            return;
+        }
+        Map<Long, Entry> overlay = new HashMap<>(current.overlay());
+        if (event.entity() == CatalogChangeEvent.Entity.MOVIE) {
+            overlay.putAll(loadMovies(event.ids()));
+            overlay.putAll(loadActors(castOf(event.ids())));
+        } else if (event.entity() == CatalogChangeEvent.Entity.ACTOR) {
+            overlay.putAll(loadActors(event.ids()));
+        } else {
+            return; // Genres are not suggested
+        }
+        state = overlay.size() > maxOverlay ? load() : new State(current.dictionary(), Collections.unmodifiableMap(overlay));
+    }
+
+    private State state() {
+        State current = state;
+        if (current == null) {
+            synchronized (this) {
+                if (state == null) {
+                    state = load();
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+
+    private State load() {
+        long start = System.nanoTime();
+        List<Entry> entries = new ArrayList<>();
+        jdbcTemplate.query("SELECT m.id, m.title, count(ma.actor_id) FROM movie m "
+                        + "LEFT JOIN movie_actor ma ON ma.movie_id = m.id GROUP BY m.id",
+                (RowCallbackHandler) rs -> entries.add(Entry.of(Entry.Kind.MOVIE, rs.getLong(1), rs.getString(2), rs.getInt(3))));
+        jdbcTemplate.query("SELECT a.id, a.name, count(ma.movie_id) FROM actor a "
+                        + "LEFT JOIN movie_actor ma ON ma.actor_id = a.id GROUP BY a.id",
+                (RowCallbackHandler) rs -> entries.add(Entry.of(Entry.Kind.ACTOR, rs.getLong(1), rs.getString(2), rs.getInt(3))));
+        Dictionary dictionary = Dictionary.of(entries);
+        logger.info("Built the suggestion index over {} titles and names in {} ms", dictionary.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new State(dictionary, Map.of());
+    }
+
+    // Current entries of the movies by key; movies that no longer exist map to null
+    private Map<Long, Entry> loadMovies(Collection<Long> movieIds) {
+        return loadEntries(Entry.Kind.MOVIE, movieIds, "SELECT m.id, m.title, "
+                + "(SELECT count(*) FROM movie_actor ma WHERE ma.movie_id = m.id) FROM movie m WHERE m.id IN (%s)");
+    }
+
+    // Current entries of the actors by key; actors that no longer exist map to null
+    private Map<Long, Entry> loadActors(Collection<Long> actorIds) {
+        return loadEntries(Entry.Kind.ACTOR, actorIds, "SELECT a.id, a.name, "
+                + "(SELECT count(*) FROM movie_actor ma WHERE ma.actor_id = a.id) FROM actor a WHERE a.id IN (%s)");
+    }
+
+    private Map<Long, Entry> loadEntries(Entry.Kind kind, Collection<Long> ids, String sql) {
+        Map<Long, Entry> entries = new HashMap<>();
+        ids.forEach(id -> entries.put(Entry.key(kind, id), null));
+        for (List<Long> chunk : InClause.chunks(ids)) {
+            jdbcTemplate.query(String.format(sql, InClause.placeholders(chunk)),
+                    (RowCallbackHandler) rs -> {
+                        Entry entry = Entry.of(kind, rs.getLong(1), rs.getString(2), rs.getInt(3));
+                        entries.put(entry.key(), entry);
+                    },
+                    chunk.toArray());
+        }
+        return entries;
+    }
+
+    // Actors now cast in any of the movies
+    private Set<Long> castOf(Collection<Long> movieIds) {
+        Set<Long> actorIds = new LinkedHashSet<>();
+        for (List<Long> chunk : InClause.chunks(movieIds)) {
+            String placeholders = InClause.placeholders(chunk);
+            actorIds.addAll(jdbcTemplate.queryForList("SELECT DISTINCT actor_id FROM movie_actor WHERE movie_id IN ("
+                    + placeholders + ")", Long.class, chunk.toArray()));
+        }
+        return actorIds;
+    }
+}
@@ -0,0 +1,80 @@
+package com.filmsociety.moviedatabaseapi.suggest;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Word splitting and typo distances shared by the suggestion index and its queries
+final class Text {
+
+    private Text() {} // Utility class, no instances
+
+    // Lower-cased words without accents, split on anything but letters and digits like FullTextQuery does
+    static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "") // "Amélie" is found by typing "amelie"
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(folded.split("[^\\p{L}\\p{N}]+")).filter(word -> !word.isEmpty()).toArray(String[]::new);
+    }
+
+    // Typos tolerated in a query word: none up to 2 characters, one up to 5, two beyond
+    static int maxEdits(String word) {
+        return word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : 2;
+    }
+
+    // Fewest edits that turn the query word into a prefix of the word, or maxEdits + 1 when more are needed.
+    // The first character has to be right: typos there are rare, and allowing them would widen every search.
+    static int prefixDistance(String query, String word, int maxEdits) {
+        if (word.isEmpty() || word.charAt(0) != query.charAt(0)) {
+            return maxEdits + 1;
+        }
+        int[] beforePrevious = null;
+        int[] previous = firstRow(query.length());
+        int best = previous[query.length()];
+        for (int i = 0; i < word.length() && best > 0; i++) {
+            int[] row = step(previous, beforePrevious, query, word.charAt(i), i > 0 ? word.charAt(i - 1) : 0);
+            best = Math.min(best, row[query.length()]);
+            if (min(row) > maxEdits) {
+                break; // Longer prefixes only get further away
+            }
+            beforePrevious = previous;
+            previous = row;
+        }
+        return Math.min(best, maxEdits + 1);
+    }
+
+    // Edit distances from every prefix of the query to the empty string
+    static int[] firstRow(int queryLength) {
+        int[] row = new int[queryLength + 1];
+        Arrays.setAll(row, j -> j);
+        return row;
+    }
+
+    // The next row of the edit distance table after the candidate grew by c. row[j] is the distance between the
+    // first j query characters and the candidate. Insertions, deletions, substitutions and swaps of two neighbouring
+    // characters ("matirx") cost one edit each; previousChar is the candidate's character before c.
+    static int[] step(int[] previous, int[] beforePrevious, String query, char c, char previousChar) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        for (int j = 1; j < row.length; j++) {
+            int substitution = previous[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+            int distance = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+            if (beforePrevious != null && j > 1 && query.charAt(j - 1) == previousChar && query.charAt(j - 2) == c) {
+                distance = Math.min(distance, beforePrevious[j - 2] + 1);
+            }
+            row[j] = distance;
+        }
+        return row;
+    }
+
+    static int min(int[] row) {
+        int min = row[0];
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+}
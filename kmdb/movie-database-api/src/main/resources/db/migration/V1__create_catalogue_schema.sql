@@ -0,0 +1,65 @@
+-- Catalogue tables as the entities map them. IF NOT EXISTS lets databases created before
+-- migrations were introduced (by schema.sql and Hibernate's ddl-auto) be adopted unchanged.
+CREATE TABLE IF NOT EXISTS genre (
+    id INTEGER PRIMARY KEY,
+    name TEXT NOT NULL
+);
+CREATE TABLE IF NOT EXISTS actor (
+    id INTEGER PRIMARY KEY,
+    name TEXT NOT NULL,
+    birth_date DATE NOT NULL
+);
+CREATE TABLE IF NOT EXISTS movie (
+    id INTEGER PRIMARY KEY,
+    title TEXT NOT NULL,
+    release_year INTEGER NOT NULL DEFAULT 0,
+    duration INTEGER NOT NULL DEFAULT 0
+);
+CREATE TABLE IF NOT EXISTS movie_genre (
+    movie_id BIGINT NOT NULL,
+    genre_id BIGINT NOT NULL,
+    PRIMARY KEY (movie_id, genre_id)
+);
+CREATE TABLE IF NOT EXISTS movie_actor (
+    movie_id BIGINT NOT NULL,
+    actor_id BIGINT NOT NULL,
+    PRIMARY KEY (movie_id, actor_id)
+);
+
+-- Full-text indexes for movie titles and actor names (rowid = entity id)
+CREATE VIRTUAL TABLE IF NOT EXISTS movie_fts USING fts5(
+    title,
+    tokenize = 'unicode61 remove_diacritics 2',
+    prefix = '2 3'
+);
+CREATE VIRTUAL TABLE IF NOT EXISTS actor_fts USING fts5(
+    name,
+    tokenize = 'unicode61 remove_diacritics 2',
+    prefix = '2 3'
+);
+
+-- Triggers keep the full-text indexes in sync with the base tables
+CREATE TRIGGER IF NOT EXISTS movie_fts_insert AFTER INSERT ON movie BEGIN
+    INSERT INTO movie_fts(rowid, title) VALUES (new.id, new.title);
+END;
+CREATE TRIGGER IF NOT EXISTS movie_fts_update AFTER UPDATE OF title ON movie BEGIN
+    UPDATE movie_fts SET title = new.title WHERE rowid = old.id;
+END;
+CREATE TRIGGER IF NOT EXISTS movie_fts_delete AFTER DELETE ON movie BEGIN
+    DELETE FROM movie_fts WHERE rowid = old.id;
+END;
+CREATE TRIGGER IF NOT EXISTS actor_fts_insert AFTER INSERT ON actor BEGIN
+    INSERT INTO actor_fts(rowid, name) VALUES (new.id, new.name);
+END;
+CREATE TRIGGER IF NOT EXISTS actor_fts_update AFTER UPDATE OF name ON actor BEGIN
+    UPDATE actor_fts SET name = new.name WHERE rowid = old.id;
+END;
+CREATE TRIGGER IF NOT EXISTS actor_fts_delete AFTER DELETE ON actor BEGIN
+    DELETE FROM actor_fts WHERE rowid = old.id;
+END;
+
+-- Backfill the indexes once for databases that already held rows before they existed
+INSERT INTO movie_fts(rowid, title)
+    SELECT id, title FROM movie WHERE NOT EXISTS (SELECT 1 FROM movie_fts);
+INSERT INTO actor_fts(rowid, name)
+    SELECT id, name FROM actor WHERE NOT EXISTS (SELECT 1 FROM actor_fts);
@@ -0,0 +1,11 @@
+-- The join tables' primary keys start with movie_id, so they only serve lookups by movie.
+-- These indexes serve the reverse direction (movies of an actor or genre) without a full scan,
+-- and cover the movie_id so the join needs no extra table lookup.
+CREATE INDEX IF NOT EXISTS idx_movie_actor_actor_movie ON movie_actor (actor_id, movie_id);
+CREATE INDEX IF NOT EXISTS idx_movie_genre_genre_movie ON movie_genre (genre_id, movie_id);
+
+-- Movies by release year, and the (release_year, id) keyset pagination order
+CREATE INDEX IF NOT EXISTS idx_movie_release_year ON movie (release_year);
+
+-- Actor names are unique
+CREATE UNIQUE INDEX IF NOT EXISTS ux_actor_name ON actor (name);
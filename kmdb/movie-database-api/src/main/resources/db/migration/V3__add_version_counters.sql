@@ -0,0 +1,54 @@
+-- Per-entity versions: optimistic locking for JPA and strong ETags for single-entity GETs.
+-- Rows written outside JPA (import, generator) start at 0.
+ALTER TABLE movie ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE actor ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE genre ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+
+-- One counter per list resource, the strong ETag of its list pages. Triggers bump it on every change
+-- that can alter a page, whoever writes the row. Movie pages embed genres and actors, so changes to
+-- those and to the join tables bump the movie counter as well.
+CREATE TABLE IF NOT EXISTS change_counter (
+    name TEXT PRIMARY KEY,
+    value INTEGER NOT NULL
+) WITHOUT ROWID;
+INSERT OR IGNORE INTO change_counter (name, value) VALUES ('movie', 0), ('actor', 0), ('genre', 0);
+
+CREATE TRIGGER IF NOT EXISTS movie_changes_insert AFTER INSERT ON movie BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name = 'movie';
+END;
+CREATE TRIGGER IF NOT EXISTS movie_changes_update AFTER UPDATE ON movie BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name = 'movie';
+END;
+CREATE TRIGGER IF NOT EXISTS movie_changes_delete AFTER DELETE ON movie BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name = 'movie';
+END;
+CREATE TRIGGER IF NOT EXISTS movie_genre_changes_insert AFTER INSERT ON movie_genre BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name = 'movie';
+END;
+CREATE TRIGGER IF NOT EXISTS movie_genre_changes_delete AFTER DELETE ON movie_genre BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name = 'movie';
+END;
+CREATE TRIGGER IF NOT EXISTS movie_actor_changes_insert AFTER INSERT ON movie_actor BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name = 'movie';
+END;
+CREATE TRIGGER IF NOT EXISTS movie_actor_changes_delete AFTER DELETE ON movie_actor BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name = 'movie';
+END;
+CREATE TRIGGER IF NOT EXISTS actor_changes_insert AFTER INSERT ON actor BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name IN ('actor', 'movie');
+END;
+CREATE TRIGGER IF NOT EXISTS actor_changes_update AFTER UPDATE ON actor BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name IN ('actor', 'movie');
+END;
+CREATE TRIGGER IF NOT EXISTS actor_changes_delete AFTER DELETE ON actor BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name IN ('actor', 'movie');
+END;
+CREATE TRIGGER IF NOT EXISTS genre_changes_insert AFTER INSERT ON genre BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name IN ('genre', 'movie');
+END;
+CREATE TRIGGER IF NOT EXISTS genre_changes_update AFTER UPDATE ON genre BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name IN ('genre', 'movie');
+END;
+CREATE TRIGGER IF NOT EXISTS genre_changes_delete AFTER DELETE ON genre BEGIN
+    UPDATE change_counter SET value = value + 1 WHERE name IN ('genre', 'movie');
+END;
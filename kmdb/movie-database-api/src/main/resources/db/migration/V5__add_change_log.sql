@@ -0,0 +1,10 @@
+-- Append-only log of catalogue changes, read by consumers through /api/changes.
+-- Rows are written in the transaction of the change itself. SQLite runs one write transaction at a time,
+-- so sequence numbers commit in order: a reader that sees seq n has also seen every smaller one.
+CREATE TABLE IF NOT EXISTS change_log (
+    seq INTEGER PRIMARY KEY AUTOINCREMENT, -- Never reused, even if old rows are removed
+    entity TEXT,                           -- MOVIE, ACTOR or GENRE; NULL when the whole catalogue was reloaded
+    entity_id INTEGER,
+    change TEXT NOT NULL,                  -- CREATED, UPDATED, DELETED or RELOADED
+    changed_at INTEGER NOT NULL            -- Epoch milliseconds
+);
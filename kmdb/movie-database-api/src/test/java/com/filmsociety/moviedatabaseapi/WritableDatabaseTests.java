@@ -0,0 +1,23 @@
+package com.filmsociety.moviedatabaseapi;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+// Base for tests that write to the catalogue or assert on counters, sequence numbers or the sample data. Each
+// subclass runs on a fresh database file in its own context, instead of the shared in-memory test database, and
+// the context is closed afterwards, so no other test class sees its writes.
+@DirtiesContext
+public abstract class WritableDatabaseTests {
+
+    @TempDir
+    static Path tempDir; // One per test class
+
+    @DynamicPropertySource
+    static void databaseFile(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + tempDir.resolve("catalogue.db"));
+    }
+}
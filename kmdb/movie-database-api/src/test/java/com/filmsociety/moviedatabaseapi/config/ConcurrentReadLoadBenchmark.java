@@ -0,0 +1,119 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import com.filmsociety.moviedatabaseapi.MovieDatabaseApiApplication;
+import com.filmsociety.moviedatabaseapi.entity.Genre;
+import com.filmsociety.moviedatabaseapi.pagination.Cursor;
+import com.filmsociety.moviedatabaseapi.service.GenreService;
+import com.filmsociety.moviedatabaseapi.service.MovieService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Mixed read/write load against the default datasource and the prod (WAL, reader/writer pools) layout.
+// Reader threads page through movies while one writer keeps creating genres; prints throughput and SQLITE_BUSY failures.
+// Run with: mvn test -Pbenchmark -Dtest=ConcurrentReadLoadBenchmark -Dbenchmark.readers=8 -Dbenchmark.seconds=20
+@Tag("benchmark")
+class ConcurrentReadLoadBenchmark {
+
+    private static final int MOVIES = Integer.getInteger("benchmark.movies", 20_000);
+    private static final int READERS = Integer.getInteger("benchmark.readers", 8);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 20);
+    private static final int PAGE_SIZE = 50;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareDefaultWithWalReaderPools() throws Exception {
+        System.out.printf("%-8s %14s %14s %12s %12s%n", "profile", "reads/s", "writes/s", "busy reads", "busy writes");
+        run("default", tempDir.resolve("default.db"));
+        run("prod", tempDir.resolve("prod.db"));
+    }
+
+    private void run(String profile, Path databaseFile) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieDatabaseApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .run("--spring.datasource.url=jdbc:sqlite:" + databaseFile, // Arguments win over application.properties
+                        "--seed.movies=" + MOVIES,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.filmsociety.moviedatabaseapi=WARN")) {
+            MovieService movieService = context.getBean(MovieService.class);
+            GenreService genreService = context.getBean(GenreService.class);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong reads = new AtomicLong();
+            AtomicLong writes = new AtomicLong();
+            AtomicLong busyReads = new AtomicLong();
+            AtomicLong busyWrites = new AtomicLong();
+
+            ExecutorService pool = Executors.newFixedThreadPool(READERS + 1);
+            List<Runnable> workers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                Random random = new Random(r);
+                workers.add(() -> {
+                    while (running.get()) {
+                        String after = Cursor.encode(random.nextInt(MOVIES));
+                        try {
+                            movieService.getMoviesAfter(after, PAGE_SIZE, false);
+                            reads.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            count(e, busyReads);
+                        }
+                    }
+                });
+            }
+            workers.add(() -> {
+                long sequence = 0;
+                while (running.get()) {
+                    Genre genre = new Genre();
+                    genre.setName(profile + "-genre-" + sequence++);
+                    try {
+                        genreService.createGenre(genre);
+                        writes.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        count(e, busyWrites);
+                    }
+                }
+            });
+            List<Future<?>> results = new ArrayList<>();
+            workers.forEach(worker -> results.add(pool.submit(worker)));
+
+            TimeUnit.SECONDS.sleep(SECONDS);
+            running.set(false);
+            pool.shutdown();
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES); // Rethrows anything other than SQLITE_BUSY
+            }
+
+            System.out.printf("%-8s %14.1f %14.1f %12d %12d%n", profile,
+                    reads.get() / (double) SECONDS, writes.get() / (double) SECONDS, busyReads.get(), busyWrites.get());
+        }
+    }
+
+    // Lock contention surfaces as SQLITE_BUSY somewhere in the cause chain; anything else is a real failure
+    private void count(RuntimeException e, AtomicLong busy) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (String.valueOf(cause.getMessage()).contains("SQLITE_BUSY")) {
+                busy.incrementAndGet();
+                return;
+            }
+        }
+        throw e;
+    }
+}
@@ -0,0 +1,63 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The Prometheus scrape carries endpoint, service and repository timers, SQL statements per request,
+// Hibernate statistics, cache hits and pool waits. Runs the prod datasource layout on its own database file.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false) // Tests otherwise get a plain in-memory registry and no scrape endpoint
+@ActiveProfiles("prod")
+class MetricsTests extends WritableDatabaseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void prometheusScrapeCoversEveryLayer() throws Exception {
+        mockMvc.perform(get("/api/movies/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres/1")).andExpect(status().isOk()); // Served from the cache
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("http_server_sql_statements_bucket{")
+                .contains("service_invocations_seconds_bucket{")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("hibernate_statements_total")
+                .contains("hikaricp_connections_acquire_seconds_count{pool=\"sqlite-reader\"}")
+                .containsPattern("cache_gets_total\\{cache=\"genres\".*result=\"hit\".*} [1-9]");
+    }
+
+    @Test
+    void sqlStatementsAreCountedPerEndpoint() throws Exception {
+        mockMvc.perform(get("/api/movies/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/movies/999999")).andExpect(status().isNotFound());
+
+        DistributionSummary movieById = meterRegistry.get(SqlStatementMetrics.METRIC)
+                .tags("method", "GET", "uri", "/api/movies/{id}")
+                .summary();
+        assertThat(movieById.count()).isGreaterThanOrEqualTo(2);
+        assertThat(movieById.totalAmount()).isGreaterThanOrEqualTo(movieById.count()); // At least one query each
+    }
+}
@@ -0,0 +1,92 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Starts the prod datasource layout against a throwaway database file
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.springframework=INFO"})
+@AutoConfigureMockMvc
+@ActiveProfiles("prod")
+class SqliteDataSourceConfigTests {
+
+    @TempDir
+    static Path tempDir;
+
+    @DynamicPropertySource
+    static void databaseFile(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + tempDir.resolve("kmdb-prod.db"));
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("readerDataSource")
+    private HikariDataSource readerDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void databaseRunsInWalMode() {
+        String journalMode = new JdbcTemplate(dataSource).queryForObject("PRAGMA journal_mode", String.class);
+        assertEquals("wal", journalMode);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReaderPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        int activeReaders = readOnly.execute(tx -> {
+            jdbc.queryForObject("SELECT count(*) FROM movie", Long.class);
+            return readerDataSource.getHikariPoolMXBean().getActiveConnections();
+        });
+        assertEquals(1, activeReaders);
+
+        // Reader connections are opened read-only, so a stray write cannot slip through
+        assertThrows(Exception.class, () -> readOnly.executeWithoutResult(
+                tx -> jdbc.update("INSERT INTO genre(name) VALUES ('Noir')")));
+    }
+
+    @Test
+    void writesGoThroughTheWriterAndAreVisibleToReaders() throws Exception {
+        String response = mockMvc.perform(post("/api/genres")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Western\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = Long.parseLong(response.replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        mockMvc.perform(get("/api/genres/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Western"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.filmsociety.moviedatabaseapi.config;
+
+import com.filmsociety.moviedatabaseapi.MovieDatabaseApiApplication;
+import com.filmsociety.moviedatabaseapi.pagination.Cursor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Closed-loop HTTP load with many concurrent clients against the prod layout, once on Tomcat's platform
+// thread pool and once on virtual threads. Prints throughput, p50/p99 latency and failed requests.
+// Needs Java 21 for the virtual run (on Java 17 both runs use platform threads):
+// JAVA_HOME=/path/to/jdk-21 mvn test -Pbenchmark -Dtest=VirtualThreadLoadBenchmark -Dbenchmark.clients=2000
+// Add -DargLine=-Djdk.virtualThreadScheduler.parallelism=N to give the virtual run more carrier threads.
+@Tag("benchmark")
+class VirtualThreadLoadBenchmark {
+
+    private static final int MOVIES = Integer.getInteger("benchmark.movies", 20_000);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 2_000);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 30);
+    private static final int WARMUP_SECONDS = 5;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void comparePlatformWithVirtualThreads() throws Exception {
+        Path databaseFile = tempDir.resolve("load.db");
+        System.out.printf("Java %d, %d clients, %d s per run%n", Runtime.version().feature(), CLIENTS, SECONDS);
+        System.out.printf("%-10s %12s %10s %10s %10s%n", "threads", "requests/s", "p50 ms", "p99 ms", "failed");
+        run("prod", "platform", databaseFile, "--seed.movies=" + MOVIES); // Generates the catalogue once
+        run("prod,virtual", "virtual", databaseFile);
+    }
+
+    private void run(String profiles, String label, Path databaseFile, String... extraArgs) throws Exception {
+        List<String> args = new ArrayList<>(List.of("--spring.profiles.active=" + profiles,
+                "--spring.datasource.url=jdbc:sqlite:" + databaseFile,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.com.filmsociety.moviedatabaseapi=WARN"));
+        args.addAll(Arrays.asList(extraArgs));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieDatabaseApiApplication.class)
+                .run(args.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            load(port, WARMUP_SECONDS, null);
+            LatencyLog log = new LatencyLog();
+            load(port, SECONDS, log);
+            long[] latencies = log.sorted();
+            System.out.printf("%-10s %12.1f %10.1f %10.1f %10d%n", label, latencies.length / (double) SECONDS,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), log.failed);
+        }
+    }
+
+    // Every client sends a request, waits for the answer and sends the next one, for the given duration
+    private void load(int port, int seconds, LatencyLog log) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            Random random = new Random(c);
+            results.add(clients.submit(() -> {
+                while (running.get()) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path(random)))
+                            .timeout(Duration.ofSeconds(60)).build();
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    if (log != null && running.get()) {
+                        log.record(System.nanoTime() - start, ok);
+                    }
+                }
+                return null;
+            }));
+        }
+        TimeUnit.SECONDS.sleep(seconds);
+        running.set(false);
+        clients.shutdown();
+        for (Future<?> result : results) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+    }
+
+    // A mix of single-movie lookups and keyset list pages
+    private static String path(Random random) {
+        return random.nextInt(4) == 0
+                ? "/api/movies?size=20&after=" + Cursor.encode(random.nextInt(MOVIES))
+                : "/api/movies/" + (1 + random.nextInt(MOVIES));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[Math.min((int) (sorted.length * fraction), sorted.length - 1)] / 1_000_000.0;
+    }
+
+    // Latencies of successful requests in nanoseconds, plus the number of failed ones
+    private static class LatencyLog {
+        private long[] latencies = new long[1 << 16];
+        private int size;
+        private long failed;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (!ok) {
+                failed++;
+                return;
+            }
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
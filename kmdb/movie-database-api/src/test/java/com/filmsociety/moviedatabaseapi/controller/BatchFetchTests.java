@@ -0,0 +1,107 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Fetching many entities by ID takes a fixed number of statements, keeps the request order and lists the misses
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchFetchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private CatalogClient catalog;
+
+    @BeforeEach
+    void client() {
+        catalog = new CatalogClient(mockMvc, objectMapper);
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void moviesComeBackInRequestOrderWithTheirCollections() throws Exception {
+        JsonNode result = catalog.json(get("/api/movies").param("ids", "3,1,999999,2,3"));
+        assertThat(ids(result.get("items"))).containsExactly(3L, 1L, 2L);
+        assertThat(result.get("missing")).extracting(JsonNode::asLong).containsExactly(999999L);
+        assertThat(result.at("/items/0/title").asText()).isNotEmpty();
+        assertThat(result.at("/items/0/genres").isArray()).isTrue();
+        assertThat(result.at("/items/0/actors").isArray()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3); // Summaries, genres, actors
+    }
+
+    @Test
+    void largeBatchesArePostedAndChunked() throws Exception {
+        String ids = LongStream.rangeClosed(1, 1200).mapToObj(Long::toString).collect(Collectors.joining(","));
+        JsonNode result = catalog.json(post("/api/movies/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [" + ids + "]}"));
+        assertThat(result.get("items").size() + result.get("missing").size()).isEqualTo(1200);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3 * 3); // Three chunks of 500 IDs
+    }
+
+    @Test
+    void actorsAndGenresComeBackInRequestOrder() throws Exception {
+        JsonNode actors = catalog.json(get("/api/actors").param("ids", "2,1,999999"));
+        assertThat(ids(actors.get("items"))).containsExactly(2L, 1L);
+        assertThat(actors.get("missing")).extracting(JsonNode::asLong).containsExactly(999999L);
+
+        JsonNode genres = catalog.json(post("/api/genres/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [999999, 3, 1]}"));
+        assertThat(ids(genres.get("items"))).containsExactly(3L, 1L);
+        assertThat(genres.get("missing")).extracting(JsonNode::asLong).containsExactly(999999L);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2); // One per request
+    }
+
+    @Test
+    void rejectsEmptyOrOversizedBatches() throws Exception {
+        mockMvc.perform(get("/api/movies").param("ids", "")).andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/actors/batch").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        String tooMany = LongStream.rangeClosed(1, 10_001).mapToObj(Long::toString).collect(Collectors.joining(","));
+        mockMvc.perform(post("/api/genres/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + tooMany + "]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        return StreamSupport.stream(array.spliterator(), false)
+                .map(node -> node.get("id").asLong())
+                .toList();
+    }
+}
@@ -0,0 +1,132 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.config.CacheConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Repeated genre and actor reads are served from the cache; writes invalidate it
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CachingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void repeatedReadsDoNotTouchTheDatabase() throws Exception {
+        mockMvc.perform(get("/api/genres/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/actors/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres?page=0&size=10")).andExpect(status().isOk());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/genres/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/actors/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres?page=0&size=10")).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void genreUpdatesInvalidateTheCache() throws Exception {
+        String created = mockMvc.perform(post("/api/genres").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Cached Western\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = Long.parseLong(created.replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        mockMvc.perform(get("/api/genres/" + id)).andExpect(jsonPath("$.name").value("Cached Western"));
+        mockMvc.perform(patch("/api/genres/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Cached Spaghetti Western\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres/" + id)).andExpect(jsonPath("$.name").value("Cached Spaghetti Western"));
+
+        mockMvc.perform(get("/api/genres?page=0&size=1000"))
+                .andExpect(jsonPath("$[?(@.id == " + id + ")].name").value("Cached Spaghetti Western"));
+    }
+
+    @Test
+    void genresCreatedWithAMovieInvalidateTheLists() throws Exception {
+        mockMvc.perform(get("/api/genres?page=0&size=1000")).andExpect(status().isOk());
+        String created = mockMvc.perform(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Cached Frontier\", \"releaseYear\": 1966, \"duration\": 161, "
+                                + "\"genres\": [{\"name\": \"Cached Acid Western\"}], \"actors\": [{\"id\": 1}]}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = Long.parseLong(created.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+
+        mockMvc.perform(get("/api/genres?page=0&size=1000"))
+                .andExpect(jsonPath("$[?(@.name == 'Cached Acid Western')]").exists());
+        mockMvc.perform(delete("/api/movies/" + id)).andExpect(status().isNoContent());
+    }
+
+    @Test
+    void evictionsWaitForTheCommit() throws Exception {
+        mockMvc.perform(get("/api/genres?page=0&size=10")).andExpect(status().isOk());
+        Cache genreLists = cacheManager.getCache(CacheConfig.GENRE_LISTS);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(transaction -> {
+            genreLists.clear();
+            assertThat(genreLists.get("page:0:10")).isNotNull(); // Readers still see the committed lists
+        });
+        assertThat(genreLists.get("page:0:10")).isNull();
+    }
+
+    @Test
+    void actorUpdatesInvalidateTheCache() throws Exception {
+        mockMvc.perform(get("/api/actors/3")).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/actors/3").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"birthDate\": \"1956-07-10\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/actors/3")).andExpect(jsonPath("$.birthDate").value("1956-07-10"));
+        mockMvc.perform(patch("/api/actors/3").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"birthDate\": \"1956-07-09\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void cacheHitsAreExposedAsMetrics() throws Exception {
+        mockMvc.perform(get("/api/genres/2")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres/2")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:genres").param("tag", "result:hit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").isNumber());
+    }
+}
@@ -0,0 +1,68 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Requests shared by the controller tests: creates actors and movies, reads JSON responses and walks keyset pages
+public class CatalogClient {
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    public CatalogClient(MockMvc mockMvc, ObjectMapper objectMapper) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+    }
+
+    public long createActor(String name) throws Exception {
+        return json(post("/api/actors").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"" + name + "\", \"birthDate\": \"1970-01-01\"}"), 201).get("id").asLong();
+    }
+
+    // A movie from 2020 with the given cast and no genres
+    public long createMovie(String title, long... actorIds) throws Exception {
+        String cast = Arrays.stream(actorIds).mapToObj(id -> "{\"id\": " + id + "}").collect(Collectors.joining(", "));
+        return json(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"" + title + "\", \"releaseYear\": 2020, \"duration\": 90, "
+                        + "\"actors\": [" + cast + "]}"), 201).get("id").asLong();
+    }
+
+    public JsonNode json(String url) throws Exception {
+        return json(get(url));
+    }
+
+    public JsonNode json(RequestBuilder request) throws Exception {
+        return json(request, 200);
+    }
+
+    public JsonNode json(RequestBuilder request, int expectedStatus) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    // Follow nextCursor from the first page until the last page and collect every row
+    public List<JsonNode> walk(String url) throws Exception {
+        List<JsonNode> rows = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            JsonNode page = json(get(url).param("after", cursor));
+            page.get("content").forEach(rows::add);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        }
+        return rows;
+    }
+}
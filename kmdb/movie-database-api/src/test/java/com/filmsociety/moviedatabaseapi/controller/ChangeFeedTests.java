@@ -0,0 +1,207 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every catalogue write leaves one change log row per entity, readable by sequence number and as an event stream.
+// Runs on its own database file and a real port, so the stream can be read line by line.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"changes.stream.heartbeat=200ms", "changes.stream.max-subscribers=2"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ChangeFeedTests extends WritableDatabaseTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CatalogClient catalog;
+
+    @BeforeEach
+    void client() {
+        catalog = new CatalogClient(mockMvc, objectMapper);
+    }
+
+    @Test
+    void everyWriteIsLoggedInOrder() throws Exception {
+        long since = lastSeq();
+        long genre = catalog.json(post("/api/genres").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Log Genre\"}"), 201).get("id").asLong();
+        long actor = catalog.createActor("Log Actor");
+        long other = catalog.createActor("Log Actor Two");
+        long movie = catalog.json(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Log Movie\", \"releaseYear\": 2001, \"duration\": 90, "
+                        + "\"genres\": [{\"id\": " + genre + "}], \"actors\": [{\"id\": " + actor + "}]}"), 201)
+                .get("id").asLong();
+        catalog.json(patch("/api/movies/" + movie).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"add\": [" + other + "]}"), 200);
+        catalog.json(patch("/api/genres/" + genre).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Log Genre Renamed\"}"), 200);
+        mockMvc.perform(delete("/api/movies/" + movie)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/actors/" + other)).andExpect(status().isNoContent());
+
+        JsonNode page = catalog.json(get("/api/changes").param("since", Long.toString(since)));
+        assertThat(changes(page)).containsExactly(
+                "GENRE CREATED " + genre, "ACTOR CREATED " + actor, "ACTOR CREATED " + other,
+                "MOVIE CREATED " + movie, "MOVIE UPDATED " + movie, "GENRE UPDATED " + genre, "MOVIE UPDATED " + movie,
+                "MOVIE DELETED " + movie, "ACTOR DELETED " + other);
+        assertThat(page.get("more").asBoolean()).isFalse();
+        assertThat(page.get("lastSeq").asLong()).isEqualTo(page.at("/changes/8/seq").asLong());
+        assertThat(page.at("/changes/0/changedAt").asText()).isNotEmpty();
+
+        // Paging with lastSeq returns the same changes
+        JsonNode first = catalog.json(get("/api/changes").param("since", Long.toString(since)).param("limit", "5"));
+        assertThat(first.get("more").asBoolean()).isTrue();
+        JsonNode rest = catalog.json(get("/api/changes").param("since", first.get("lastSeq").asText()));
+        assertThat(Stream.concat(changes(first).stream(), changes(rest).stream())).containsExactlyElementsOf(changes(page));
+
+        // A write that fails leaves nothing behind
+        mockMvc.perform(patch("/api/movies/1").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"add\": [999999]}")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/actors").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Log Actor\", \"birthDate\": \"1970-01-01\"}")).andExpect(status().isConflict());
+        mockMvc.perform(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Log Movie Two\", \"releaseYear\": 2002, \"duration\": 90, \"genres\": [{\"id\": "
+                        + genre + "}], \"actors\": [{\"name\": \"Log Actor\", \"birthDate\": \"1970-01-01\"}]}"))
+                .andExpect(status().isConflict()); // A new cast member may not take an existing name
+        assertThat(changes(catalog.json(get("/api/changes").param("since", page.get("lastSeq").asText())))).isEmpty();
+    }
+
+    @Test
+    void actorsAndGenresCreatedWithAMovieAreLogged() throws Exception {
+        long since = lastSeq();
+        JsonNode movie = catalog.json(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Nested Log Movie\", \"releaseYear\": 2003, \"duration\": 95, "
+                        + "\"genres\": [{\"name\": \"Nested Log Genre\"}], "
+                        + "\"actors\": [{\"name\": \"Nested Log Actor\", \"birthDate\": \"1970-01-01\"}]}"), 201);
+
+        assertThat(changes(catalog.json(get("/api/changes").param("since", Long.toString(since))))).containsExactly(
+                "ACTOR CREATED " + movie.at("/actors/0/id").asLong(), "GENRE CREATED " + movie.at("/genres/0/id").asLong(),
+                "MOVIE CREATED " + movie.get("id").asLong());
+    }
+
+    @Test
+    void moviesWhoseVersionsChangeWithAnActorAreLogged() throws Exception {
+        long actor = catalog.createActor("Embedded Log Actor");
+        long movie = catalog.createMovie("Embedded Log Movie", actor);
+        long since = lastSeq();
+        String etag = mockMvc.perform(get("/api/movies/" + movie)).andReturn().getResponse().getHeader("ETag");
+
+        catalog.json(patch("/api/actors/" + actor).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Embedded Log Actor Renamed\"}"), 200);
+        mockMvc.perform(delete("/api/actors/" + actor).param("force", "true")).andExpect(status().isNoContent());
+
+        assertThat(changes(catalog.json(get("/api/changes").param("since", Long.toString(since))))).containsExactly(
+                "ACTOR UPDATED " + actor, "MOVIE UPDATED " + movie, "ACTOR DELETED " + actor, "MOVIE UPDATED " + movie);
+        mockMvc.perform(get("/api/movies/" + movie).header("If-None-Match", etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void rejectsBadParameters() throws Exception {
+        mockMvc.perform(get("/api/changes").param("since", "-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/changes").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/changes").param("limit", "1001")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Timeout(30)
+    void streamDeliversCommittedChanges() throws Exception {
+        long since = lastSeq();
+        HttpClient client = HttpClient.newHttpClient();
+        try (Stream<String> first = openStream(client, "?since=" + since, null);
+             Stream<String> second = openStream(client, "", Long.toString(since))) {
+            HttpResponse<Stream<String>> full = client.send(streamRequest("", null), HttpResponse.BodyHandlers.ofLines());
+            assertThat(full.statusCode()).isEqualTo(503); // Two subscribers at most in this test
+            assertThat(full.headers().firstValue("Retry-After")).isPresent();
+
+            long actor = catalog.createActor("Streamed Actor");
+            long genre = catalog.json(post("/api/genres").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\": \"Streamed Genre\"}"), 201).get("id").asLong();
+
+            for (Stream<String> stream : List.of(first, second)) { // The second one resumes from Last-Event-ID
+                Iterator<String> lines = stream.iterator();
+                JsonNode created = nextChange(lines);
+                assertThat(created.get("entity").asText() + " " + created.get("id").asLong()).isEqualTo("ACTOR " + actor);
+                assertThat(created.get("seq").asLong()).isEqualTo(since + 1);
+                JsonNode next = nextChange(lines);
+                assertThat(next.get("entity").asText() + " " + next.get("id").asLong()).isEqualTo("GENRE " + genre);
+            }
+        }
+    }
+
+    private Stream<String> openStream(HttpClient client, String query, String lastEventId) throws Exception {
+        HttpResponse<Stream<String>> response = client.send(streamRequest(query, lastEventId),
+                HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        return response.body();
+    }
+
+    private HttpRequest streamRequest(String query, String lastEventId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/changes/stream" + query))
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return request.build();
+    }
+
+    // The data of the next change event, checked against its id; heartbeat comments are skipped
+    private JsonNode nextChange(Iterator<String> lines) throws Exception {
+        String id = null;
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.startsWith("id:")) {
+                id = line.substring(3);
+            } else if (line.startsWith("data:")) {
+                JsonNode change = objectMapper.readTree(line.substring(5));
+                assertThat(change.get("seq").asText()).isEqualTo(id);
+                return change;
+            }
+        }
+        throw new AssertionError("Stream ended");
+    }
+
+    private long lastSeq() throws Exception {
+        return catalog.json(get("/api/changes").param("limit", "1000")).get("lastSeq").asLong();
+    }
+
+    private static List<String> changes(JsonNode page) {
+        return StreamSupport.stream(page.get("changes").spliterator(), false)
+                .map(change -> change.get("entity").asText() + " " + change.get("change").asText() + " " + change.get("id").asLong())
+                .toList();
+    }
+}
@@ -0,0 +1,146 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Co-star and path endpoints answer from the in-memory graph, which must follow every committed cast change.
+// A tiny overlay limit makes most changes also rebuild the arrays. Runs on its own database file.
+@SpringBootTest(properties = "costar.max-overlay=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CoStarTests extends WritableDatabaseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CatalogClient catalog;
+
+    @BeforeEach
+    void client() {
+        catalog = new CatalogClient(mockMvc, objectMapper);
+    }
+
+    @Test
+    void coStarsOfEverySampleActorMatchTheDatabase() throws Exception {
+        assertCoStarsMatchDatabase();
+    }
+
+    @Test
+    void pathFollowsSharedMovies() throws Exception {
+        long a = catalog.createActor("Path Actor A");
+        long b = catalog.createActor("Path Actor B");
+        long c = catalog.createActor("Path Actor C");
+        long loner = catalog.createActor("Path Actor Loner");
+        long first = catalog.createMovie("Path Movie One", a, b);
+        long second = catalog.createMovie("Path Movie Two", b, c);
+
+        JsonNode path = catalog.json(get("/api/actors/" + a + "/path/" + c));
+        assertThat(path.get("degrees").asInt()).isEqualTo(2);
+        assertThat(ids(path.get("actors"))).containsExactly(a, b, c);
+        assertThat(ids(path.get("movies"))).containsExactly(first, second);
+        assertThat(path.at("/movies/0/title").asText()).isEqualTo("Path Movie One");
+
+        assertThat(catalog.json(get("/api/actors/" + c + "/path/" + a)).get("degrees").asInt()).isEqualTo(2);
+        assertThat(catalog.json(get("/api/actors/" + a + "/path/" + a)).get("degrees").asInt()).isZero();
+        mockMvc.perform(get("/api/actors/" + a + "/path/" + c).param("maxDegrees", "1"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/actors/" + a + "/path/" + loner))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value(startsWith("No path")));
+    }
+
+    @Test
+    void castChangesAreVisibleToTheNextQuery() throws Exception {
+        long a = catalog.createActor("Change Actor A");
+        long b = catalog.createActor("Change Actor B");
+        long c = catalog.createActor("Change Actor C");
+        long movie = catalog.createMovie("Change Movie", a, b);
+        assertThat(coStarIds(a)).containsExactly(b);
+
+        mockMvc.perform(patch("/api/movies/" + movie).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"actors\": [" + a + ", " + c + "]}"))
+                .andExpect(status().isOk());
+        assertThat(coStarIds(a)).containsExactly(c);
+        assertThat(coStarIds(b)).isEmpty();
+
+        mockMvc.perform(delete("/api/movies/" + movie)).andExpect(status().isNoContent());
+        assertThat(coStarIds(a)).isEmpty();
+
+        catalog.createMovie("Change Movie Again", a, b);
+        catalog.createMovie("Change Movie Sequel", a, b, c);
+        JsonNode coStars = catalog.json(get("/api/actors/" + a + "/costars"));
+        assertThat(ids(coStars)).containsExactly(b, c); // Most shared movies first
+        assertThat(coStars.at("/0/sharedMovies").asInt()).isEqualTo(2);
+        assertThat(coStars.at("/0/name").asText()).isEqualTo("Change Actor B");
+
+        mockMvc.perform(delete("/api/actors/" + b).param("force", "true")).andExpect(status().isNoContent());
+        assertThat(coStarIds(a)).containsExactly(c);
+
+        assertCoStarsMatchDatabase();
+    }
+
+    @Test
+    void rejectsUnknownActorsAndBadParameters() throws Exception {
+        mockMvc.perform(get("/api/actors/999999/costars")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/actors/1/path/999999")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/actors/1/costars").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/actors/1/path/2").param("maxDegrees", "0")).andExpect(status().isBadRequest());
+        assertThat(catalog.json(get("/api/actors/1/costars").param("limit", "1")).size()).isLessThanOrEqualTo(1);
+    }
+
+    // Every actor's co-star counts from the endpoint against a self-join on movie_actor
+    private void assertCoStarsMatchDatabase() throws Exception {
+        for (Long actor : jdbcTemplate.queryForList("SELECT id FROM actor", Long.class)) {
+            Map<Long, Integer> expected = new HashMap<>();
+            jdbcTemplate.query("SELECT other.actor_id, count(*) FROM movie_actor own "
+                            + "JOIN movie_actor other ON other.movie_id = own.movie_id AND other.actor_id <> own.actor_id "
+                            + "WHERE own.actor_id = ? GROUP BY other.actor_id",
+                    rs -> {
+                        expected.put(rs.getLong(1), rs.getInt(2));
+                    }, actor);
+            Map<Long, Integer> actual = new HashMap<>();
+            catalog.json(get("/api/actors/" + actor + "/costars").param("limit", "10000"))
+                    .forEach(coStar -> actual.put(coStar.get("id").asLong(), coStar.get("sharedMovies").asInt()));
+            assertThat(actual).as("co-stars of actor %d", actor).isEqualTo(expected);
+        }
+    }
+
+    private List<Long> coStarIds(long actorId) throws Exception {
+        return ids(catalog.json(get("/api/actors/" + actorId + "/costars")));
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        return StreamSupport.stream(array.spliterator(), false)
+                .map(node -> node.get("id").asLong())
+                .toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Precompressed list pages decode to the same JSON as the normal responses and follow every change.
+// A low size threshold makes the small sample pages worth compressing. Runs on its own database file.
+@SpringBootTest(properties = "server.compression.min-response-size=256B")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CompressionTests extends WritableDatabaseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void gzippedMoviePageMatchesPlainPage() throws Exception {
+        MockHttpServletResponse gzipped = gzipGet("/api/movies?page=0&size=10");
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gzipped.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(gzipped.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(decode(gzipped)).isEqualTo(plainGet("/api/movies?page=0&size=10"));
+    }
+
+    @Test
+    void cachedPageIsServedWithoutQueriesUntilTheCatalogueChanges() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        gzipGet("/api/movies?page=1&size=5");
+
+        statistics.clear();
+        String cached = decode(gzipGet("/api/movies?page=1&size=5"));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cached).isEqualTo(plainGet("/api/movies?page=1&size=5"));
+
+        mockMvc.perform(post("/api/genres").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Compression Test Genre\"}"))
+                .andExpect(status().isCreated());
+        String genres = decode(gzipGet("/api/genres?page=0&size=1000"));
+        assertThat(genres).contains("Compression Test Genre").isEqualTo(plainGet("/api/genres?page=0&size=1000"));
+
+        statistics.clear();
+        gzipGet("/api/movies?page=1&size=5"); // Adding a genre moves the movie counter too
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+    }
+
+    @Test
+    void smallBodiesAndClientsWithoutGzipGetPlainJson() throws Exception {
+        MockHttpServletResponse small = gzipGet("/api/genres?page=0&size=1");
+        assertThat(small.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(small.getContentAsString()).isEqualTo(plainGet("/api/genres?page=0&size=1"));
+
+        MockHttpServletResponse refused = mockMvc.perform(get("/api/movies?page=0&size=10")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(refused.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void acceptEncodingIsParsed() {
+        assertThat(PrecompressedResponses.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(PrecompressedResponses.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(PrecompressedResponses.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PrecompressedResponses.acceptsGzip("deflate")).isFalse();
+        assertThat(PrecompressedResponses.acceptsGzip(null)).isFalse();
+    }
+
+    private MockHttpServletResponse gzipGet(String url) throws Exception {
+        return mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private String plainGet(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    // The body as sent, gunzipped if it was compressed
+    private static String decode(MockHttpServletResponse response) throws IOException {
+        if (!"gzip".equals(response.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            return response.getContentAsString();
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
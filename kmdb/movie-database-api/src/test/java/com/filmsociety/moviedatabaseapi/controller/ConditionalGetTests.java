@@ -0,0 +1,113 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// ETags from version counters: unchanged resources answer 304 without loading anything, every change moves the tag.
+// Runs on its own database file because it modifies the sample data.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTests extends WritableDatabaseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void unchangedMovieIsAnsweredWithoutLoadingIt() throws Exception {
+        String etag = etagOf("/api/movies/1");
+        assertThat(etag).startsWith("\"movie-1-v");
+
+        statistics.clear();
+        mockMvc.perform(get("/api/movies/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); // The version lookup
+
+        mockMvc.perform(get("/api/movies/1").header("If-None-Match", "\"movie-1-v999\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void castChangesMoveTheMovieTag() throws Exception {
+        String before = etagOf("/api/movies/2");
+        mockMvc.perform(patch("/api/movies/2").contentType(MediaType.APPLICATION_JSON).content("{\"actors\": [1, 2]}"))
+                .andExpect(status().isOk());
+        String afterCastChange = etagOf("/api/movies/2");
+        assertThat(afterCastChange).isNotEqualTo(before);
+
+        // Renaming an actor changes the embedded copy in every movie of the actor
+        mockMvc.perform(patch("/api/actors/2").contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Renamed Actor\"}"))
+                .andExpect(status().isOk());
+        assertThat(etagOf("/api/movies/2")).isNotEqualTo(afterCastChange);
+    }
+
+    @Test
+    void forceDeletingAGenreMovesTheTagsOfItsMovies() throws Exception {
+        long movieId = jdbcTemplate.queryForObject("SELECT movie_id FROM movie_genre WHERE genre_id = 3 LIMIT 1", Long.class);
+        String movieTag = etagOf("/api/movies/" + movieId);
+        String untouchedTag = etagOf("/api/genres/1");
+
+        mockMvc.perform(delete("/api/genres/3").param("force", "true")).andExpect(status().isNoContent());
+        assertThat(etagOf("/api/movies/" + movieId)).isNotEqualTo(movieTag);
+        assertThat(etagOf("/api/genres/1")).isEqualTo(untouchedTag);
+    }
+
+    @Test
+    void listPagesChangeWithTheirResource() throws Exception {
+        String genres = etagOf("/api/genres?page=0&size=10");
+        String actors = etagOf("/api/actors?page=0&size=10");
+        String movies = etagOf("/api/movies?page=0&size=10");
+        statistics.clear();
+        mockMvc.perform(get("/api/movies?page=0&size=10").header("If-None-Match", movies))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero(); // The counter is read with plain JDBC
+
+        mockMvc.perform(post("/api/genres").contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Western\"}"))
+                .andExpect(status().isCreated());
+        assertThat(etagOf("/api/genres?page=0&size=10")).isNotEqualTo(genres);
+        assertThat(etagOf("/api/actors?page=0&size=10")).isEqualTo(actors); // Other resources keep their tags
+        mockMvc.perform(get("/api/genres?page=0&size=10").header("If-None-Match", genres))
+                .andExpect(status().isOk());
+    }
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+    }
+}
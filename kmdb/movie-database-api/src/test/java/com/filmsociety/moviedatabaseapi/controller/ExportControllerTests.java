@@ -0,0 +1,81 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.moviedatabaseapi.repository.MovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// NDJSON export streams the same movie documents the REST API serves
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Test
+    void exportsEveryMovieWithItsGenresAndActors() throws Exception {
+        List<JsonNode> movies = export("/api/export/movies");
+
+        assertThat(movies).hasSize((int) movieRepository.count());
+        assertThat(movies).extracting(movie -> movie.get("id").asLong()).isSorted();
+
+        // Each exported line matches GET /api/movies/{id}
+        JsonNode exported = movies.get(0);
+        String body = mockMvc.perform(get("/api/movies/" + exported.get("id").asLong()))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode served = objectMapper.readTree(body);
+        assertThat(exported.get("title")).isEqualTo(served.get("title"));
+        assertThat(sortedIds(exported.get("genres"))).isEqualTo(sortedIds(served.get("genres")));
+        assertThat(sortedIds(exported.get("actors"))).isEqualTo(sortedIds(served.get("actors")));
+    }
+
+    @Test
+    void exportsActorsAndGenres() throws Exception {
+        assertThat(export("/api/export/actors")).allSatisfy(actor -> assertThat(actor.has("birthDate")).isTrue());
+        assertThat(export("/api/export/genres")).isNotEmpty();
+    }
+
+    // Run the streaming request to completion and parse one JSON document per line
+    private List<JsonNode> export(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url)).andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private List<Long> sortedIds(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        array.forEach(node -> ids.add(node.get("id").asLong()));
+        ids.sort(null);
+        return ids;
+    }
+}
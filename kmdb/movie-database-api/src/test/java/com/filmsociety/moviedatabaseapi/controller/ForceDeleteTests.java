@@ -0,0 +1,88 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Force deletes must drop the join rows with one statement instead of saving every linked movie.
+// Runs on its own generated catalogue, where the most popular genre and actor have hundreds of movies.
+@SpringBootTest(properties = {"seed.movies=2000", "seed.actors=200", "seed.genres=5"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ForceDeleteTests extends WritableDatabaseTests {
+
+    // Existence check, IDs and version bump of the linked movies, bulk link delete, entity load and entity delete,
+    // whatever the number of links
+    private static final long MAX_STATEMENTS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void forceDeletingAGenreDropsAllLinksInBoundedStatements() throws Exception {
+        long genreId = mostLinked("movie_genre", "genre_id");
+        assertThat(count("SELECT count(*) FROM movie_genre WHERE genre_id = ?", genreId)).isGreaterThan(100);
+        mockMvc.perform(delete("/api/genres/" + genreId)).andExpect(status().isConflict());
+
+        statistics.clear();
+        mockMvc.perform(delete("/api/genres/" + genreId).param("force", "true")).andExpect(status().isNoContent());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(1); // Only the genre itself
+
+        assertThat(count("SELECT count(*) FROM movie_genre WHERE genre_id = ?", genreId)).isZero();
+        assertThat(count("SELECT count(*) FROM genre WHERE id = ?", genreId)).isZero();
+        assertThat(count("SELECT count(*) FROM movie")).isEqualTo(2000); // Movies are kept
+    }
+
+    @Test
+    void forceDeletingAnActorDropsAllLinksInBoundedStatements() throws Exception {
+        long actorId = mostLinked("movie_actor", "actor_id");
+        assertThat(count("SELECT count(*) FROM movie_actor WHERE actor_id = ?", actorId)).isGreaterThan(100);
+        mockMvc.perform(delete("/api/actors/" + actorId)).andExpect(status().isConflict());
+
+        statistics.clear();
+        mockMvc.perform(delete("/api/actors/" + actorId).param("force", "true")).andExpect(status().isNoContent());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(1); // Only the actor itself
+
+        assertThat(count("SELECT count(*) FROM movie_actor WHERE actor_id = ?", actorId)).isZero();
+        assertThat(count("SELECT count(*) FROM actor WHERE id = ?", actorId)).isZero();
+        mockMvc.perform(delete("/api/actors/" + actorId).param("force", "true")).andExpect(status().isNotFound());
+    }
+
+    private long mostLinked(String joinTable, String column) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM " + joinTable
+                + " GROUP BY " + column + " ORDER BY count(*) DESC LIMIT 1", Long.class);
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,61 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Title and actor name search through the FTS5 indexes
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FullTextSearchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void matchesTitleTokensByPrefix() throws Exception {
+        mockMvc.perform(get("/api/movies/search").param("title", "matr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].title", hasItem("The Matrix")));
+        mockMvc.perform(get("/api/movies/search").param("title", "lost transl"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Lost in Translation"));
+    }
+
+    @Test
+    void matchesActorNamesByPrefix() throws Exception {
+        mockMvc.perform(get("/api/actors").param("name", "reev"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem("Keanu Reeves")));
+    }
+
+    @Test
+    void indexFollowsInsertsThroughTriggers() throws Exception {
+        mockMvc.perform(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Zyxwvut Searchable\", \"releaseYear\": 2020, \"duration\": 90}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/movies/search").param("title", "zyxw"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].title", hasItem("Zyxwvut Searchable")));
+    }
+
+    @Test
+    void ignoresFullTextSyntaxInInput() throws Exception {
+        mockMvc.perform(get("/api/movies/search").param("title", "\"matrix OR *"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/movies/search").param("title", "***"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+}
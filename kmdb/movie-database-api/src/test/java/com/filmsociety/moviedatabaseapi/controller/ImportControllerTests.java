@@ -0,0 +1,53 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Bulk NDJSON import: valid rows land in the database, bad rows are reported without aborting the load
+@SpringBootTest(properties = "import.batch-size=2") // Small batches so the upload spans several transactions
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void importsValidRowsAndReportsRejectedOnes() throws Exception {
+        String ndjson = String.join("\n",
+                "{\"title\": \"Qwimport One\", \"releaseYear\": 2001, \"duration\": 100, \"genres\": [1, 2], \"actors\": [1]}",
+                "{\"title\": \"Qwimport Two\", \"releaseYear\": 2002, \"duration\": 110, \"genres\": [{\"id\": 3}]}",
+                "not json",
+                "",
+                "{\"title\": \"Qwimport Orphan\", \"releaseYear\": 2003, \"duration\": 95, \"actors\": [999999]}",
+                "{\"releaseYear\": 2004}",
+                "{\"title\": \"Qwimport Three\", \"releaseYear\": 2005, \"duration\": 120, \"actors\": [2, 3]}");
+
+        mockMvc.perform(post("/api/import/movies").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(6))
+                .andExpect(jsonPath("$.rowsImported").value(3))
+                .andExpect(jsonPath("$.rowsFailed").value(3))
+                .andExpect(jsonPath("$.errors[*].line", containsInAnyOrder(3, 5, 6)))
+                .andExpect(jsonPath("$.errors[*].message", hasItem("Actor not found with ID: 999999")));
+
+        mockMvc.perform(get("/api/movies/search").param("title", "qwimport one"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].genres[*].id", containsInAnyOrder(1, 2)))
+                .andExpect(jsonPath("$[0].actors[*].id", containsInAnyOrder(1)));
+        mockMvc.perform(get("/api/movies/search").param("title", "qwimport three"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].actors[*].id", containsInAnyOrder(2, 3)));
+    }
+}
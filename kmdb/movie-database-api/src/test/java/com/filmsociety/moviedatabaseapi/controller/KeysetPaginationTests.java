@@ -0,0 +1,83 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.moviedatabaseapi.repository.ActorRepository;
+import com.filmsociety.moviedatabaseapi.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Walks the catalogue with ?after= cursors and checks every row is served exactly once
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class KeysetPaginationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    private CatalogClient catalog;
+
+    @BeforeEach
+    void client() {
+        catalog = new CatalogClient(mockMvc, objectMapper);
+    }
+
+    @Test
+    void walksAllMoviesById() throws Exception {
+        List<JsonNode> movies = catalog.walk("/api/movies?size=3");
+        assertThat(movies).hasSize((int) movieRepository.count());
+        assertThat(movies).extracting(movie -> movie.get("id").asLong()).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void walksAllMoviesByReleaseYear() throws Exception {
+        List<JsonNode> movies = catalog.walk("/api/movies?size=4&sort=releaseYear");
+        assertThat(movies).hasSize((int) movieRepository.count());
+        assertThat(movies).extracting(movie -> movie.get("releaseYear").asInt()).isSorted();
+        assertThat(movies).extracting(movie -> movie.get("id").asLong()).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void walksAllActors() throws Exception {
+        List<JsonNode> actors = catalog.walk("/api/actors?size=4");
+        assertThat(actors).hasSize((int) actorRepository.count());
+        assertThat(actors).extracting(actor -> actor.get("id").asLong()).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void rejectsMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/movies?after=not-a-cursor")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/genres?after=%%%")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsCursorWithFilterOrOversizedPage() throws Exception {
+        mockMvc.perform(get("/api/movies?after=&genre=1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/movies?after=&actor=1")).andExpect(status().isBadRequest());
+        for (String url : List.of("/api/movies?after=", "/api/actors?after=", "/api/genres?after=",
+                "/api/movies/filter?genre=1")) {
+            mockMvc.perform(get(url + "&size=" + Integer.MAX_VALUE)).andExpect(status().isBadRequest());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Cast edits write only the join rows that change. Every written movie_actor or movie row bumps the movie
+// change counter once (see the V3 migration), so the counter's increase is the number of rows touched.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MovieActorDiffTests extends WritableDatabaseTests {
+
+    private static final int CAST = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void swappingOneActorTouchesTwoJoinRows() throws Exception {
+        List<Long> cast = new ArrayList<>();
+        long movieId = ensemble("Swap", cast);
+        long newcomer = actor("Swap Newcomer");
+        long version = version(movieId);
+        long before = changes();
+
+        statistics.clear();
+        patchActors(movieId, "{\"add\": [" + newcomer + "], \"remove\": [" + cast.get(0) + "]}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.actors.length()").value(CAST));
+        assertThat(changes() - before).isEqualTo(3); // One link deleted, one inserted, the movie's version
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(8); // Whatever the cast size
+        assertThat(version(movieId)).isEqualTo(version + 1);
+        assertThat(castOf(movieId)).contains(newcomer).doesNotContain(cast.get(0)).hasSize(CAST);
+    }
+
+    @Test
+    void replacingTheCastWritesOnlyTheDifference() throws Exception {
+        List<Long> cast = new ArrayList<>();
+        long movieId = ensemble("Replace", cast);
+        List<Long> smaller = cast.subList(1, cast.size());
+        long before = changes();
+
+        patchActors(movieId, "{\"actors\": " + smaller + "}").andExpect(status().isOk());
+        assertThat(changes() - before).isEqualTo(2); // One link deleted and the movie's version
+        assertThat(castOf(movieId)).containsExactlyInAnyOrderElementsOf(smaller);
+    }
+
+    @Test
+    void unchangedCastWritesNothing() throws Exception {
+        List<Long> cast = new ArrayList<>();
+        long movieId = ensemble("Unchanged", cast);
+        long version = version(movieId);
+        long before = changes();
+
+        patchActors(movieId, "{\"add\": [" + cast.get(5) + "], \"remove\": [999999]}").andExpect(status().isOk());
+        assertThat(changes()).isEqualTo(before);
+        assertThat(version(movieId)).isEqualTo(version);
+    }
+
+    @Test
+    void invalidChangesLeaveTheCastAlone() throws Exception {
+        List<Long> cast = new ArrayList<>();
+        long movieId = ensemble("Invalid", cast);
+
+        patchActors(movieId, "{\"add\": [999999], \"remove\": [" + cast.get(0) + "]}").andExpect(status().isNotFound());
+        patchActors(movieId, "{\"add\": [" + cast.get(0) + "], \"remove\": [" + cast.get(0) + "]}")
+                .andExpect(status().isBadRequest());
+        patchActors(movieId, "{\"actors\": [], \"add\": [" + cast.get(0) + "]}").andExpect(status().isBadRequest());
+        patchActors(movieId, "{}").andExpect(status().isBadRequest());
+        patchActors(999999, "{\"add\": [" + cast.get(0) + "]}").andExpect(status().isNotFound());
+        assertThat(castOf(movieId)).containsExactlyInAnyOrderElementsOf(cast);
+    }
+
+    // A movie with CAST new actors, written directly so the setup is not what is being measured
+    private long ensemble(String name, List<Long> cast) {
+        jdbcTemplate.update("INSERT INTO movie (title, release_year, duration) VALUES (?, 2020, 120)", name);
+        long movieId = jdbcTemplate.queryForObject("SELECT max(id) FROM movie", Long.class);
+        for (int i = 0; i < CAST; i++) {
+            long actorId = actor(name + " Actor " + i);
+            jdbcTemplate.update("INSERT INTO movie_actor (movie_id, actor_id) VALUES (?, ?)", movieId, actorId);
+            cast.add(actorId);
+        }
+        return movieId;
+    }
+
+    private long actor(String name) {
+        jdbcTemplate.update("INSERT INTO actor (name, birth_date) VALUES (?, ?)", name, Date.valueOf("1970-01-01"));
+        return jdbcTemplate.queryForObject("SELECT id FROM actor WHERE name = ?", Long.class, name);
+    }
+
+    private ResultActions patchActors(long movieId, String body) throws Exception {
+        return mockMvc.perform(patch("/api/movies/" + movieId).contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    private List<Long> castOf(long movieId) {
+        return jdbcTemplate.queryForList("SELECT actor_id FROM movie_actor WHERE movie_id = ?", Long.class, movieId);
+    }
+
+    private long version(long movieId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM movie WHERE id = ?", Long.class, movieId);
+    }
+
+    private long changes() {
+        return jdbcTemplate.queryForObject("SELECT value FROM change_counter WHERE name = 'movie'", Long.class);
+    }
+}
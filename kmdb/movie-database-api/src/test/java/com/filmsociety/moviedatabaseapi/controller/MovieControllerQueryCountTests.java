@@ -0,0 +1,73 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Guards the movie list endpoints against N+1 lazy loading of genres and actors
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MovieControllerQueryCountTests {
+
+    // One query for the movies plus at most one batch query per collection
+    private static final long MAX_STATEMENTS_PER_PAGE = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void movieListPageUsesBoundedQueries() throws Exception {
+        assertStatementsAtMost("/api/movies?page=0&size=10", MAX_STATEMENTS_PER_PAGE);
+        assertStatementsAtMost("/api/movies?page=0&size=50", MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void moviesByGenreUseBoundedQueries() throws Exception {
+        assertStatementsAtMost("/api/movies/genre/2", MAX_STATEMENTS_PER_PAGE);
+        assertStatementsAtMost("/api/movies?genre=2", MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void moviesByYearUseBoundedQueries() throws Exception {
+        assertStatementsAtMost("/api/movies/year/1999", MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void moviesByActorUseBoundedQueries() throws Exception {
+        assertStatementsAtMost("/api/movies/actor/2?page=0&size=10", MAX_STATEMENTS_PER_PAGE);
+        assertStatementsAtMost("/api/movies?actor=2", MAX_STATEMENTS_PER_PAGE);
+    }
+
+    // Perform a GET request and check how many SQL statements it prepared
+    private void assertStatementsAtMost(String url, long maxStatements) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements executed for GET %s", url)
+                .isLessThanOrEqualTo(maxStatements);
+    }
+}
@@ -0,0 +1,178 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import com.filmsociety.moviedatabaseapi.projection.MovieFacets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The combined filter returns exactly the movies that meet every criterion, and facets count them correctly;
+// both are checked against the full catalogue. Runs on its own database file, since the filter index must
+// also follow writes.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MovieFilterTests extends WritableDatabaseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CatalogClient catalog;
+
+    @BeforeEach
+    void client() {
+        catalog = new CatalogClient(mockMvc, objectMapper);
+    }
+
+    @Test
+    void combinesEveryCriterion() throws Exception {
+        List<JsonNode> catalogue = catalog.walk("/api/movies?size=50");
+        JsonNode movie = catalogue.get(0);
+        long genre = movie.get("genres").get(0).get("id").asLong();
+        long actor = movie.get("actors").get(0).get("id").asLong();
+        int year = movie.get("releaseYear").asInt();
+        int duration = movie.get("duration").asInt();
+
+        assertFilter(catalogue, "genre=" + genre, m -> has(m, "genres", genre));
+        assertFilter(catalogue, "genre=" + genre + "&actor=" + actor,
+                m -> has(m, "genres", genre) && has(m, "actors", actor));
+        assertFilter(catalogue, "yearFrom=" + (year - 10) + "&yearTo=" + year + "&maxDuration=" + duration,
+                m -> between(m.get("releaseYear").asInt(), year - 10, year) && m.get("duration").asInt() <= duration);
+        assertFilter(catalogue, "genre=" + genre + "&yearFrom=" + year + "&minDuration=" + duration,
+                m -> has(m, "genres", genre) && m.get("releaseYear").asInt() >= year
+                        && m.get("duration").asInt() >= duration);
+        assertFilter(catalogue, "minDuration=0", m -> true);
+        assertFilter(catalogue, "genre=" + genre + "&actor=999999", m -> false);
+        for (JsonNode other : movie.get("genres")) { // Several genres must all be present
+            long second = other.get("id").asLong();
+            assertFilter(catalogue, "genre=" + genre + "," + second,
+                    m -> has(m, "genres", genre) && has(m, "genres", second));
+        }
+    }
+
+    @Test
+    void countsFacetsOverEveryMatch() throws Exception {
+        List<JsonNode> catalogue = catalog.walk("/api/movies?size=50");
+        JsonNode movie = catalogue.get(0);
+        long genre = movie.get("genres").get(0).get("id").asLong();
+        int year = movie.get("releaseYear").asInt();
+
+        assertFacets(catalogue.stream().filter(m -> has(m, "genres", genre)).toList(),
+                catalog.json("/api/movies/filter?size=1&facets=true&genre=" + genre).get("facets"));
+        assertFacets(catalogue.stream().filter(m -> m.get("releaseYear").asInt() <= year).toList(),
+                catalog.json("/api/movies/filter?size=1&facets=true&yearTo=" + year).get("facets"));
+        assertFacets(catalogue, catalog.json("/api/movies/filter?size=1&facets=true").get("facets"));
+        assertFacets(List.of(), catalog.json("/api/movies/filter?facets=true&actor=999999").get("facets"));
+
+        String word = movie.get("title").asText().split(" ")[0];
+        JsonNode search = catalog.json("/api/movies/search?limit=100000&facets=true&title=" + word);
+        List<JsonNode> matches = new ArrayList<>();
+        search.get("content").forEach(matches::add);
+        assertThat(matches).isNotEmpty();
+        assertFacets(matches, search.get("facets"));
+        assertThat(catalog.json("/api/movies/search?limit=1&facets=true&title=" + word).get("facets").get("total").asInt())
+                .isEqualTo(matches.size()); // Counts cover every match, not only the results returned
+    }
+
+    @Test
+    void followsWrites() throws Exception {
+        long actor = catalog.createActor("Filter Actor");
+        long movie = catalog.json(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Filter Movie\", \"releaseYear\": 1888, \"duration\": 77, "
+                        + "\"genres\": [{\"id\": 1}], \"actors\": [{\"id\": " + actor + "}]}"), 201).get("id").asLong();
+        assertThat(ids("genre=1&yearTo=1888")).containsExactly(movie);
+        assertThat(ids("actor=" + actor + "&minDuration=77&maxDuration=77")).containsExactly(movie);
+        assertThat(ids("yearFrom=1888&yearTo=1888&maxDuration=76")).isEmpty();
+
+        mockMvc.perform(delete("/api/movies/" + movie)).andExpect(status().isNoContent());
+        assertThat(ids("genre=1&yearTo=1888")).isEmpty();
+        assertThat(ids("minDuration=0")).doesNotContain(movie);
+    }
+
+    @Test
+    void rejectsInvalidFilters() throws Exception {
+        mockMvc.perform(get("/api/movies/filter?yearFrom=2000&yearTo=1990")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/movies/filter?minDuration=120&maxDuration=90")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/movies/filter?genre=1&size=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/movies/filter?after=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    private List<Long> ids(String query) throws Exception {
+        return catalog.walk("/api/movies/filter?size=2&" + query).stream().map(m -> m.get("id").asLong()).toList();
+    }
+
+    private void assertFilter(List<JsonNode> catalogue, String query, Predicate<JsonNode> criteria) throws Exception {
+        List<Long> expected = catalogue.stream().filter(criteria).map(m -> m.get("id").asLong()).toList();
+        List<Long> actual = ids(query);
+        assertThat(actual).as(query).isEqualTo(expected);
+    }
+
+    // Counts the movies per genre, decade and actor and compares them, in order, with the facets of a response
+    private static void assertFacets(List<JsonNode> movies, JsonNode facets) {
+        Map<Long, Long> genres = new HashMap<>();
+        Map<Integer, Long> decades = new TreeMap<>();
+        Map<Long, Long> actors = new HashMap<>();
+        for (JsonNode movie : movies) {
+            movie.get("genres").forEach(g -> genres.merge(g.get("id").asLong(), 1L, Long::sum));
+            decades.merge(Math.floorDiv(movie.get("releaseYear").asInt(), 10) * 10, 1L, Long::sum);
+            movie.get("actors").forEach(a -> actors.merge(a.get("id").asLong(), 1L, Long::sum));
+        }
+        assertThat(facets.get("total").asInt()).isEqualTo(movies.size());
+        assertThat(pairs(facets.get("genres"), "id")).isEqualTo(largestFirst(genres, Integer.MAX_VALUE));
+        assertThat(pairs(facets.get("decades"), "decade")).isEqualTo(decades.entrySet().stream()
+                .map(e -> List.of((long) e.getKey(), e.getValue())).toList());
+        assertThat(pairs(facets.get("actors"), "id")).isEqualTo(largestFirst(actors, MovieFacets.ACTOR_LIMIT));
+    }
+
+    private static List<List<Long>> largestFirst(Map<Long, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Comparator.comparing(Map.Entry<Long, Long>::getValue).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(e -> List.of(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    private static List<List<Long>> pairs(JsonNode facet, String key) {
+        List<List<Long>> pairs = new ArrayList<>();
+        facet.forEach(f -> pairs.add(List.of(f.get(key).asLong(), f.get("movieCount").asLong())));
+        return pairs;
+    }
+
+    private static boolean has(JsonNode movie, String field, long id) {
+        for (JsonNode linked : movie.get(field)) {
+            if (linked.get("id").asLong() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean between(int value, int from, int to) {
+        return value >= from && value <= to;
+    }
+}
@@ -0,0 +1,69 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// List endpoints serve projections: same JSON as the entities, but no entity is loaded to build them
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MovieSummaryTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void summariesSerializeLikeTheMovieEntity() throws Exception {
+        for (String url : new String[]{"/api/movies?page=0&size=5", "/api/movies/genre/2", "/api/movies/year/1999"}) {
+            JsonNode summaries = readJson(url);
+            assertThat(summaries.size()).as("movies returned by %s", url).isPositive();
+            for (JsonNode summary : summaries) {
+                // Lenient comparison: same fields and values, genre and actor order may differ
+                mockMvc.perform(get("/api/movies/{id}", summary.get("id").asLong()))
+                        .andExpect(status().isOk())
+                        .andExpect(content().json(summary.toString()));
+            }
+        }
+    }
+
+    @Test
+    void listEndpointsDoNotLoadEntities() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        readJson("/api/movies?page=0&size=50");
+        readJson("/api/movies/genre/2");
+        readJson("/api/movies/year/1999");
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    private JsonNode readJson(String url) throws Exception {
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,95 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The statistics endpoints must agree with what a dashboard computes by paging through every movie
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CatalogClient catalog;
+
+    @BeforeEach
+    void client() {
+        catalog = new CatalogClient(mockMvc, objectMapper);
+    }
+
+    @Test
+    void aggregatesMatchTheFullMovieList() throws Exception {
+        JsonNode movies = catalog.json("/api/movies?page=0&size=100000");
+        Map<Long, Long> perGenre = new HashMap<>();
+        TreeMap<Integer, long[]> perYear = new TreeMap<>(); // Year -> {movies, total duration}
+        Map<Long, Long> perActor = new HashMap<>();
+        long totalDuration = 0;
+        for (JsonNode movie : movies) {
+            movie.get("genres").forEach(genre -> perGenre.merge(genre.get("id").asLong(), 1L, Long::sum));
+            movie.get("actors").forEach(actor -> perActor.merge(actor.get("id").asLong(), 1L, Long::sum));
+            long[] year = perYear.computeIfAbsent(movie.get("releaseYear").asInt(), y -> new long[2]);
+            year[0]++;
+            year[1] += movie.get("duration").asInt();
+            totalDuration += movie.get("duration").asInt();
+        }
+
+        JsonNode overview = catalog.json("/api/stats");
+        assertThat(overview.get("movies").asLong()).isEqualTo(movies.size());
+        assertThat(overview.get("averageDuration").asDouble())
+                .isCloseTo((double) totalDuration / movies.size(), within(0.05));
+        assertThat(overview.get("firstReleaseYear").asInt()).isEqualTo(perYear.firstKey());
+
+        for (JsonNode genre : catalog.json("/api/stats/genres")) {
+            assertThat(genre.get("movieCount").asLong()).as(genre.get("name").asText())
+                    .isEqualTo(perGenre.getOrDefault(genre.get("id").asLong(), 0L));
+        }
+
+        JsonNode years = catalog.json("/api/stats/years");
+        assertThat(years.size()).isEqualTo(perYear.size());
+        for (JsonNode year : years) {
+            long[] expected = perYear.get(year.get("releaseYear").asInt());
+            assertThat(year.get("movieCount").asLong()).isEqualTo(expected[0]);
+            assertThat(year.get("averageDuration").asDouble()).isCloseTo((double) expected[1] / expected[0], within(0.05));
+        }
+
+        JsonNode busiest = catalog.json("/api/stats/actors?limit=3");
+        assertThat(busiest.size()).isEqualTo(Math.min(3, perActor.size()));
+        long mostMovies = perActor.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        assertThat(busiest.at("/0/movieCount").asLong()).isEqualTo(mostMovies);
+        for (JsonNode actor : busiest) {
+            assertThat(actor.get("movieCount").asLong()).isEqualTo(perActor.get(actor.get("id").asLong()));
+        }
+    }
+
+    @Test
+    void unchangedStatisticsAreAnsweredWith304() throws Exception {
+        String etag = mockMvc.perform(get("/api/stats/genres"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("\"stats-r");
+        mockMvc.perform(get("/api/stats/genres").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/stats/actors").param("limit", "0")).andExpect(status().isBadRequest());
+    }
+}
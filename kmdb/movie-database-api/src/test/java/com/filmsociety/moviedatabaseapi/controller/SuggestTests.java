@@ -0,0 +1,102 @@
+package com.filmsociety.moviedatabaseapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Suggestions tolerate typos, rank by popularity and follow creates, renames and deletes.
+// Runs on its own database file, since it writes.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SuggestTests extends WritableDatabaseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CatalogClient catalog;
+
+    @BeforeEach
+    void client() {
+        catalog = new CatalogClient(mockMvc, objectMapper);
+    }
+
+    @Test
+    void toleratesTyposAndRanksByPopularity() throws Exception {
+        long lead = catalog.createActor("Quentavia Marlowe");
+        long extra = catalog.createActor("Quentavia Brook");
+        long movie = catalog.createMovie("Zorblax Reloaded", lead);
+        catalog.createMovie("Zorblax Returns", lead);
+        catalog.createMovie("Zorblax Forever", lead, extra); // The largest cast
+
+        assertThat(texts("zorbl")).startsWith("Zorblax Forever", "Zorblax Reloaded", "Zorblax Returns");
+        assertThat(ids("zrobalx relo", "movie")).containsExactly(movie); // Swapped and dropped letters, two words
+        assertThat(ids("quentavia", "actor")).containsExactly(lead, extra); // Three movies before one
+        assertThat(ids("qeuntavia marlow", null)).containsExactly(lead);
+        assertThat(ids("zorblax", "actor")).isEmpty();
+        assertThat(suggest("/api/suggest?q=zo&limit=1")).hasSize(1);
+        assertThat(suggest("/api/suggest?q=%20")).isEmpty();
+    }
+
+    @Test
+    void followsWrites() throws Exception {
+        long actor = catalog.createActor("Wendolyn Prasket");
+        assertThat(ids("wendolyn", "actor")).containsExactly(actor);
+
+        catalog.json(patch("/api/actors/" + actor).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Wendolyn Okarro\"}"), 200);
+        assertThat(texts("wendolyn okaro")).containsExactly("Wendolyn Okarro");
+        assertThat(ids("prasket", "actor")).isEmpty();
+
+        long movie = catalog.createMovie("Hollowmere Nights", actor);
+        assertThat(ids("holowmere", "movie")).containsExactly(movie);
+        mockMvc.perform(delete("/api/movies/" + movie)).andExpect(status().isNoContent());
+        assertThat(ids("hollowmere", "movie")).isEmpty();
+        mockMvc.perform(delete("/api/actors/" + actor)).andExpect(status().isNoContent());
+        assertThat(ids("wendolyn", "actor")).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidParameters() throws Exception {
+        mockMvc.perform(get("/api/suggest?q=abc&limit=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/suggest?q=abc&limit=51")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/suggest?q=abc&type=genre")).andExpect(status().isBadRequest());
+    }
+
+    private List<Long> ids(String query, String type) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        suggest("/api/suggest?q=" + query + (type == null ? "" : "&type=" + type))
+                .forEach(suggestion -> ids.add(suggestion.get("id").asLong()));
+        return ids;
+    }
+
+    private List<String> texts(String query) throws Exception {
+        List<String> texts = new ArrayList<>();
+        suggest("/api/suggest?q=" + query).forEach(suggestion -> texts.add(suggestion.get("text").asText()));
+        return texts;
+    }
+
+    private JsonNode suggest(String url) throws Exception {
+        return catalog.json(get(url), 200);
+    }
+}
@@ -0,0 +1,44 @@
+package com.filmsociety.moviedatabaseapi.datainitializer;
+
+import com.filmsociety.moviedatabaseapi.MovieDatabaseApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Times building a full-size generated catalogue from application start to the last commit.
+// Run with: mvn test -Pbenchmark -Dtest=CatalogGeneratorBenchmark -Dbenchmark.movies=1000000
+@Tag("benchmark")
+class CatalogGeneratorBenchmark {
+
+    private static final int MOVIES = Integer.getInteger("benchmark.movies", 1_000_000);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void generateCatalogue() throws Exception {
+        Path databaseFile = tempDir.resolve("generated.db");
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieDatabaseApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:sqlite:" + databaseFile,
+                        "--seed.movies=" + MOVIES,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.springframework=WARN")) {
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            System.out.printf("Started with %,d movies, %,d actors and %,d cast entries in %,d ms (%,d MB on disk)%n",
+                    jdbc.queryForObject("SELECT count(*) FROM movie", Long.class),
+                    jdbc.queryForObject("SELECT count(*) FROM actor", Long.class),
+                    jdbc.queryForObject("SELECT count(*) FROM movie_actor", Long.class),
+                    elapsed, Files.size(databaseFile) / (1024 * 1024));
+        }
+    }
+}
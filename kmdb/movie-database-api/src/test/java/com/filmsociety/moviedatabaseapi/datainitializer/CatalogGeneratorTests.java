@@ -0,0 +1,94 @@
+package com.filmsociety.moviedatabaseapi.datainitializer;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Generated catalogue on a throwaway database file instead of the sample data
+@SpringBootTest(properties = {"seed.movies=3000", "seed.actors=600", "seed.genres=12", "seed.avgCast=6"})
+@ActiveProfiles("test")
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class) // The last test appends a second catalogue
+class CatalogGeneratorTests {
+
+    @TempDir
+    static Path tempDir;
+
+    @DynamicPropertySource
+    static void databaseFile(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + tempDir.resolve("generated.db"));
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogGenerator catalogGenerator;
+
+    @Test
+    @Order(1)
+    void generatesTheConfiguredVolumesInsteadOfTheSamples() {
+        assertThat(count("SELECT count(*) FROM genre")).isEqualTo(12);
+        assertThat(count("SELECT count(*) FROM actor")).isEqualTo(600);
+        assertThat(count("SELECT count(*) FROM movie")).isEqualTo(3000);
+        assertThat(count("SELECT count(*) FROM movie WHERE title = 'The Matrix'")).isZero();
+        assertThat(count("SELECT count(DISTINCT name) FROM actor")).isEqualTo(600); // Names are unique
+        assertThat(count("SELECT count(*) FROM movie_fts")).isEqualTo(3000); // Indexed in bulk after the load
+        assertThat(count("SELECT count(*) FROM actor_fts")).isEqualTo(600);
+        assertThat(count("SELECT count(*) FROM sqlite_master WHERE type = 'trigger' AND name LIKE '%fts%'"))
+                .isEqualTo(6); // Sync triggers are back in place
+
+        double averageCast = jdbcTemplate.queryForObject(
+                "SELECT avg(cast_size) FROM (SELECT count(*) AS cast_size FROM movie_actor GROUP BY movie_id)", Double.class);
+        assertThat(averageCast).isBetween(4.5, 6.5); // Slightly below 6 when popular actors are drawn twice
+        assertThat(count("SELECT count(*) FROM movie m WHERE NOT EXISTS "
+                + "(SELECT 1 FROM movie_genre mg WHERE mg.movie_id = m.id)")).isZero();
+    }
+
+    @Test
+    @Order(2)
+    void castPopularityIsSkewed() {
+        List<Long> appearances = jdbcTemplate.queryForList(
+                "SELECT count(*) FROM movie_actor WHERE movie_id <= 3000 GROUP BY actor_id ORDER BY count(*) DESC", Long.class);
+        long median = appearances.get(appearances.size() / 2);
+        assertThat(appearances.get(0)).isGreaterThan(median * 20);
+    }
+
+    @Test
+    @Order(3)
+    void sameSettingsProduceTheSameCatalogue() {
+        long firstMovieId = count("SELECT max(id) FROM movie") + 1;
+        long firstActorId = count("SELECT max(id) FROM actor") + 1;
+        catalogGenerator.generate(); // Appends a second copy after the existing rows
+
+        List<String> original = jdbcTemplate.queryForList("SELECT title || release_year || duration FROM movie "
+                + "WHERE id BETWEEN 1 AND 3000 ORDER BY id", String.class);
+        List<String> copy = jdbcTemplate.queryForList("SELECT title || release_year || duration FROM movie "
+                + "WHERE id BETWEEN ? AND ? ORDER BY id", String.class, firstMovieId, firstMovieId + 2999);
+        assertThat(copy).isEqualTo(original);
+
+        List<Long> originalCast = jdbcTemplate.queryForList("SELECT actor_id FROM movie_actor "
+                + "WHERE movie_id <= 3000 ORDER BY movie_id, actor_id", Long.class);
+        List<Long> copiedCast = jdbcTemplate.queryForList("SELECT actor_id - ? + 1 FROM movie_actor "
+                + "WHERE movie_id >= ? ORDER BY movie_id, actor_id", Long.class, firstActorId, firstMovieId);
+        assertThat(copiedCast).isEqualTo(originalCast);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.filmsociety.moviedatabaseapi.graph;
+
+import com.filmsociety.moviedatabaseapi.MovieDatabaseApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Co-star and shortest-path latency on a generated catalogue with about a million cast entries.
+// The first path lengths are checked against a plain breadth-first search over the same rows.
+// Run with: mvn test -Pbenchmark -Dtest=CoStarIndexBenchmark -Dbenchmark.movies=150000
+@Tag("benchmark")
+class CoStarIndexBenchmark {
+
+    private static final int MOVIES = Integer.getInteger("benchmark.movies", 150_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 1_000);
+    private static final int CHECKED = 20; // Queries verified against the plain search
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void queryTheGraph() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieDatabaseApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:sqlite:" + tempDir.resolve("costar.db"),
+                        "--seed.movies=" + MOVIES,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.springframework=WARN")) {
+            CoStarIndex index = context.getBean(CoStarIndex.class);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            List<Long> actors = jdbc.queryForList("SELECT DISTINCT actor_id FROM movie_actor", Long.class);
+            System.out.printf("%,d cast entries, %,d actors with movies%n",
+                    jdbc.queryForObject("SELECT count(*) FROM movie_actor", Long.class), actors.size());
+
+            long start = System.nanoTime();
+            index.coStars(actors.get(0), 1); // Builds the arrays
+            System.out.printf("Index built in %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+            Map<Long, List<Long>> moviesOfActor = new HashMap<>();
+            Map<Long, List<Long>> castOfMovie = new HashMap<>();
+            jdbc.query("SELECT movie_id, actor_id FROM movie_actor", rs -> {
+                moviesOfActor.computeIfAbsent(rs.getLong(2), id -> new ArrayList<>()).add(rs.getLong(1));
+                castOfMovie.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+            });
+
+            Random random = new Random(7);
+            long[] coStarNanos = new long[QUERIES];
+            long[] pathNanos = new long[QUERIES];
+            int found = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                long from = actors.get(random.nextInt(actors.size()));
+                long to = actors.get(random.nextInt(actors.size()));
+
+                start = System.nanoTime();
+                index.coStars(from, 100);
+                coStarNanos[q] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                CoStarIndex.Path path = index.shortestPath(from, to, 6);
+                pathNanos[q] = System.nanoTime() - start;
+                if (path != null) {
+                    found++;
+                }
+                if (q < CHECKED) {
+                    int expected = plainSearch(from, to, 6, moviesOfActor, castOfMovie);
+                    assertThat(path == null ? -1 : path.degrees()).as("degrees from %d to %d", from, to).isEqualTo(expected);
+                }
+            }
+            report("co-stars (top 100)", coStarNanos);
+            report("shortest path (max 6)", pathNanos);
+            System.out.printf("%d of %d pairs connected%n", found, QUERIES);
+        }
+    }
+
+    // Reference answer: one-directional breadth-first search over boxed maps, -1 when no path within maxDegrees
+    private static int plainSearch(long from, long to, int maxDegrees,
+                                   Map<Long, List<Long>> moviesOfActor, Map<Long, List<Long>> castOfMovie) {
+        Set<Long> seen = new HashSet<>(List.of(from));
+        ArrayDeque<Long> level = new ArrayDeque<>(List.of(from));
+        for (int degree = 0; degree <= maxDegrees; degree++) {
+            if (level.contains(to)) {
+                return degree;
+            }
+            ArrayDeque<Long> next = new ArrayDeque<>();
+            for (Long actor : level) {
+                for (Long movie : moviesOfActor.getOrDefault(actor, List.of())) {
+                    for (Long coStar : castOfMovie.get(movie)) {
+                        if (seen.add(coStar)) {
+                            next.add(coStar);
+                        }
+                    }
+                }
+            }
+            level = next;
+        }
+        return -1;
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-22s p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", name,
+                sorted[sorted.length / 2] / 1e6, sorted[sorted.length * 99 / 100] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+}
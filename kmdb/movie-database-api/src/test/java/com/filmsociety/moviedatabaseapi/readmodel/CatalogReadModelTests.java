@@ -0,0 +1,233 @@
+package com.filmsociety.moviedatabaseapi.readmodel;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.filmsociety.moviedatabaseapi.WritableDatabaseTests;
+import com.filmsociety.moviedatabaseapi.controller.CatalogClient;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every GET answered from the read model matches the same GET answered from the database, before and after writes.
+// Runs on its own database file with the read model enabled.
+@SpringBootTest(properties = "readmodel.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogReadModelTests extends WritableDatabaseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private CatalogClient catalog;
+
+    @BeforeEach
+    void client() {
+        catalog = new CatalogClient(mockMvc, objectMapper);
+        catalogReadModel.awaitRefresh(); // The first load runs in the background too
+    }
+
+    @AfterEach
+    void serveFromModel() {
+        catalogReadModel.setServing(true);
+    }
+
+    @Test
+    void answersLikeTheDatabase() throws Exception {
+        String word = catalog.json(get("/api/movies/1")).get("title").asText().split(" ")[0];
+        assertSameAnswers("/api/movies/search?facets=true&title=" + word); // Facets of all matches from the model
+    }
+
+    @Test
+    void readsRunNoQueries() throws Exception {
+        List<String> urls = urls();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        for (String url : urls) {
+            mockMvc.perform(get(url));
+        }
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void followsWrites() throws Exception {
+        long genre = catalog.json(post("/api/genres").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Model Genre\"}"), 201).get("id").asLong();
+        long actor = catalog.createActor("Model Actor");
+        long other = catalog.createActor("Model Actor Two");
+        long movie = catalog.json(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Model Movie\", \"releaseYear\": 1999, \"duration\": 95, "
+                        + "\"genres\": [{\"id\": " + genre + "}, {\"id\": 1}], \"actors\": [{\"id\": " + actor + "}]}"), 201)
+                .get("id").asLong();
+        catalogReadModel.awaitRefresh();
+        assertSameAnswers("/api/movies/" + movie, "/api/movies/genre/" + genre, "/api/movies/actor/" + actor,
+                "/api/movies/filter?genre=" + genre + "&actor=" + actor + "&yearFrom=1999");
+        String etag = etag("/api/movies/" + movie);
+
+        catalog.json(patch("/api/movies/" + movie).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"add\": [" + other + "], \"remove\": [" + actor + "]}"), 200);
+        catalogReadModel.awaitRefresh();
+        assertThat(etag("/api/movies/" + movie)).isNotEqualTo(etag);
+        mockMvc.perform(get("/api/movies/actor/" + actor)).andExpect(status().isNotFound());
+        assertSameAnswers("/api/movies/" + movie, "/api/movies/actor/" + other, "/api/movies/" + movie + "/actors",
+                "/api/movies/filter?genre=" + genre + "&actor=" + other, "/api/movies/filter?genre=" + genre + "&actor=" + actor);
+
+        catalog.json(patch("/api/genres/" + genre).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Model Genre Renamed\"}"), 200);
+        catalogReadModel.awaitRefresh();
+        assertThat(catalog.json(get("/api/movies/" + movie)).get("genres").toString()).contains("Model Genre Renamed");
+        assertSameAnswers("/api/movies/" + movie, "/api/genres/" + genre);
+
+        mockMvc.perform(delete("/api/actors/" + other).param("force", "true")).andExpect(status().isNoContent());
+        catalogReadModel.awaitRefresh();
+        mockMvc.perform(get("/api/actors/" + other)).andExpect(status().isNotFound());
+        assertThat(catalog.json(get("/api/movies/" + movie)).get("actors")).isEmpty();
+        assertSameAnswers("/api/movies/" + movie);
+
+        mockMvc.perform(delete("/api/movies/" + movie)).andExpect(status().isNoContent());
+        catalogReadModel.awaitRefresh();
+        mockMvc.perform(get("/api/movies/" + movie)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/movies/genre/" + genre)).andExpect(status().isNotFound());
+        assertSameAnswers();
+    }
+
+    @Test
+    void followsActorsAndGenresCreatedWithAMovie() throws Exception {
+        JsonNode created = catalog.json(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\": \"Model Nested Movie\", \"releaseYear\": 2004, \"duration\": 100, "
+                        + "\"genres\": [{\"name\": \"Model Nested Genre\"}], "
+                        + "\"actors\": [{\"name\": \"Model Nested Actor\", \"birthDate\": \"1970-01-01\"}]}"), 201);
+        long movie = created.get("id").asLong();
+        long actor = created.at("/actors/0/id").asLong();
+        long genre = created.at("/genres/0/id").asLong();
+        catalogReadModel.awaitRefresh();
+
+        JsonNode read = catalog.json(get("/api/movies/" + movie));
+        assertThat(read.at("/actors/0/name").asText()).isEqualTo("Model Nested Actor");
+        assertThat(read.at("/genres/0/name").asText()).isEqualTo("Model Nested Genre");
+        assertThat(catalog.json(get("/api/actors/" + actor)).get("name").asText()).isEqualTo("Model Nested Actor");
+        assertThat(catalog.json(get("/api/genres?page=0&size=1000")).toString()).contains("Model Nested Genre");
+        assertSameAnswers("/api/movies/" + movie, "/api/actors/" + actor, "/api/genres/" + genre,
+                "/api/genres?page=0&size=1000", "/api/movies/genre/" + genre, "/api/movies/actor/" + actor);
+    }
+
+    @Test
+    void listETagsFollowTheModel() throws Exception {
+        String etag = etag("/api/genres?page=0&size=100");
+        mockMvc.perform(get("/api/genres?page=0&size=100").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        catalog.json(post("/api/genres").contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Model ETag Genre\"}"), 201);
+        catalogReadModel.awaitRefresh(); // The old page and its ETag are served until the refresh is published
+        MockHttpServletResponse changed = mockMvc.perform(get("/api/genres?page=0&size=100")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(changed.getContentAsString()).contains("Model ETag Genre");
+    }
+
+    // The GETs of the movie, actor and genre controllers, with IDs and cursors taken from the sample data
+    private List<String> urls() throws Exception {
+        JsonNode movie = catalog.json(get("/api/movies/1"));
+        long actor = movie.get("actors").get(0).get("id").asLong();
+        long genre = movie.get("genres").get(0).get("id").asLong();
+        List<String> urls = new ArrayList<>(List.of(
+                "/api/movies?page=0&size=5", "/api/movies?page=1&size=3", "/api/movies?page=100&size=10",
+                "/api/movies?after=&size=4", "/api/movies?after=&size=4&sort=releaseYear",
+                "/api/movies?genre=" + genre, "/api/movies?actor=" + actor, "/api/movies?ids=3,1,999999,3",
+                "/api/movies/1", "/api/movies/999999", "/api/movies/1/actors", "/api/movies/999999/actors",
+                "/api/movies/genre/" + genre, "/api/movies/genre/999999", "/api/movies/year/" + movie.get("releaseYear"),
+                "/api/movies/year/1800", "/api/movies/actor/" + actor, "/api/movies/actor/" + actor + "?page=1&size=1",
+                "/api/actors?page=0&size=5", "/api/actors?page=1&size=3", "/api/actors?after=&size=4",
+                "/api/actors?ids=2,1,999999", "/api/actors/" + actor, "/api/actors/999999",
+                "/api/genres?page=0&size=3", "/api/genres?after=&size=2", "/api/genres?ids=2,999999",
+                "/api/genres/" + genre, "/api/genres/999999",
+                "/api/movies/filter?genre=" + genre + "&actor=" + actor, "/api/movies/filter?genre=" + genre + ",999999",
+                "/api/movies/filter?yearFrom=1990&yearTo=2005&maxDuration=130",
+                "/api/movies/filter?actor=" + actor + "&minDuration=100", "/api/movies/filter?yearTo=1800",
+                "/api/movies/filter?facets=true&genre=" + genre, "/api/movies/filter?facets=true&maxDuration=120",
+                "/api/movies/filter?facets=true"));
+        for (String first : List.of("/api/movies?after=&size=4", "/api/movies?after=&size=4&sort=releaseYear",
+                "/api/actors?after=&size=4", "/api/genres?after=&size=2",
+                "/api/movies/filter?after=&size=2&genre=" + genre, "/api/movies/filter?after=&size=3&minDuration=0")) {
+            String cursor = catalog.json(get(first)).get("nextCursor").asText();
+            urls.add(first.replace("after=", "after=" + cursor));
+        }
+        return urls;
+    }
+
+    private void assertSameAnswers(String... extraUrls) throws Exception {
+        List<String> urls = new ArrayList<>(urls());
+        urls.addAll(List.of(extraUrls));
+        for (String url : urls) {
+            catalogReadModel.setServing(false);
+            MockHttpServletResponse database = mockMvc.perform(get(url)).andReturn().getResponse();
+            catalogReadModel.setServing(true);
+            MockHttpServletResponse model = mockMvc.perform(get(url)).andReturn().getResponse();
+            assertThat(model.getStatus()).as(url).isEqualTo(database.getStatus());
+            assertThat(model.getHeader(HttpHeaders.ETAG)).as(url).isEqualTo(database.getHeader(HttpHeaders.ETAG));
+            if (database.getStatus() == 200) {
+                assertThat(canonical(model)).as(url).isEqualTo(canonical(database));
+            } else {
+                assertThat(model.getContentAsString()).as(url).isEqualTo(database.getContentAsString());
+            }
+        }
+    }
+
+    // The body with the genres and actors of each movie in ID order, since the entities keep them in hash sets
+    private JsonNode canonical(MockHttpServletResponse response) throws Exception {
+        JsonNode body = objectMapper.readTree(response.getContentAsString());
+        sortEmbedded(body);
+        return body;
+    }
+
+    private static void sortEmbedded(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            for (String field : List.of("genres", "actors")) {
+                if (object.get(field) instanceof ArrayNode array) {
+                    List<JsonNode> items = new ArrayList<>();
+                    array.forEach(items::add);
+                    items.sort(Comparator.comparingLong(item -> item.get("id").asLong()));
+                    array.removeAll().addAll(items);
+                }
+            }
+        }
+        node.forEach(CatalogReadModelTests::sortEmbedded);
+    }
+
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,77 @@
+package com.filmsociety.moviedatabaseapi.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Guards the lookup indexes of the V2 and V4 migrations: the filter queries must search an index, not scan a table,
+// and the statistics queries must read covering indexes in group order
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void moviesByActorSearchTheActorIndex() {
+        assertThat(queryPlan("SELECT m.id, m.title FROM movie m JOIN movie_actor ma ON ma.movie_id = m.id "
+                + "WHERE ma.actor_id = 1 ORDER BY m.id"))
+                .anyMatch(step -> step.contains("USING COVERING INDEX idx_movie_actor_actor_movie (actor_id=?)"))
+                .noneMatch(step -> step.startsWith("SCAN"));
+    }
+
+    @Test
+    void moviesByGenreSearchTheGenreIndex() {
+        assertThat(queryPlan("SELECT m.id, m.title FROM movie m JOIN movie_genre mg ON mg.movie_id = m.id "
+                + "WHERE mg.genre_id = 1 ORDER BY m.id"))
+                .anyMatch(step -> step.contains("USING COVERING INDEX idx_movie_genre_genre_movie (genre_id=?)"))
+                .noneMatch(step -> step.startsWith("SCAN"));
+    }
+
+    @Test
+    void moviesByReleaseYearSearchTheYearIndex() {
+        assertThat(queryPlan("SELECT id, title FROM movie WHERE release_year = 1999 ORDER BY id"))
+                .anyMatch(step -> step.contains("USING INDEX idx_movie_release_year_duration (release_year=?)"))
+                .noneMatch(step -> step.startsWith("SCAN"));
+        // Keyset pages ordered by (release_year, id) seek on the year; only the IDs within a year are sorted
+        assertThat(queryPlan("SELECT id, title FROM movie WHERE release_year >= 1999 "
+                + "AND (release_year > 1999 OR id > 5) ORDER BY release_year, id LIMIT 20"))
+                .anyMatch(step -> step.contains("USING INDEX idx_movie_release_year_duration (release_year>?)"))
+                .noneMatch(step -> step.equals("USE TEMP B-TREE FOR ORDER BY")) // A partial sort, not the whole result
+                .noneMatch(step -> step.startsWith("SCAN"));
+    }
+
+    @Test
+    void actorNameLookupSearchesTheUniqueIndex() {
+        assertThat(queryPlan("SELECT id FROM actor WHERE name = 'Keanu Reeves'"))
+                .anyMatch(step -> step.contains("USING COVERING INDEX ux_actor_name (name=?)"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT \"unique\" FROM pragma_index_list('actor') WHERE name = 'ux_actor_name'", Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void statisticsReadCoveringIndexesWithoutSorting() {
+        assertThat(queryPlan("SELECT release_year, count(*), round(avg(duration), 1) FROM movie "
+                + "GROUP BY release_year ORDER BY release_year"))
+                .anyMatch(step -> step.contains("USING COVERING INDEX idx_movie_release_year_duration"))
+                .noneMatch(step -> step.contains("TEMP B-TREE"));
+        assertThat(queryPlan("SELECT count(*) FROM movie_genre mg WHERE mg.genre_id = 1"))
+                .anyMatch(step -> step.contains("USING COVERING INDEX idx_movie_genre_genre_movie (genre_id=?)"));
+        assertThat(queryPlan("SELECT actor_id, count(*) FROM movie_actor GROUP BY actor_id"))
+                .anyMatch(step -> step.contains("USING COVERING INDEX idx_movie_actor_actor_movie"))
+                .noneMatch(step -> step.contains("TEMP B-TREE"));
+    }
+
+    // The detail column of each EXPLAIN QUERY PLAN row, e.g. "SEARCH m USING INTEGER PRIMARY KEY (rowid=?)"
+    private List<String> queryPlan(String sql) {
+        return jdbcTemplate.query("EXPLAIN QUERY PLAN " + sql, (rows, rowNum) -> rows.getString("detail"));
+    }
+}
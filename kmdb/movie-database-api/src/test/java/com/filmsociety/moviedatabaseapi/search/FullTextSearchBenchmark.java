@@ -0,0 +1,116 @@
+package com.filmsociety.moviedatabaseapi.search;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Random;
+
+// Compares the LIKE '%term%' title search with the FTS5 index on a generated catalogue.
+// Run with: mvn test -Pbenchmark -Dtest=FullTextSearchBenchmark -Dbenchmark.movies=1000000
+@Tag("benchmark")
+class FullTextSearchBenchmark {
+
+    private static final int MOVIES = Integer.getInteger("benchmark.movies", 1_000_000);
+    private static final int ITERATIONS = 5;
+    private static final int RESULT_LIMIT = 100;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareLikeWithFullTextSearch() throws Exception {
+        String url = "jdbc:sqlite:" + tempDir.resolve("fts.db");
+        Flyway.configure().dataSource(url, null, null).load().migrate(); // Same schema as the application
+        try (Connection connection = DriverManager.getConnection(url)) {
+
+            String[] vocabulary = vocabulary(5_000);
+            long loadStart = System.nanoTime();
+            loadMovies(connection, vocabulary);
+            System.out.printf("Loaded %,d movies (with FTS triggers) in %d ms%n",
+                    MOVIES, (System.nanoTime() - loadStart) / 1_000_000);
+
+            // Frequent, mid-frequency and rare words, each as a full token and a short prefix
+            String[] terms = {vocabulary[0], vocabulary[50], vocabulary[2_000], vocabulary[4_999],
+                    vocabulary[50].substring(0, 3), vocabulary[2_000].substring(0, 4)};
+            System.out.printf("%-12s %12s %12s %10s%n", "term", "LIKE ms", "FTS5 ms", "speedup");
+            for (String term : terms) {
+                double like = medianMillis(connection,
+                        "SELECT id, title FROM movie WHERE lower(title) LIKE ?", "%" + term + "%");
+                double fts = medianMillis(connection,
+                        "SELECT m.id, m.title FROM movie_fts JOIN movie m ON m.id = movie_fts.rowid "
+                                + "WHERE movie_fts MATCH ? ORDER BY movie_fts.rank LIMIT " + RESULT_LIMIT,
+                        FullTextQuery.prefixMatch(term));
+                System.out.printf("%-12s %12.2f %12.2f %9.1fx%n", term, like, fts, like / fts);
+            }
+        }
+    }
+
+    // Insert movies with 1-4 word titles drawn from a skewed word distribution
+    private void loadMovies(Connection connection, String[] vocabulary) throws SQLException {
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO movie(id, title) VALUES (?, ?)")) {
+            for (int id = 1; id <= MOVIES; id++) {
+                StringBuilder title = new StringBuilder();
+                int words = 1 + random.nextInt(4);
+                for (int w = 0; w < words; w++) {
+                    double skew = random.nextDouble();
+                    title.append(w == 0 ? "" : " ").append(vocabulary[(int) (skew * skew * skew * vocabulary.length)]);
+                }
+                insert.setInt(1, id);
+                insert.setString(2, title.toString());
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    // Run a query several times and return the median wall time, reading every returned row
+    private double medianMillis(Connection connection, String sql, String parameter) throws SQLException {
+        double[] timings = new double[ITERATIONS];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, parameter);
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        rows.getString(2);
+                    }
+                }
+                timings[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+        }
+        Arrays.sort(timings);
+        return timings[ITERATIONS / 2];
+    }
+
+    // Deterministic pronounceable words such as "bakemo", "tisura"
+    private String[] vocabulary(int size) {
+        String[] syllables = {"ba", "ke", "mo", "ti", "su", "ra", "lo", "ne", "vi", "da", "po", "gu", "fe", "zi", "ha"};
+        Random random = new Random(7);
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(3);
+            for (int s = 0; s < length; s++) {
+                word.append(syllables[random.nextInt(syllables.length)]);
+            }
+            words[i] = word.append(i).toString(); // Suffix keeps every word unique
+        }
+        return words;
+    }
+}
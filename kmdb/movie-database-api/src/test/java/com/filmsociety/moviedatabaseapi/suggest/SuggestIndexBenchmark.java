@@ -0,0 +1,88 @@
+package com.filmsociety.moviedatabaseapi.suggest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Suggestion latency over generated titles and names, queried with prefixes that have a typo in them.
+// Every query is made from an entry's own words, so it must come back with at least one suggestion.
+// Run with: mvn test -Pbenchmark -Dtest=SuggestIndexBenchmark -Dbenchmark.entries=1000000
+@Tag("benchmark")
+class SuggestIndexBenchmark {
+
+    private static final int ENTRIES = Integer.getInteger("benchmark.entries", 1_000_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 10_000);
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ra", "tu", "vo", "shi", "dan", "mor", "el",
+            "ix", "qua", "bre", "sto", "ven", "gal", "tor", "lin", "fe"};
+
+    @Test
+    void suggestWithTypos() {
+        Random random = new Random(7);
+        List<Entry> entries = new ArrayList<>(ENTRIES);
+        for (int e = 0; e < ENTRIES; e++) {
+            Entry.Kind kind = e % 3 == 0 ? Entry.Kind.ACTOR : Entry.Kind.MOVIE;
+            String text = word(random) + " " + word(random) + (kind == Entry.Kind.MOVIE ? " " + word(random) : "");
+            entries.add(Entry.of(kind, e, text, random.nextInt(50)));
+        }
+        long start = System.nanoTime();
+        Dictionary dictionary = Dictionary.of(entries);
+        System.out.printf("Dictionary of %,d entries built in %,d ms%n", dictionary.size(),
+                (System.nanoTime() - start) / 1_000_000);
+
+        long[] oneWord = new long[QUERIES / 2];
+        long[] twoWords = new long[QUERIES / 2];
+        for (int q = -QUERIES; q < QUERIES; q++) { // The first half warms up the JIT and is not timed
+            String[] words = entries.get(random.nextInt(ENTRIES)).words();
+            String[] queryWords = (q & 1) == 0
+                    ? new String[] {typo(prefix(words[0], random), random)}
+                    : new String[] {words[0], typo(prefix(words[1], random), random)}; // Typing the second word
+            int[] maxEdits = Arrays.stream(queryWords).mapToInt(Text::maxEdits).toArray();
+
+            start = System.nanoTime();
+            List<Dictionary.Ranked> suggestions = dictionary.suggest(queryWords, maxEdits, null, 10, Map.of());
+            if (q >= 0) {
+                (queryWords.length == 1 ? oneWord : twoWords)[q / 2] = System.nanoTime() - start;
+            }
+            assertThat(suggestions).as("suggestions for %s", String.join(" ", queryWords)).isNotEmpty();
+        }
+        report("one word", oneWord);
+        report("two words", twoWords);
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-10s p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", name,
+                sorted[sorted.length / 2] / 1e6, sorted[sorted.length * 99 / 100] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int s = 2 + random.nextInt(3); s > 0; s--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    // What has been typed of the word so far, at least three characters
+    private static String prefix(String word, Random random) {
+        return word.substring(0, Math.min(word.length(), 3 + random.nextInt(word.length() - 2)));
+    }
+
+    // Swaps two neighbouring characters after the first, the most common typo while typing
+    private static String typo(String prefix, Random random) {
+        char[] chars = prefix.toCharArray();
+        int i = 1 + random.nextInt(chars.length - 2);
+        char swapped = chars[i];
+        chars[i] = chars[i + 1];
+        chars[i + 1] = swapped;
+        return new String(chars);
+    }
+}